@@ -1,9 +1,19 @@
 package org.example;
 
+import org.example.archive.ArchiveStore;
+import org.example.config.AppConfig;
 import org.example.controller.TaskController;
+import org.example.dao.ProjectDAO;
 import org.example.dao.TaskDAO;
+import org.example.service.ArchiveService;
+import org.example.service.ProjectService;
+import org.example.service.TaskArchiver;
+import org.example.service.TaskPurger;
 import org.example.service.TaskService;
 
+import java.time.Duration;
+import java.time.LocalTime;
+
 /**
  * Главный класс приложения TimeTrackerApp, который инициализирует и запускает контроллер задач.
  */
@@ -20,10 +30,56 @@ public class TimeTrackerApp {
         // Создание экземпляра TaskService с использованием TaskDAO
         TaskService taskService = new TaskService(taskDAO);
 
-        // Создание экземпляра TaskController с использованием TaskService
-        TaskController taskController = new TaskController(taskService);
+        // Загрузка ID существующих задач, чтобы операции над удалёнными задачами не обращались к базе
+        taskService.loadIdFilter();
+
+        // Загрузка активных задач для быстрого вывода самых долгих из них
+        taskService.loadActiveTasks();
+
+        // Загрузка сроков автоматической остановки активных задач и запуск колеса таймеров
+        taskService.loadAutoStops();
+        taskService.getAutoStop().start(taskService::autoStopTasks);
+
+        // Запуск фоновой записи журнала изменений задач; при завершении процесса (в том числе по SIGTERM)
+        // оставшиеся в очереди записи дописываются или отбрасываются в соответствии с AUDIT_SHUTDOWN
+        taskService.getAuditLog().start();
+        Runtime.getRuntime().addShutdownHook(new Thread(taskService.getAuditLog()::close, "task-audit-shutdown"));
+
+        // Фоновая архивация завершённых задач и обслуживание секций таблицы tasks
+        TaskArchiver taskArchiver = new TaskArchiver(
+                taskDAO,
+                taskService.getReadCoalescer(),
+                Duration.ofDays(AppConfig.getLong("ARCHIVE_AFTER_DAYS", 90)),
+                AppConfig.getInt("ARCHIVE_BATCH_SIZE", 1000));
+        taskArchiver.start(Duration.ofMinutes(AppConfig.getLong("ARCHIVE_INTERVAL_MINUTES", 60)));
+
+        // Фоновая очистка удалённых задач в непиковое время
+        TaskPurger taskPurger = new TaskPurger(
+                taskDAO,
+                taskService.getReadCoalescer(),
+                taskService.getDeleteRetention(),
+                Duration.ofDays(AppConfig.getLong("SYNC_TOMBSTONE_RETENTION_DAYS", 30)),
+                AppConfig.getInt("PURGE_BATCH_SIZE", 1000),
+                LocalTime.parse(AppConfig.getString("PURGE_WINDOW_START", "01:00")),
+                LocalTime.parse(AppConfig.getString("PURGE_WINDOW_END", "05:00")),
+                Duration.ofMillis(AppConfig.getLong("PURGE_BATCH_PAUSE_MS", 200)));
+        taskPurger.start(Duration.ofMinutes(AppConfig.getLong("PURGE_INTERVAL_MINUTES", 15)));
+
+        // Создание экземпляра ProjectService для работы с проектами и метками
+        ProjectService projectService = new ProjectService(new ProjectDAO(), taskService);
+
+        // Создание экземпляра ArchiveService для выгрузки архивных задач в файлы
+        ArchiveService archiveService = new ArchiveService(taskDAO, ArchiveStore.fromEnvironment());
+
+        // Создание экземпляра TaskController с использованием TaskService, ProjectService и ArchiveService
+        TaskController taskController = new TaskController(taskService, projectService, archiveService);
 
         // Запуск контроллера задач
         taskController.run();
+
+        taskArchiver.close();
+        taskPurger.close();
+        taskService.getAutoStop().close();
+        taskService.getAuditLog().close();
     }
 }
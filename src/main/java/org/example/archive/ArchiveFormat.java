@@ -0,0 +1,83 @@
+package org.example.archive;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Формат файла архива задач (.tta). Файл неизменяем и хранит задачи по столбцам:
+ *
+ * <pre>
+ * заголовок:  MAGIC, количество задач, начало и конец периода архива (мс), наибольшее время остановки (мс),
+ *             количество названий в словаре, длины шести столбцов и словаря
+ * ID:         zigzag varint разности с ID предыдущей задачи
+ * START:      zigzag varint разности с началом предыдущей задачи (мс; для первой - с началом периода)
+ * STOP:       0 - нет времени остановки, иначе zigzag varint (остановка - начало) + 1
+ * NAME:       varint номера названия в словаре
+ * STATUS:     2 бита на задачу, младшие биты байта - первая задача
+ * PROJECT:    varint (ID проекта + 1), 0 - проект не назначен
+ * словарь:    для каждого названия varint длины и байты UTF-8
+ * </pre>
+ *
+ * Время хранится в миллисекундах как LocalDateTime, пересчитанное в UTC без сдвига пояса,
+ * поэтому чтение возвращает то же локальное время, что было записано (с точностью до миллисекунды).
+ */
+final class ArchiveFormat {
+
+    static final int MAGIC = 0x54544131; // "TTA1"
+    static final int COLUMNS = 6;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4 * (COLUMNS + 1);
+
+    static final int ID = 0;
+    static final int START = 1;
+    static final int STOP = 2;
+    static final int NAME = 3;
+    static final int STATUS = 4;
+    static final int PROJECT = 5;
+
+    // Коды статусов в 2-битном столбце
+    static final String[] STATUSES = {"Активна", "Остановлена", "Завершена"};
+
+    private ArchiveFormat() {
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    static int statusCode(String status) {
+        for (int code = 0; code < STATUSES.length; code++) {
+            if (STATUSES[code].equals(status)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status for archive: " + status);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Читает varint: по 7 бит на байт, старший бит байта - признак продолжения.
+     */
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
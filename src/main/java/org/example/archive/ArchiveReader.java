@@ -0,0 +1,243 @@
+package org.example.archive;
+
+import org.example.entity.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.example.archive.ArchiveFormat.*;
+
+/**
+ * Чтение файла архива задач в формате {@link ArchiveFormat}. Файл отображается в память только для чтения,
+ * и столбцы декодируются прямо из отображения: просмотр архива не копирует файл в кучу и не создаёт
+ * объектов на каждую задачу, а страницы файла подгружает и вытесняет операционная система.
+ *
+ * <p>Названия из словаря декодируются только по запросу {@link #getName(int)}.
+ * Отображение освобождается сборщиком мусора после закрытия читателя.
+ */
+public class ArchiveReader implements AutoCloseable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final long periodFrom;
+    private final long periodTo;
+    private final long lastStop;
+    private final int nameCount;
+    private final int[] columnOffsets = new int[COLUMNS + 1];
+    private final int[] columnLengths = new int[COLUMNS + 1];
+    private int[] nameOffsets;
+
+    private ArchiveReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a task archive file: " + file);
+            }
+            this.rowCount = buffer.getInt(4);
+            this.periodFrom = buffer.getLong(8);
+            this.periodTo = buffer.getLong(16);
+            this.lastStop = buffer.getLong(24);
+            this.nameCount = buffer.getInt(32);
+            int offset = HEADER_SIZE;
+            for (int i = 0; i <= COLUMNS; i++) {
+                columnOffsets[i] = offset;
+                columnLengths[i] = buffer.getInt(36 + 4 * i);
+                offset += columnLengths[i];
+            }
+            if (offset != buffer.capacity()) {
+                throw new IOException("Corrupted task archive file: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открывает файл архива.
+     *
+     * @param file путь к файлу архива
+     * @return читатель архива
+     * @throws IOException если файл не удалось открыть или он не является архивом задач
+     */
+    public static ArchiveReader open(Path file) throws IOException {
+        return new ArchiveReader(file);
+    }
+
+    /**
+     * Просматривает все задачи архива в порядке записи.
+     *
+     * @param visitor обработчик задач
+     */
+    public void scan(ArchiveVisitor visitor) {
+        ByteBuffer ids = column(ID);
+        ByteBuffer starts = column(START);
+        ByteBuffer stops = column(STOP);
+        ByteBuffer names = column(NAME);
+        ByteBuffer statuses = column(STATUS);
+        ByteBuffer projects = column(PROJECT);
+
+        long id = 0;
+        long start = periodFrom;
+        int statusByte = 0;
+        for (int row = 0; row < rowCount; row++) {
+            id += unzigzag(readVarLong(ids));
+            start += unzigzag(readVarLong(starts));
+            long stop = readVarLong(stops);
+            int nameIndex = (int) readVarLong(names);
+            if (row % 4 == 0) {
+                statusByte = statuses.get();
+            }
+            int status = (statusByte >>> (row % 4 * 2)) & 0x3;
+            long project = readVarLong(projects);
+            visitor.visit(id, start, stop == 0 ? ArchiveVisitor.NO_STOP : start + unzigzag(stop - 1),
+                    nameIndex, status, project == 0 ? 0 : project - 1);
+        }
+    }
+
+    /**
+     * Читает все задачи архива в виде объектов. Предназначено для небольших выборок и проверки архива;
+     * для итогов используйте {@link #scan(ArchiveVisitor)}.
+     *
+     * @param consumer обработчик задач
+     */
+    public void forEachTask(Consumer<Task> consumer) {
+        scan((id, startMillis, stopMillis, nameIndex, statusCode, projectId) -> {
+            Task task = new Task();
+            task.setId(id);
+            task.setName(getName(nameIndex));
+            task.setStartTime(toLocalDateTime(startMillis));
+            task.setStopTime(stopMillis != ArchiveVisitor.NO_STOP ? toLocalDateTime(stopMillis) : null);
+            task.setStatus(getStatus(statusCode));
+            task.setProjectId(projectId != 0 ? projectId : null);
+            consumer.accept(task);
+        });
+    }
+
+    /**
+     * Возвращает название из словаря файла.
+     *
+     * @param index номер названия
+     * @return название задачи
+     */
+    public synchronized String getName(int index) {
+        if (nameOffsets == null) {
+            nameOffsets = new int[nameCount];
+            ByteBuffer dictionary = column(COLUMNS);
+            for (int i = 0; i < nameCount; i++) {
+                nameOffsets[i] = dictionary.position();
+                int length = (int) readVarLong(dictionary);
+                dictionary.position(dictionary.position() + length);
+            }
+        }
+        ByteBuffer dictionary = column(COLUMNS);
+        dictionary.position(nameOffsets[index]);
+        byte[] bytes = new byte[(int) readVarLong(dictionary)];
+        dictionary.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Возвращает статус задачи по его коду.
+     *
+     * @param code код статуса
+     * @return статус задачи
+     */
+    public String getStatus(int code) {
+        return STATUSES[code];
+    }
+
+    /**
+     * Преобразует время из файла архива в локальное время.
+     *
+     * @param millis время в миллисекундах из {@link ArchiveVisitor}
+     * @return локальное время
+     */
+    public static LocalDateTime toLocalDateTime(long millis) {
+        return fromMillis(millis);
+    }
+
+    /**
+     * Преобразует локальное время в миллисекунды, в которых время передаётся {@link ArchiveVisitor}.
+     *
+     * @param time локальное время
+     * @return время в миллисекундах
+     */
+    public static long toArchiveMillis(LocalDateTime time) {
+        return toMillis(time);
+    }
+
+    /**
+     * Возвращает количество задач в архиве.
+     *
+     * @return количество задач
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Возвращает начало периода, за который записан архив.
+     *
+     * @return начало периода
+     */
+    public LocalDateTime getFrom() {
+        return fromMillis(periodFrom);
+    }
+
+    /**
+     * Возвращает конец периода, за который записан архив (не включая).
+     *
+     * @return конец периода
+     */
+    public LocalDateTime getTo() {
+        return fromMillis(periodTo);
+    }
+
+    /**
+     * Проверяет, могут ли задачи архива выполняться в течение периода [from, to),
+     * не просматривая столбцы: задачи начаты внутри периода архива и остановлены не позже последней остановки.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return false, если ни одна задача архива точно не пересекается с периодом
+     */
+    public boolean mayOverlap(LocalDateTime from, LocalDateTime to) {
+        return rowCount > 0 && periodFrom < toMillis(to) && lastStop > toMillis(from);
+    }
+
+    /**
+     * Возвращает путь к файлу архива.
+     *
+     * @return путь к файлу
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Возвращает независимый буфер столбца; буферы разделяют отображение файла и не копируют данные.
+     */
+    private ByteBuffer column(int index) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(columnOffsets[index]);
+        view.limit(columnOffsets[index] + columnLengths[index]);
+        return view.slice();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.archive;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.AppConfig;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Каталог файлов архива задач. Каждый файл содержит задачи, начатые в течение одного закрытого периода,
+ * и после записи не изменяется. Итоги по архиву вычисляются просмотром отображённых в память файлов
+ * без обращения к базе данных; файлы, задачи которых точно не пересекаются с периодом, не просматриваются.
+ */
+public class ArchiveStore {
+
+    private static final Logger logger = LogManager.getLogger(ArchiveStore.class);
+
+    private static final String EXTENSION = ".tta";
+    private static final String PENDING = ".tmp";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private final Path directory;
+
+    /**
+     * Конструктор для создания экземпляра ArchiveStore.
+     *
+     * @param directory каталог файлов архива
+     */
+    public ArchiveStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Создаёт каталог архива по переменной окружения ARCHIVE_DIR (по умолчанию - каталог archive).
+     *
+     * @return каталог архива
+     */
+    public static ArchiveStore fromEnvironment() {
+        return new ArchiveStore(Paths.get(AppConfig.getString("ARCHIVE_DIR", "archive")));
+    }
+
+    /**
+     * Возвращает путь для нового файла архива за период. Файл записывается под этим путём
+     * и становится виден итогам только после {@link #publish(Path)}. Имя содержит период и момент записи,
+     * поэтому повторная выгрузка того же периода не перезаписывает уже выгруженные задачи.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return путь к новому неопубликованному файлу
+     * @throws IOException если каталог архива не удалось создать
+     */
+    public Path newFile(LocalDateTime from, LocalDateTime to) throws IOException {
+        Files.createDirectories(directory);
+        return directory.resolve("tasks-" + from.format(FILE_TIME) + "-" + to.format(FILE_TIME)
+                + "-" + System.currentTimeMillis() + EXTENSION + PENDING);
+    }
+
+    /**
+     * Публикует записанный файл архива атомарным переименованием.
+     *
+     * @param pending путь, полученный из {@link #newFile}
+     * @return путь к опубликованному файлу
+     * @throws IOException если файл не удалось переименовать
+     */
+    public Path publish(Path pending) throws IOException {
+        String name = pending.getFileName().toString();
+        Path file = pending.resolveSibling(name.substring(0, name.length() - PENDING.length()));
+        return Files.move(pending, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Возвращает файлы архива в порядке имён.
+     *
+     * @return пути к файлам архива
+     * @throws IOException если каталог не удалось прочитать
+     */
+    public List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Вычисляет итоги архивных задач внутри периода [from, to): время задачи обрезается границами периода.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return итоги по архиву
+     * @throws IOException если файл архива не удалось прочитать
+     */
+    public ArchiveTotals totals(LocalDateTime from, LocalDateTime to) throws IOException {
+        long fromMillis = ArchiveReader.toArchiveMillis(from);
+        long toMillis = ArchiveReader.toArchiveMillis(to);
+        long[] totals = new long[2]; // количество задач и суммарное время
+        Map<Long, long[]> byProject = new HashMap<>();
+
+        ArchiveTotals result = new ArchiveTotals();
+        for (Path file : files()) {
+            try (ArchiveReader reader = ArchiveReader.open(file)) {
+                if (!reader.mayOverlap(from, to)) {
+                    continue;
+                }
+                reader.scan((id, startMillis, stopMillis, nameIndex, statusCode, projectId) -> {
+                    if (stopMillis == ArchiveVisitor.NO_STOP) {
+                        return;
+                    }
+                    long tracked = Math.min(stopMillis, toMillis) - Math.max(startMillis, fromMillis);
+                    if (tracked > 0) {
+                        totals[0]++;
+                        totals[1] += tracked;
+                        byProject.computeIfAbsent(projectId, key -> new long[1])[0] += tracked;
+                    }
+                });
+                result.setFiles(result.getFiles() + 1);
+            }
+        }
+        result.setTasks(totals[0]);
+        result.setTracked(Duration.ofMillis(totals[1]));
+        byProject.forEach((projectId, millis) -> result.getTrackedByProject().put(projectId, Duration.ofMillis(millis[0])));
+        logger.info("Archive totals for {} - {}: {}", from, to, result);
+        return result;
+    }
+}
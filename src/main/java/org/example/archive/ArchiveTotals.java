@@ -0,0 +1,35 @@
+package org.example.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Класс ArchiveTotals представляет итоги по файлам архива за период.
+ */
+@Getter
+@Setter
+public class ArchiveTotals {
+    private int files; // Количество просмотренных файлов архива
+    private long tasks; // Количество задач с учтённым временем в периоде
+    private Duration tracked = Duration.ZERO; // Суммарное время задач внутри периода
+    private Map<Long, Duration> trackedByProject = new TreeMap<>(); // Время по ID проекта (0 - задачи без проекта)
+
+    /**
+     * Возвращает строковое представление итогов.
+     *
+     * @return Строка, содержащая итоги по архиву.
+     */
+    @Override
+    public String toString() {
+        return "ArchiveTotals{" +
+                "files=" + files +
+                ", tasks=" + tasks +
+                ", tracked=" + tracked +
+                ", projects=" + trackedByProject.size() +
+                '}';
+    }
+}
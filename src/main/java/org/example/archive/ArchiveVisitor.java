@@ -0,0 +1,26 @@
+package org.example.archive;
+
+/**
+ * Обработчик задач при просмотре файла архива. Поля задачи передаются примитивами,
+ * поэтому просмотр не создаёт объектов на каждую задачу.
+ */
+@FunctionalInterface
+public interface ArchiveVisitor {
+
+    /**
+     * Значение stopMillis для задачи без времени остановки.
+     */
+    long NO_STOP = Long.MIN_VALUE;
+
+    /**
+     * Обрабатывает задачу архива.
+     *
+     * @param id          ID задачи
+     * @param startMillis время начала в миллисекундах (см. {@link ArchiveReader#toLocalDateTime(long)})
+     * @param stopMillis  время остановки в миллисекундах или {@link #NO_STOP}
+     * @param nameIndex   номер названия в словаре файла (см. {@link ArchiveReader#getName(int)})
+     * @param statusCode  код статуса (см. {@link ArchiveReader#getStatus(int)})
+     * @param projectId   ID проекта или 0, если проект не назначен
+     */
+    void visit(long id, long startMillis, long stopMillis, int nameIndex, int statusCode, long projectId);
+}
@@ -0,0 +1,171 @@
+package org.example.archive;
+
+import org.example.entity.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.example.archive.ArchiveFormat.*;
+
+/**
+ * Запись файла архива задач в формате {@link ArchiveFormat}. Задачи добавляются по одной и кодируются
+ * сразу в сжатые столбцы, поэтому в памяти не хранятся объекты задач. Задачи лучше добавлять
+ * в порядке времени начала: тогда разности ID и времени малы и занимают один-два байта.
+ */
+public class ArchiveWriter {
+
+    private final long periodFrom;
+    private final long periodTo;
+    private final ColumnBuffer[] columns = new ColumnBuffer[COLUMNS];
+    private final ColumnBuffer dictionary = new ColumnBuffer();
+    private final Map<String, Integer> names = new HashMap<>();
+    private int rowCount;
+    private long previousId;
+    private long previousStart;
+    private long lastStop = Long.MIN_VALUE;
+
+    /**
+     * Конструктор для создания экземпляра ArchiveWriter.
+     *
+     * @param from начало периода, за который записывается архив
+     * @param to   конец периода (не включая)
+     */
+    public ArchiveWriter(LocalDateTime from, LocalDateTime to) {
+        this.periodFrom = toMillis(from);
+        this.periodTo = toMillis(to);
+        this.previousStart = periodFrom;
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new ColumnBuffer();
+        }
+    }
+
+    /**
+     * Добавляет задачу в архив.
+     *
+     * @param task задача
+     * @throws IllegalArgumentException если статус задачи не поддерживается форматом
+     */
+    public void add(Task task) {
+        int status = statusCode(task.getStatus());
+
+        columns[ID].writeVarLong(zigzag(task.getId() - previousId));
+        previousId = task.getId();
+
+        long start = toMillis(task.getStartTime());
+        columns[START].writeVarLong(zigzag(start - previousStart));
+        previousStart = start;
+
+        long stop = task.getStopTime() != null ? toMillis(task.getStopTime()) : start;
+        columns[STOP].writeVarLong(task.getStopTime() != null ? zigzag(stop - start) + 1 : 0);
+        lastStop = Math.max(lastStop, stop);
+
+        Integer nameIndex = names.get(task.getName());
+        if (nameIndex == null) {
+            nameIndex = names.size();
+            names.put(task.getName(), nameIndex);
+            byte[] bytes = task.getName().getBytes(StandardCharsets.UTF_8);
+            dictionary.writeVarLong(bytes.length);
+            dictionary.write(bytes);
+        }
+        columns[NAME].writeVarLong(nameIndex);
+
+        if (rowCount % 4 == 0) {
+            columns[STATUS].write(new byte[1]);
+        }
+        columns[STATUS].orLastByte(status << (rowCount % 4 * 2));
+
+        columns[PROJECT].writeVarLong(task.getProjectId() != null ? task.getProjectId() + 1 : 0);
+        rowCount++;
+    }
+
+    /**
+     * Возвращает количество добавленных задач.
+     *
+     * @return количество задач
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Записывает архив в файл и сбрасывает его на диск.
+     *
+     * @param file путь к файлу архива
+     * @return размер файла в байтах
+     * @throws IOException если файл не удалось записать
+     */
+    public long writeTo(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(rowCount).putLong(periodFrom).putLong(periodTo).putLong(lastStop).putInt(names.size());
+        for (ColumnBuffer column : columns) {
+            header.putInt(column.size);
+        }
+        header.putInt(dictionary.size);
+        header.flip();
+
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            written += writeFully(channel, header);
+            for (ColumnBuffer column : columns) {
+                written += writeFully(channel, column.toBuffer());
+            }
+            written += writeFully(channel, dictionary.toBuffer());
+            channel.force(true);
+        }
+        return written;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+
+    /**
+     * Растущий буфер байтов одного столбца.
+     */
+    private static class ColumnBuffer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void write(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        void orLastByte(int bits) {
+            bytes[size - 1] |= (byte) bits;
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
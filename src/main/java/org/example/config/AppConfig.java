@@ -0,0 +1,58 @@
+package org.example.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Чтение настроек приложения из переменных окружения со значениями по умолчанию.
+ */
+public final class AppConfig {
+
+    private static final Logger logger = LogManager.getLogger(AppConfig.class);
+
+    private AppConfig() {
+    }
+
+    /**
+     * Возвращает целочисленное значение переменной окружения.
+     *
+     * @param name         имя переменной окружения
+     * @param defaultValue значение, если переменная не задана или задана неверно
+     * @return значение переменной или значение по умолчанию
+     */
+    public static int getInt(String name, int defaultValue) {
+        return (int) getLong(name, defaultValue);
+    }
+
+    /**
+     * Возвращает значение переменной окружения типа long.
+     *
+     * @param name         имя переменной окружения
+     * @param defaultValue значение, если переменная не задана или задана неверно
+     * @return значение переменной или значение по умолчанию
+     */
+    public static long getLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for {}, using default {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Возвращает строковое значение переменной окружения.
+     *
+     * @param name         имя переменной окружения
+     * @param defaultValue значение, если переменная не задана
+     * @return значение переменной или значение по умолчанию
+     */
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+}
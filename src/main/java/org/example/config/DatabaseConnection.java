@@ -4,9 +4,12 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.jfr.PoolCheckoutEvent;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Класс для управления соединением с базой данных PostgreSQL.
@@ -22,6 +25,11 @@ public class DatabaseConnection {
     private static HikariDataSource dataSource;
     private static final Logger logger = LogManager.getLogger(DatabaseConnection.class);
 
+    // Статистика ожидания соединения из пула
+    private static final LongAdder checkoutCount = new LongAdder();
+    private static final LongAdder checkoutWaitNanos = new LongAdder();
+    private static final AtomicLong maxCheckoutWaitNanos = new AtomicLong();
+
     static {
         if (URL == null || USER == null || PASSWORD == null) {
             throw new RuntimeException("Environment variables for database connection are not set");
@@ -31,12 +39,13 @@ public class DatabaseConnection {
         config.setJdbcUrl(URL);
         config.setUsername(USER);
         config.setPassword(PASSWORD);
-        config.setMaximumPoolSize(10);
+        config.setMaximumPoolSize(AppConfig.getInt("DB_POOL_SIZE", 10));
         dataSource = new HikariDataSource(config);
     }
 
     /**
      * Получает соединение с базой данных.
+     * Долгое ожидание соединения записывается событием JFR {@link PoolCheckoutEvent}.
      *
      * @return объект Connection для взаимодействия с базой данных
      * @throws SQLException если произошла ошибка при получении соединения
@@ -45,8 +54,80 @@ public class DatabaseConnection {
         if (dataSource == null) {
             throw new SQLException("DataSource is not initialized.");
         }
-        return dataSource.getConnection();
+        PoolCheckoutEvent event = new PoolCheckoutEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.threadsAwaiting = getThreadsAwaitingConnection();
+                event.poolSize = getMaximumPoolSize();
+                event.succeeded = connection != null;
+                event.commit();
+            }
+        }
+        long waited = System.nanoTime() - start;
+        checkoutCount.increment();
+        checkoutWaitNanos.add(waited);
+        maxCheckoutWaitNanos.accumulateAndGet(waited, Math::max);
+        return connection;
+    }
+
+    /**
+     * Возвращает количество соединений, выданных пулом с момента запуска или последнего сброса статистики.
+     *
+     * @return количество выданных соединений
+     */
+    public static long getCheckoutCount() {
+        return checkoutCount.sum();
+    }
+
+    /**
+     * Возвращает суммарное время ожидания соединений из пула.
+     *
+     * @return суммарное время ожидания в наносекундах
+     */
+    public static long getCheckoutWaitNanos() {
+        return checkoutWaitNanos.sum();
+    }
+
+    /**
+     * Возвращает максимальное время ожидания одного соединения из пула.
+     *
+     * @return максимальное время ожидания в наносекундах
+     */
+    public static long getMaxCheckoutWaitNanos() {
+        return maxCheckoutWaitNanos.get();
+    }
+
+    /**
+     * Возвращает количество потоков, ожидающих свободного соединения в данный момент.
+     *
+     * @return количество ожидающих потоков
+     */
+    public static int getThreadsAwaitingConnection() {
+        return dataSource.getHikariPoolMXBean() != null ? dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() : 0;
     }
 
+    /**
+     * Возвращает максимальный размер пула соединений.
+     *
+     * @return максимальное количество соединений
+     */
+    public static int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * Сбрасывает накопленную статистику ожидания соединений.
+     */
+    public static void resetPoolStats() {
+        checkoutCount.reset();
+        checkoutWaitNanos.reset();
+        maxCheckoutWaitNanos.set(0);
+    }
 
 }
@@ -2,11 +2,24 @@ package org.example.controller;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.dao.TaskFilter;
+import org.example.entity.AuditRecord;
+import org.example.entity.Project;
+import org.example.entity.Tag;
 import org.example.entity.Task;
+import org.example.entity.TaskOverlap;
+import org.example.entity.TaskView;
+import org.example.archive.ArchiveTotals;
+import org.example.exception.ArchiveException;
+import org.example.exception.TaskRejectedException;
+import org.example.service.ArchiveService;
+import org.example.service.ProjectService;
 import org.example.service.TaskService;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -15,17 +28,28 @@ import java.util.*;
  */
 public class TaskController {
     private TaskService taskService; // Сервис для работы с задачами
+    private ProjectService projectService; // Сервис для работы с проектами и метками
+    private ArchiveService archiveService; // Сервис файлового архива задач
     private Scanner scanner; // Сканер для ввода данных от пользователя
 
     private static final Logger logger = LogManager.getLogger(TaskController.class);
 
+    private static final int OVERLAP_LIMIT = 50; // Максимальное количество выводимых пересечений
+    private static final int LONGEST_LIMIT = 20; // Количество выводимых самых долгих активных задач
+    private static final String TASK_ROW = "| %-2d | %-27s | %-19s | %-19s | %-24s |\n"; // Строка таблицы задач
+    private static final DateTimeFormatter TASK_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"); // Время в таблице задач (без секунд)
+
     /**
      * Конструктор для создания экземпляра TaskController.
      *
-     * @param taskService сервис для работы с задачами
+     * @param taskService    сервис для работы с задачами
+     * @param projectService сервис для работы с проектами и метками
+     * @param archiveService сервис файлового архива задач
      */
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, ProjectService projectService, ArchiveService archiveService) {
         this.taskService = taskService;
+        this.projectService = projectService;
+        this.archiveService = archiveService;
         this.scanner = new Scanner(System.in);
         logger.info("TaskController initialized");
     }
@@ -46,6 +70,21 @@ public class TaskController {
             System.out.println("6. Завершить задачу");
             System.out.println("7. Выход");
             System.out.println("8. Справка");
+            System.out.println("9. Массово остановить задачи");
+            System.out.println("10. Массово завершить задачи");
+            System.out.println("11. Массово удалить задачи");
+            System.out.println("12. Создать проект");
+            System.out.println("13. Назначить задаче проект");
+            System.out.println("14. Добавить задаче метку");
+            System.out.println("15. Показать время по проектам и меткам");
+            System.out.println("16. Показать задачи за период");
+            System.out.println("17. Показать пересечения задач за период");
+            System.out.println("18. Восстановить удалённую задачу");
+            System.out.println("19. Задать срок автоостановки задачи");
+            System.out.println("20. Выгрузить архив за период в файл");
+            System.out.println("21. Показать итоги по файлам архива");
+            System.out.println("22. Показать самые долгие активные задачи");
+            System.out.println("23. Показать историю задачи");
 
             try {
                 if (scanner.hasNextInt()) {
@@ -77,12 +116,60 @@ public class TaskController {
                         case 8:
                             printHelp();
                             break;
+                        case 9:
+                            stopTasks();
+                            break;
+                        case 10:
+                            finishTasks();
+                            break;
+                        case 11:
+                            deleteTasks();
+                            break;
+                        case 12:
+                            addProject();
+                            break;
+                        case 13:
+                            assignProject();
+                            break;
+                        case 14:
+                            tagTask();
+                            break;
+                        case 15:
+                            showRollups();
+                            break;
+                        case 16:
+                            showTasksInRange();
+                            break;
+                        case 17:
+                            showOverlaps();
+                            break;
+                        case 18:
+                            restoreTask();
+                            break;
+                        case 19:
+                            setAutoStop();
+                            break;
+                        case 20:
+                            exportArchive();
+                            break;
+                        case 21:
+                            showArchiveTotals();
+                            break;
+                        case 22:
+                            showLongestActiveTasks();
+                            break;
+                        case 23:
+                            showTaskHistory();
+                            break;
                         default:
                             System.out.println("Неверный выбор.");
                     }
                 } else {
                     throw new NoSuchElementException("Expected an integer but found other input");
                 }
+            } catch (TaskRejectedException e) {
+                logger.warn(e.getMessage());
+                System.out.println(e.getMessage() + ". Повторите попытку позже.");
             } catch (NoSuchElementException e) {
                 logger.error("Error reading user input", e);
                 System.out.println("Ошибка при вводе данных. Пожалуйста, повторите ввод.");
@@ -121,32 +208,66 @@ public class TaskController {
      * Отображает список всех задач.
      */
     private void showAllTasks() {
-        List<Task> tasks = taskService.getAllTasks();
+        List<TaskView> tasks = taskService.getAllTaskViews();
         if (tasks.isEmpty()) {
             System.out.println("Нет активных задач.");
             logger.info("No active tasks found");
         } else {
-            // Форматирование времени (без секунд)
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-            System.out.println("+----+-----------------------------+----------------------+---------------------+-------------------------+");
-            System.out.println("| ID | Название                    | Начало              | Статус              | Время выполнения         |");
-            System.out.println("+----+-----------------------------+----------------------+---------------------+-------------------------+");
-            for (Task task : tasks) {
-                System.out.printf(
-                        "| %-2d | %-27s | %-19s | %-19s | %-24s |\n",
-                        task.getId(),
-                        task.getName(),
-                        task.getStartTime().format(formatter), // Форматируем время
-                        task.getStatus(),
-                        getDurationString(task)
-                );
-            }
-            System.out.println("+----+-----------------------------+---------------------+---------------------+--------------------------+");
+            printTaskViews(tasks);
             logger.info("Displayed all tasks");
         }
     }
 
+    /**
+     * Выводит компактные представления задач в виде той же таблицы, что и {@link #printTasks(List)}.
+     *
+     * @param tasks представления задач для вывода
+     */
+    private void printTaskViews(List<TaskView> tasks) {
+        printTableHeader();
+        for (TaskView task : tasks) {
+            System.out.printf(
+                    TASK_ROW,
+                    task.getId(),
+                    task.getName(),
+                    TASK_TIME.format(task.getStartTime()),
+                    task.getStatusName(),
+                    formatDuration(taskService.getDuration(task))
+            );
+        }
+        printTableFooter();
+    }
+
+    private static void printTableHeader() {
+        System.out.println("+----+-----------------------------+----------------------+---------------------+-------------------------+");
+        System.out.println("| ID | Название                    | Начало              | Статус              | Время выполнения         |");
+        System.out.println("+----+-----------------------------+----------------------+---------------------+-------------------------+");
+    }
+
+    private static void printTableFooter() {
+        System.out.println("+----+-----------------------------+---------------------+---------------------+--------------------------+");
+    }
+
+    /**
+     * Выводит задачи в виде таблицы.
+     *
+     * @param tasks задачи для вывода
+     */
+    private void printTasks(List<Task> tasks) {
+        printTableHeader();
+        for (Task task : tasks) {
+            System.out.printf(
+                    TASK_ROW,
+                    task.getId(),
+                    task.getName(),
+                    task.getStartTime().format(TASK_TIME), // Форматируем время
+                    task.getStatus(),
+                    getDurationString(task)
+            );
+        }
+        printTableFooter();
+    }
+
     /**
      * Обновляет название задачи по её ID.
      */
@@ -194,12 +315,56 @@ public class TaskController {
         }
 
         if (taskService.deleteTask(taskId)) {
-            System.out.println("Задача успешно удалена.");
+            System.out.println("Задача успешно удалена. Её можно восстановить в течение "
+                    + taskService.getDeleteRetention().toHours() + " ч.");
         } else {
             System.out.println("Не удалось удалить задачу.");
         }
     }
 
+    /**
+     * Восстанавливает удалённую задачу по её ID.
+     */
+    private void restoreTask() {
+        System.out.print("Введите ID задачи: ");
+        long taskId = scanner.nextLong();
+        scanner.nextLine();
+
+        if (taskService.restoreTask(taskId)) {
+            System.out.println("Задача восстановлена.");
+        } else {
+            System.out.println("Не удалось восстановить задачу: она не удалена, срок восстановления истёк "
+                    + "или название уже занято.");
+        }
+    }
+
+    /**
+     * Задаёт или снимает срок автоматической остановки активной задачи.
+     */
+    private void setAutoStop() {
+        System.out.print("Введите ID задачи: ");
+        long taskId = scanner.nextLong();
+        scanner.nextLine();
+
+        System.out.print("Срок остановки (yyyy-MM-dd HH:mm, пусто - не останавливать): ");
+        String input = scanner.nextLine().trim();
+        LocalDateTime deadline = null;
+        if (!input.isEmpty()) {
+            try {
+                deadline = LocalDateTime.parse(input, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+            } catch (DateTimeParseException e) {
+                System.out.println("Неверный формат даты.");
+                return;
+            }
+        }
+
+        if (taskService.setAutoStop(taskId, deadline)) {
+            System.out.println(deadline != null ? "Срок автоостановки задан." : "Автоостановка задачи отключена.");
+        } else {
+            System.out.println("Не удалось задать срок: задача не найдена или не активна.");
+        }
+    }
+
     /**
      * Останавливает задачу по её ID.
      */
@@ -244,6 +409,361 @@ public class TaskController {
         }
     }
 
+    /**
+     * Останавливает все активные задачи, удовлетворяющие введённому фильтру.
+     */
+    private void stopTasks() {
+        TaskFilter filter = readFilter();
+        if (filter == null) {
+            return;
+        }
+        List<Long> ids = taskService.stopTasks(filter);
+        System.out.println("Остановлено задач: " + ids.size() + " " + ids);
+    }
+
+    /**
+     * Завершает все активные и остановленные задачи, удовлетворяющие введённому фильтру.
+     */
+    private void finishTasks() {
+        TaskFilter filter = readFilter();
+        if (filter == null) {
+            return;
+        }
+        List<Long> ids = taskService.finishTasks(filter);
+        System.out.println("Завершено задач: " + ids.size() + " " + ids);
+    }
+
+    /**
+     * Удаляет все задачи, удовлетворяющие введённому фильтру.
+     */
+    private void deleteTasks() {
+        TaskFilter filter = readFilter();
+        if (filter == null) {
+            return;
+        }
+        List<Long> ids = taskService.deleteTasks(filter);
+        System.out.println("Удалено задач: " + ids.size() + " " + ids);
+    }
+
+    /**
+     * Создаёт проект с названием и родительским проектом, введёнными пользователем.
+     */
+    private void addProject() {
+        System.out.print("Введите название проекта: ");
+        String name = scanner.nextLine().trim();
+        if (name.isEmpty()) {
+            System.out.println("Название проекта не может быть пустым");
+            return;
+        }
+        System.out.print("ID родительского проекта (Enter - корневой проект): ");
+        String parentInput = scanner.nextLine().trim();
+        Long parentId;
+        try {
+            parentId = parentInput.isEmpty() ? null : Long.parseLong(parentInput);
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат ID.");
+            return;
+        }
+
+        Optional<Long> projectId = projectService.addProject(name, parentId);
+        if (projectId.isPresent()) {
+            System.out.println("Проект создан. ID проекта: " + projectId.get());
+        } else {
+            System.out.println("Не удалось создать проект.");
+        }
+    }
+
+    /**
+     * Назначает задаче проект по их ID.
+     */
+    private void assignProject() {
+        System.out.print("Введите ID задачи: ");
+        long taskId = scanner.nextLong();
+        scanner.nextLine();
+        System.out.print("ID проекта (Enter - снять назначение): ");
+        String projectInput = scanner.nextLine().trim();
+        Long projectId;
+        try {
+            projectId = projectInput.isEmpty() ? null : Long.parseLong(projectInput);
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат ID.");
+            return;
+        }
+
+        if (projectService.assignTask(taskId, projectId)) {
+            System.out.println("Проект задачи успешно изменён.");
+        } else {
+            System.out.println("Не удалось изменить проект задачи.");
+        }
+    }
+
+    /**
+     * Добавляет задаче метку по ID задачи.
+     */
+    private void tagTask() {
+        System.out.print("Введите ID задачи: ");
+        long taskId = scanner.nextLong();
+        scanner.nextLine();
+        System.out.print("Введите метку: ");
+        String tagName = scanner.nextLine().trim();
+        if (tagName.isEmpty()) {
+            System.out.println("Метка не может быть пустой");
+            return;
+        }
+
+        if (projectService.tagTask(taskId, tagName)) {
+            System.out.println("Метка добавлена.");
+        } else {
+            System.out.println("Не удалось добавить метку.");
+        }
+    }
+
+    /**
+     * Отображает дерево проектов и метки с учтённым временем.
+     */
+    private void showRollups() {
+        List<Project> projects = projectService.getProjectTree();
+        if (projects.isEmpty()) {
+            System.out.println("Нет проектов.");
+        } else {
+            System.out.println("Проекты (всего с подпроектами / собственное время):");
+            for (Project project : projects) {
+                System.out.printf("%s[%d] %s - %s / %s\n",
+                        repeat("  ", project.getDepth()), project.getId(), project.getName(),
+                        formatDuration(Duration.ofSeconds(project.getTotalSeconds())),
+                        formatDuration(Duration.ofSeconds(project.getOwnSeconds())));
+            }
+        }
+
+        List<Tag> tags = projectService.getTags();
+        if (!tags.isEmpty()) {
+            System.out.println("Метки:");
+            for (Tag tag : tags) {
+                System.out.printf("#%s - %s\n", tag.getName(), formatDuration(Duration.ofSeconds(tag.getTotalSeconds())));
+            }
+        }
+    }
+
+    /**
+     * Отображает задачи, выполнявшиеся в течение введённого периода, и суммарное время внутри периода.
+     */
+    private void showTasksInRange() {
+        LocalDateTime[] period = readPeriod();
+        if (period == null) {
+            return;
+        }
+        List<Task> tasks = taskService.getTasksInRange(period[0], period[1]);
+        if (tasks.isEmpty()) {
+            System.out.println("Нет задач за указанный период.");
+            return;
+        }
+        printTasks(tasks);
+        System.out.println("Учтено времени за период: " + formatDuration(taskService.getTrackedDuration(period[0], period[1])));
+    }
+
+    /**
+     * Отображает активные задачи, выполняющиеся дольше всех.
+     */
+    private void showLongestActiveTasks() {
+        List<Task> tasks = taskService.getLongestActiveTasks(LONGEST_LIMIT);
+        if (tasks.isEmpty()) {
+            System.out.println("Нет активных задач.");
+            return;
+        }
+        printTasks(tasks);
+    }
+
+    /**
+     * Отображает историю изменений задачи: когда, кем и как она изменялась.
+     */
+    private void showTaskHistory() {
+        System.out.print("Введите ID задачи: ");
+        long taskId = scanner.nextLong();
+        scanner.nextLine();
+
+        List<AuditRecord> records = taskService.getTaskHistory(taskId);
+        if (records.isEmpty()) {
+            System.out.println("Нет изменений задачи.");
+            return;
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        for (AuditRecord record : records) {
+            StringBuilder line = new StringBuilder()
+                    .append(record.getChangedAt().format(formatter))
+                    .append(' ').append(record.getAction().getTitle());
+            if (record.getOldValue() != null || record.getNewValue() != null) {
+                line.append(": ")
+                        .append(record.getOldValue() != null ? record.getOldValue() : "-")
+                        .append(" -> ")
+                        .append(record.getNewValue() != null ? record.getNewValue() : "-");
+            }
+            line.append(" (").append(record.getActor()).append(')');
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Отображает пары задач, выполнявшихся одновременно в течение введённого периода.
+     */
+    private void showOverlaps() {
+        LocalDateTime[] period = readPeriod();
+        if (period == null) {
+            return;
+        }
+        List<TaskOverlap> overlaps = taskService.findOverlaps(period[0], period[1], OVERLAP_LIMIT);
+        if (overlaps.isEmpty()) {
+            System.out.println("Задачи за указанный период не пересекаются.");
+            return;
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        for (TaskOverlap overlap : overlaps) {
+            System.out.printf("[%d] %s и [%d] %s: %s - %s\n",
+                    overlap.getFirstTaskId(), overlap.getFirstTaskName(),
+                    overlap.getSecondTaskId(), overlap.getSecondTaskName(),
+                    overlap.getStart().format(formatter),
+                    overlap.getEnd() != null ? overlap.getEnd().format(formatter) : "сейчас");
+        }
+        if (overlaps.size() == OVERLAP_LIMIT) {
+            System.out.println("Показаны первые " + OVERLAP_LIMIT + " пересечений.");
+        }
+    }
+
+    /**
+     * Выгружает архивные задачи, начатые в течение введённого периода, в файл архива.
+     */
+    private void exportArchive() {
+        LocalDateTime[] period = readPeriod();
+        if (period == null) {
+            return;
+        }
+        try {
+            int exported = archiveService.exportArchive(period[0], period[1]);
+            if (exported == 0) {
+                System.out.println("Нет архивных задач за указанный период.");
+            } else {
+                System.out.println("Выгружено задач в файл архива: " + exported);
+            }
+        } catch (ArchiveException e) {
+            logger.error("Archive export failed", e);
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Отображает итоги задач из файлов архива внутри введённого периода.
+     */
+    private void showArchiveTotals() {
+        LocalDateTime[] period = readPeriod();
+        if (period == null) {
+            return;
+        }
+        ArchiveTotals totals;
+        try {
+            totals = archiveService.getArchiveTotals(period[0], period[1]);
+        } catch (ArchiveException e) {
+            logger.error("Archive totals failed", e);
+            System.out.println(e.getMessage());
+            return;
+        }
+        if (totals.getTasks() == 0) {
+            System.out.println("В файлах архива нет задач за указанный период.");
+            return;
+        }
+        System.out.printf("Файлов архива: %d, задач: %d, учтено времени: %s\n",
+                totals.getFiles(), totals.getTasks(), formatDuration(totals.getTracked()));
+        for (Map.Entry<Long, Duration> entry : totals.getTrackedByProject().entrySet()) {
+            System.out.printf("  %s - %s\n",
+                    entry.getKey() != 0 ? "проект " + entry.getKey() : "без проекта",
+                    formatDuration(entry.getValue()));
+        }
+    }
+
+    /**
+     * Запрашивает у пользователя начало и конец периода.
+     *
+     * @return массив из начала и конца периода или null, если ввод неверный
+     */
+    private LocalDateTime[] readPeriod() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            System.out.print("Начало периода (yyyy-MM-dd HH:mm): ");
+            from = LocalDateTime.parse(scanner.nextLine().trim(), formatter);
+            System.out.print("Конец периода (yyyy-MM-dd HH:mm): ");
+            to = LocalDateTime.parse(scanner.nextLine().trim(), formatter);
+        } catch (DateTimeParseException e) {
+            System.out.println("Неверный формат даты.");
+            return null;
+        }
+        if (!from.isBefore(to)) {
+            System.out.println("Начало периода должно быть раньше его конца.");
+            return null;
+        }
+        return new LocalDateTime[]{from, to};
+    }
+
+    /**
+     * Повторяет строку указанное количество раз (для отступов в дереве проектов).
+     */
+    private static String repeat(String value, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Запрашивает у пользователя критерии отбора задач для массовой операции.
+     *
+     * @return фильтр или null, если ввод неверный или не задан ни один критерий
+     */
+    private TaskFilter readFilter() {
+        TaskFilter filter = new TaskFilter();
+        try {
+            System.out.print("ID задач через запятую (Enter - без условия): ");
+            String idsInput = scanner.nextLine().trim();
+            if (!idsInput.isEmpty()) {
+                List<Long> ids = new ArrayList<>();
+                for (String id : idsInput.split(",")) {
+                    ids.add(Long.parseLong(id.trim()));
+                }
+                filter.setIds(ids);
+            }
+
+            System.out.print("Статус (Активна/Остановлена/Завершена, Enter - без условия): ");
+            String status = scanner.nextLine().trim();
+            if (!status.isEmpty()) {
+                filter.setStatus(status);
+            }
+
+            System.out.print("Начаты до (yyyy-MM-dd HH:mm, Enter - без условия): ");
+            String startedBefore = scanner.nextLine().trim();
+            if (!startedBefore.isEmpty()) {
+                filter.setStartedBefore(LocalDateTime.parse(startedBefore, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+            }
+
+            System.out.print("Шаблон названия (% - любые символы, Enter - без условия): ");
+            String namePattern = scanner.nextLine().trim();
+            if (!namePattern.isEmpty()) {
+                filter.setNamePattern(namePattern);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Неверный формат ID.");
+            return null;
+        } catch (DateTimeParseException e) {
+            System.out.println("Неверный формат даты.");
+            return null;
+        }
+
+        if (filter.isEmpty()) {
+            System.out.println("Не задано ни одного условия отбора.");
+            return null;
+        }
+        return filter;
+    }
+
     /**
      * Возвращает строковое представление продолжительности выполнения задачи.
      *
@@ -251,7 +771,17 @@ public class TaskController {
      * @return строка в формате "X час(ов) Y минут(ы)"
      */
     private String getDurationString(Task task) {
-        long totalMinutes = taskService.getDuration(task).toMinutes();
+        return formatDuration(taskService.getDuration(task));
+    }
+
+    /**
+     * Форматирует продолжительность для вывода пользователю.
+     *
+     * @param duration продолжительность
+     * @return строка в формате "X час(ов) Y минут(ы)"
+     */
+    private String formatDuration(Duration duration) {
+        long totalMinutes = duration.toMinutes();
         long hours = totalMinutes / 60;
         long minutes = totalMinutes % 60;
         return String.format("%d час(ов) %d минут(ы)", hours, minutes);
@@ -271,6 +801,21 @@ public class TaskController {
         System.out.println("6. Завершить задачу - Завершает задачу по её ID.                       |");
         System.out.println("7. Выход - Завершает работу приложения.                                |");
         System.out.println("8. Справка - Выводит список доступных команд.                          |");
+        System.out.println("9. Массово остановить задачи - Останавливает задачи по фильтру.        |");
+        System.out.println("10. Массово завершить задачи - Завершает задачи по фильтру.            |");
+        System.out.println("11. Массово удалить задачи - Удаляет задачи по фильтру.                |");
+        System.out.println("12. Создать проект - Создает проект или подпроект.                     |");
+        System.out.println("13. Назначить задаче проект - Переносит время задачи в проект.         |");
+        System.out.println("14. Добавить задаче метку - Помечает задачу меткой.                    |");
+        System.out.println("15. Показать время по проектам и меткам - Итоги с подпроектами.        |");
+        System.out.println("16. Показать задачи за период - Задачи и учтенное время за период.     |");
+        System.out.println("17. Показать пересечения задач за период - Одновременные задачи.       |");
+        System.out.println("18. Восстановить удалённую задачу - Отменяет недавнее удаление.        |");
+        System.out.println("19. Задать срок автоостановки задачи - Когда остановить задачу.        |");
+        System.out.println("20. Выгрузить архив за период в файл - Переносит старые задачи в файл. |");
+        System.out.println("21. Показать итоги по файлам архива - Учтенное время по архиву.        |");
+        System.out.println("22. Показать самые долгие активные задачи - Кто занят дольше всех.     |");
+        System.out.println("23. Показать историю задачи - Кто, когда и как изменял задачу.         |");
         System.out.println("------------------------------------------------------------------------");
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package org.example.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.DatabaseConnection;
+import org.example.entity.AuditAction;
+import org.example.entity.AuditRecord;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс AuditDAO отвечает за работу с журналом изменений задач task_audit.
+ * Журнал только пополняется: изменение и удаление записей запрещены триггером базы данных.
+ */
+public class AuditDAO {
+
+    private static final Logger logger = LogManager.getLogger(AuditDAO.class);
+
+    // SQL-запросы DAO (доступны в пакете для тестов планов выполнения)
+    static final String SQL_INSERT = "INSERT INTO task_audit (task_id, action, old_value, new_value, actor, changed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    static final String SQL_SELECT_HISTORY = "SELECT id, task_id, action, old_value, new_value, actor, changed_at " +
+            "FROM task_audit WHERE task_id = ? ORDER BY changed_at, id LIMIT ?";
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public AuditDAO() {
+    }
+
+    /**
+     * Добавляет записи журнала одной транзакцией пакетом запросов за один обмен с базой данных.
+     *
+     * @param records Записи журнала.
+     * @return true, если все записи добавлены, иначе false (не добавлена ни одна запись).
+     */
+    public boolean insertRecords(List<AuditRecord> records) {
+        try (DaoSession session = new DaoSession(DatabaseConnection.getConnection(), true)) {
+            PreparedStatement pstmt = session.prepare(SQL_INSERT);
+            for (AuditRecord record : records) {
+                pstmt.setLong(1, record.getTaskId());
+                pstmt.setString(2, record.getAction().name());
+                pstmt.setString(3, record.getOldValue());
+                pstmt.setString(4, record.getNewValue());
+                pstmt.setString(5, record.getActor());
+                pstmt.setTimestamp(6, Timestamp.valueOf(record.getChangedAt()));
+                pstmt.addBatch();
+            }
+            session.executeBatch(pstmt, "insertRecords");
+            session.commit();
+            logger.debug("Audit records written: {}", records.size());
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error writing {} audit records", records.size(), e);
+        }
+        return false;
+    }
+
+    /**
+     * Получает историю изменений задачи в порядке выполнения изменений.
+     *
+     * @param taskId Идентификатор задачи.
+     * @param limit  Максимальное количество записей.
+     * @return Список записей журнала.
+     */
+    public List<AuditRecord> getHistory(long taskId, int limit) {
+        List<AuditRecord> records = new ArrayList<>();
+        try (DaoSession session = new DaoSession(DatabaseConnection.getConnection(), false)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_HISTORY);
+            pstmt.setLong(1, taskId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = session.executeQuery(pstmt, "getHistory", taskId)) {
+                while (rs.next()) {
+                    AuditRecord record = new AuditRecord();
+                    record.setId(rs.getLong(1));
+                    record.setTaskId(rs.getLong(2));
+                    record.setAction(AuditAction.valueOf(rs.getString(3)));
+                    record.setOldValue(rs.getString(4));
+                    record.setNewValue(rs.getString(5));
+                    record.setActor(rs.getString(6));
+                    record.setChangedAt(rs.getTimestamp(7).toLocalDateTime());
+                    records.add(record);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving audit history for task ID: {}", taskId, e);
+        }
+        return records;
+    }
+}
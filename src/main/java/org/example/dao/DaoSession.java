@@ -0,0 +1,218 @@
+package org.example.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.jfr.DaoStatementEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Сеанс работы с базой данных: одно соединение из пула и кеш подготовленных запросов.
+ * В транзакционном режиме все операции сеанса выполняются в одной транзакции,
+ * которая фиксируется явным вызовом {@link #commit()}; незафиксированная транзакция откатывается при закрытии.
+ * Запросы, выполненные через {@link #executeUpdate}, {@link #executeBatch} и {@link #executeQuery},
+ * записываются событиями JFR {@link DaoStatementEvent}.
+ */
+public class DaoSession implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(DaoSession.class);
+
+    private final Connection connection;
+    private final boolean transactional;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final Map<PreparedStatement, String> sqlByStatement = new IdentityHashMap<>();
+    private boolean completed;
+
+    /**
+     * Конструктор для создания экземпляра DaoSession.
+     *
+     * @param connection    соединение с базой данных, которым владеет сеанс
+     * @param transactional true, если операции сеанса выполняются в одной транзакции
+     * @throws SQLException если не удалось переключить режим автофиксации
+     */
+    public DaoSession(Connection connection, boolean transactional) throws SQLException {
+        this.connection = connection;
+        this.transactional = transactional;
+        if (transactional) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * Возвращает подготовленный запрос, созданный в этом сеансе ранее или подготовленный заново.
+     * Запрос закрывается вместе с сеансом, закрывать его самостоятельно не нужно.
+     *
+     * @param sql текст запроса
+     * @return подготовленный запрос
+     * @throws SQLException если запрос не удалось подготовить
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt == null) {
+            pstmt = connection.prepareStatement(sql);
+            statements.put(sql, pstmt);
+            sqlByStatement.put(pstmt, sql);
+        } else {
+            pstmt.clearParameters();
+        }
+        return pstmt;
+    }
+
+    /**
+     * Выполняет запрос изменения данных, подготовленный в этом сеансе.
+     *
+     * @param pstmt     подготовленный запрос с установленными параметрами
+     * @param operation название операции DAO для события JFR
+     * @param taskId    ID задачи или 0, если запрос затрагивает несколько задач
+     * @return количество изменённых строк
+     * @throws SQLException если запрос завершился ошибкой
+     */
+    public int executeUpdate(PreparedStatement pstmt, String operation, long taskId) throws SQLException {
+        DaoStatementEvent event = new DaoStatementEvent();
+        event.begin();
+        int rowsAffected = -1;
+        try {
+            rowsAffected = pstmt.executeUpdate();
+            return rowsAffected;
+        } finally {
+            commitEvent(event, pstmt, operation, taskId, rowsAffected, rowsAffected >= 0);
+        }
+    }
+
+    /**
+     * Выполняет пакет запросов изменения данных, подготовленный в этом сеансе.
+     * Событие JFR записывается одно на весь пакет с суммарным количеством изменённых строк.
+     *
+     * @param pstmt     подготовленный запрос с добавленным пакетом параметров
+     * @param operation название операции DAO для события JFR
+     * @return количество изменённых строк для каждого запроса пакета
+     * @throws SQLException если пакет завершился ошибкой
+     */
+    public int[] executeBatch(PreparedStatement pstmt, String operation) throws SQLException {
+        DaoStatementEvent event = new DaoStatementEvent();
+        event.begin();
+        long rowsAffected = -1;
+        boolean succeeded = false;
+        try {
+            int[] counts = pstmt.executeBatch();
+            succeeded = true;
+            rowsAffected = 0;
+            for (int count : counts) {
+                if (count < 0) {
+                    // Драйвер не сообщил количество строк (Statement.SUCCESS_NO_INFO)
+                    rowsAffected = -1;
+                    break;
+                }
+                rowsAffected += count;
+            }
+            return counts;
+        } finally {
+            commitEvent(event, pstmt, operation, 0, rowsAffected, succeeded);
+        }
+    }
+
+    /**
+     * Выполняет запрос выборки, подготовленный в этом сеансе.
+     * Событие JFR охватывает выполнение запроса и получение первой порции строк.
+     *
+     * @param pstmt     подготовленный запрос с установленными параметрами
+     * @param operation название операции DAO для события JFR
+     * @param taskId    ID задачи или 0, если запрос затрагивает несколько задач
+     * @return результат запроса
+     * @throws SQLException если запрос завершился ошибкой
+     */
+    public ResultSet executeQuery(PreparedStatement pstmt, String operation, long taskId) throws SQLException {
+        DaoStatementEvent event = new DaoStatementEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            ResultSet rs = pstmt.executeQuery();
+            succeeded = true;
+            return rs;
+        } finally {
+            commitEvent(event, pstmt, operation, taskId, -1, succeeded);
+        }
+    }
+
+    private void commitEvent(DaoStatementEvent event, PreparedStatement pstmt, String operation, long taskId,
+                             long rowsAffected, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            String sql = sqlByStatement.get(pstmt);
+            event.operation = operation;
+            event.sql = sql;
+            event.sqlKind = sql != null ? sql.substring(0, Math.max(0, sql.indexOf(' '))) : null;
+            event.taskId = taskId;
+            event.rowsAffected = rowsAffected;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Возвращает соединение сеанса.
+     *
+     * @return соединение с базой данных
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Фиксирует транзакцию сеанса.
+     *
+     * @throws SQLException если транзакцию не удалось зафиксировать
+     */
+    public void commit() throws SQLException {
+        if (transactional) {
+            connection.commit();
+        }
+        completed = true;
+    }
+
+    /**
+     * Откатывает транзакцию сеанса.
+     */
+    public void rollback() {
+        if (transactional && !completed) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                logger.error("Error rolling back transaction", e);
+            }
+        }
+        completed = true;
+    }
+
+    /**
+     * Закрывает подготовленные запросы и возвращает соединение в пул.
+     * Незафиксированная транзакция откатывается.
+     */
+    @Override
+    public void close() {
+        rollback();
+        for (PreparedStatement pstmt : statements.values()) {
+            try {
+                pstmt.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing statement", e);
+            }
+        }
+        statements.clear();
+        sqlByStatement.clear();
+        try {
+            if (transactional) {
+                connection.setAutoCommit(true);
+            }
+            connection.close();
+        } catch (SQLException e) {
+            logger.error("Error closing connection", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.DatabaseConnection;
+import org.example.entity.Project;
+import org.example.entity.Tag;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Класс ProjectDAO отвечает за работу с деревом проектов, метками и итогами времени по ним.
+ * Назначение проекта и меток задаче выполняет {@link TaskDAO}, так как это изменение задачи.
+ * Суммарное время проектов и меток поддерживается триггерами базы данных,
+ * поэтому чтение итогов по проекту вместе со всеми подпроектами - это чтение одной строки.
+ */
+public class ProjectDAO {
+
+    private static final Logger logger = LogManager.getLogger(ProjectDAO.class);
+
+    // SQL-запросы DAO (доступны в пакете для тестов планов выполнения)
+    static final String SQL_INSERT = "INSERT INTO projects (name, parent_id) VALUES (?, ?) RETURNING id";
+    static final String SQL_SELECT = "SELECT id, parent_id, name, own_seconds, total_seconds, 0 AS depth FROM projects WHERE id = ?";
+    static final String SQL_SELECT_TREE = "WITH RECURSIVE tree AS (" +
+            "SELECT id, parent_id, name, own_seconds, total_seconds, 0 AS depth, ARRAY[name::TEXT] AS path " +
+            "FROM projects WHERE parent_id IS NULL " +
+            "UNION ALL " +
+            "SELECT p.id, p.parent_id, p.name, p.own_seconds, p.total_seconds, t.depth + 1, t.path || p.name::TEXT " +
+            "FROM projects p JOIN tree t ON p.parent_id = t.id) " +
+            "SELECT id, parent_id, name, own_seconds, total_seconds, depth FROM tree ORDER BY path";
+    static final String SQL_SELECT_TAGS = "SELECT id, name, total_seconds FROM tags ORDER BY name";
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public ProjectDAO() {
+    }
+
+    /**
+     * Открывает сеанс работы с базой данных без транзакции.
+     *
+     * @return Сеанс, который необходимо закрыть после использования.
+     * @throws SQLException Если не удалось получить соединение из пула.
+     */
+    private DaoSession openSession() throws SQLException {
+        return new DaoSession(DatabaseConnection.getConnection(), false);
+    }
+
+    /**
+     * Добавляет новый проект в дерево проектов.
+     *
+     * @param name     Название проекта.
+     * @param parentId Родительский проект или null для корневого проекта.
+     * @return Optional, содержащий ID добавленного проекта, если операция прошла успешно, иначе пустой Optional.
+     */
+    public Optional<Long> addProject(String name, Long parentId) {
+        try (DaoSession session = openSession()) {
+            PreparedStatement pstmt = session.prepare(SQL_INSERT);
+            pstmt.setString(1, name);
+            pstmt.setObject(2, parentId, Types.BIGINT);
+            try (ResultSet rs = session.executeQuery(pstmt, "addProject", 0)) {
+                if (rs.next()) {
+                    long projectId = rs.getLong("id");
+                    logger.info("Project added with ID: {}", projectId);
+                    return Optional.of(projectId);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error adding project {}", name, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Получает проект вместе с учтённым временем его поддерева.
+     *
+     * @param projectId Идентификатор проекта.
+     * @return Optional с проектом, если он найден.
+     */
+    public Optional<Project> getProject(long projectId) {
+        try (DaoSession session = openSession()) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT);
+            pstmt.setLong(1, projectId);
+            try (ResultSet rs = session.executeQuery(pstmt, "getProject", 0)) {
+                if (rs.next()) {
+                    return Optional.of(mapProject(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving project with ID: {}", projectId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Получает все проекты в порядке обхода дерева: каждый проект следует за своим родителем.
+     *
+     * @return Список проектов с заполненной глубиной в дереве.
+     */
+    public List<Project> getProjectTree() {
+        List<Project> projects = new ArrayList<>();
+        try (DaoSession session = openSession();
+             ResultSet rs = session.executeQuery(session.prepare(SQL_SELECT_TREE), "getProjectTree", 0)) {
+
+            while (rs.next()) {
+                projects.add(mapProject(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving projects", e);
+        }
+        return projects;
+    }
+
+    /**
+     * Получает все метки с суммарным временем помеченных задач.
+     *
+     * @return Список меток.
+     */
+    public List<Tag> getTags() {
+        List<Tag> tags = new ArrayList<>();
+        try (DaoSession session = openSession();
+             ResultSet rs = session.executeQuery(session.prepare(SQL_SELECT_TAGS), "getTags", 0)) {
+
+            while (rs.next()) {
+                Tag tag = new Tag();
+                tag.setId(rs.getLong("id"));
+                tag.setName(rs.getString("name"));
+                tag.setTotalSeconds(rs.getLong("total_seconds"));
+                tags.add(tag);
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving tags", e);
+        }
+        return tags;
+    }
+
+    private static Project mapProject(ResultSet rs) throws SQLException {
+        Project project = new Project();
+        project.setId(rs.getLong("id"));
+        long parentId = rs.getLong("parent_id");
+        project.setParentId(rs.wasNull() ? null : parentId);
+        project.setName(rs.getString("name"));
+        project.setOwnSeconds(rs.getLong("own_seconds"));
+        project.setTotalSeconds(rs.getLong("total_seconds"));
+        project.setDepth(rs.getInt("depth"));
+        return project;
+    }
+}
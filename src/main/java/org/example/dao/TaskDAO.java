@@ -4,13 +4,24 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.example.config.DatabaseConnection;
 import org.example.entity.Task;
+import org.example.entity.TaskChanges;
+import org.example.entity.TaskOverlap;
+import org.example.entity.TaskView;
 import org.example.exception.TaskNotFoundException;
+import org.example.exception.TaskTransactionException;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  * Класс TaskDAO отвечает за взаимодействие с базой данных для выполнения операций с задачами.
@@ -20,29 +31,170 @@ public class TaskDAO {
 
     private static final Logger logger = LogManager.getLogger(TaskDAO.class);
 
+    // Код ошибки PostgreSQL при нарушении уникальности, в том числе из триггера уникальности названия
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // SQL-запросы DAO (доступны в пакете для тестов планов выполнения)
+    // Мягко удалённые задачи (deleted_at IS NOT NULL) исключаются из всех выборок и изменений
+    static final String SQL_EXISTS = "SELECT 1 FROM tasks WHERE id = ? AND deleted_at IS NULL";
+    // ID новой задачи выдаётся до вставки, чтобы блокировка задачи захватывалась раньше блокировок базы данных
+    static final String SQL_NEXT_ID = "SELECT nextval('task_sequence')";
+    static final String SQL_INSERT = "INSERT INTO tasks (id, name, start_time, stop_time, status, auto_stop_at) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String SQL_SELECT_IDS = "SELECT id FROM tasks WHERE deleted_at IS NULL";
+    static final String SQL_SELECT_ONE = "SELECT id, name, start_time, stop_time, status, project_id FROM tasks WHERE id = ? AND deleted_at IS NULL";
+    static final String SQL_SELECT_ALL = "SELECT id, name, start_time, stop_time, status, project_id FROM tasks WHERE deleted_at IS NULL";
+    // Компактный список: время в секундах и код статуса читаются как числа без промежуточных объектов
+    static final String SQL_SELECT_ALL_VIEWS = "SELECT id, name, floor(extract(EPOCH FROM start_time))::BIGINT, " +
+            "floor(extract(EPOCH FROM stop_time))::BIGINT, " +
+            "CASE status WHEN 'Активна' THEN 0 WHEN 'Остановлена' THEN 1 ELSE 2 END, project_id " +
+            "FROM tasks WHERE deleted_at IS NULL";
+    static final String SQL_SELECT_RANGE = "SELECT id, name, start_time, stop_time, status, project_id FROM tasks " +
+            "WHERE period && tsrange(?, ?, '[)') AND start_time < ? AND deleted_at IS NULL ORDER BY start_time, id";
+    static final String SQL_TRACKED_SECONDS = "SELECT COALESCE(sum(extract(EPOCH FROM upper(clipped) - lower(clipped))), 0) " +
+            "FROM (SELECT period * tsrange(?, ?, '[)') AS clipped FROM tasks " +
+            "WHERE period && tsrange(?, ?, '[)') AND start_time < ? AND deleted_at IS NULL) AS t";
+    // Пары упорядочены по началу пересечения: это начало задачи x, начатой позже (при равном начале - с большим ID).
+    // Подзапрос с OFFSET 0 отдаёт задачи x в порядке начала, поэтому пары идут в порядке начала пересечения
+    // и LIMIT завершает перебор, не строя все пары; сортируются только пары с одинаковым началом
+    static final String SQL_OVERLAPS = "SELECT CASE WHEN x.id < y.id THEN x.id ELSE y.id END AS first_id, " +
+            "CASE WHEN x.id < y.id THEN x.name ELSE y.name END AS first_name, " +
+            "CASE WHEN x.id < y.id THEN y.id ELSE x.id END AS second_id, " +
+            "CASE WHEN x.id < y.id THEN y.name ELSE x.name END AS second_name, " +
+            "x.start_time AS overlap_start, NULLIF(upper(x.period * y.period), 'infinity') AS overlap_end " +
+            "FROM (SELECT id, name, start_time, period FROM tasks " +
+            "WHERE period && tsrange(?, ?, '[)') AND start_time < ? AND deleted_at IS NULL ORDER BY start_time OFFSET 0) AS x " +
+            "JOIN tasks y ON y.period && x.period AND y.start_time <= x.start_time " +
+            "AND (y.start_time < x.start_time OR y.id < x.id) " +
+            "WHERE y.period && tsrange(?, ?, '[)') AND y.start_time < ? AND y.deleted_at IS NULL " +
+            "AND (x.period * y.period) && tsrange(?, ?, '[)') ORDER BY overlap_start, first_id, second_id LIMIT ?";
+    // Прежние значения (название, статус) читаются из заблокированной строки, поэтому они верны и при одновременном
+    // изменении задачи; условия отбора проверяются заново после ожидания блокировки строки
+    static final String SQL_UPDATE_NAME = "UPDATE tasks t SET name = ? " +
+            "FROM (SELECT id, start_time, name FROM tasks WHERE id = ? AND deleted_at IS NULL FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time RETURNING old.name";
+    static final String SQL_DELETE = "UPDATE tasks t SET deleted_at = ? " +
+            "FROM (SELECT id, start_time, name FROM tasks WHERE id = ? AND deleted_at IS NULL FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time RETURNING old.name";
+    static final String SQL_RESTORE = "UPDATE tasks SET deleted_at = NULL WHERE id = ? AND deleted_at >= ?";
+    static final String SQL_STOP = "UPDATE tasks t SET stop_time = ?, status = 'Остановлена' " +
+            "FROM (SELECT id, start_time, status FROM tasks " +
+            "WHERE id = ? AND status = 'Активна' AND deleted_at IS NULL FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time RETURNING old.status";
+    static final String SQL_FINISH = "UPDATE tasks t SET status = 'Завершена', stop_time = COALESCE(t.stop_time, LOCALTIMESTAMP) " +
+            "FROM (SELECT id, start_time, status FROM tasks " +
+            "WHERE id = ? AND status IN ('Активна', 'Остановлена') AND deleted_at IS NULL FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time RETURNING old.status";
+    // Массовые операции: строки отбираются и блокируются подзапросом old, из которого возвращаются прежние значения
+    // (previous); %1$s - критерии фильтра для подзапроса, %2$s - те же критерии для изменяемой таблицы t,
+    // чтобы изменяемые строки тоже искались по индексу, а не соединением со всеми секциями
+    static final String SQL_BULK_STOP = "UPDATE tasks t SET stop_time = ?, status = 'Остановлена' " +
+            "FROM (SELECT id, start_time, status AS previous FROM tasks " +
+            "WHERE status = 'Активна' AND deleted_at IS NULL%1$s FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time AND t.status = 'Активна' AND t.deleted_at IS NULL%2$s " +
+            "RETURNING t.id, old.previous";
+    static final String SQL_BULK_FINISH = "UPDATE tasks t SET status = 'Завершена', stop_time = COALESCE(t.stop_time, LOCALTIMESTAMP) " +
+            "FROM (SELECT id, start_time, status AS previous FROM tasks " +
+            "WHERE status IN ('Активна', 'Остановлена') AND deleted_at IS NULL%1$s FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time " +
+            "AND t.status IN ('Активна', 'Остановлена') AND t.deleted_at IS NULL%2$s " +
+            "RETURNING t.id, old.previous";
+    static final String SQL_BULK_DELETE = "UPDATE tasks t SET deleted_at = ? " +
+            "FROM (SELECT id, start_time, name AS previous FROM tasks WHERE deleted_at IS NULL%1$s FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time AND t.deleted_at IS NULL%2$s " +
+            "RETURNING t.id, old.previous";
+    // Автоматическая остановка: задача останавливается в момент своего срока, даже если он наступил во время простоя
+    static final String SQL_AUTO_STOP = "UPDATE tasks t SET stop_time = GREATEST(t.auto_stop_at, t.start_time), status = 'Остановлена' " +
+            "FROM (SELECT id, start_time, status AS previous FROM tasks " +
+            "WHERE status = 'Активна' AND deleted_at IS NULL AND auto_stop_at <= ?%1$s FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time AND t.status = 'Активна' AND t.deleted_at IS NULL%2$s " +
+            "RETURNING t.id, old.previous";
+    static final String SQL_SET_AUTO_STOP = "UPDATE tasks SET auto_stop_at = ? WHERE id = ? AND status = 'Активна' AND deleted_at IS NULL";
+    // Проект и метки задачи; прежний проект (0, если задача не была назначена проекту) читается из заблокированной строки.
+    // Учтённое время задачи переносится между проектами и метками триггерами
+    static final String SQL_ASSIGN = "UPDATE tasks t SET project_id = ? " +
+            "FROM (SELECT id, start_time, project_id FROM tasks WHERE id = ? AND deleted_at IS NULL FOR UPDATE) AS old " +
+            "WHERE t.id = old.id AND t.start_time = old.start_time RETURNING COALESCE(old.project_id, 0)";
+    static final String SQL_TAG = "WITH tag AS (" +
+            "INSERT INTO tags (name) VALUES (?) ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name RETURNING id) " +
+            "INSERT INTO task_tags (task_id, tag_id) " +
+            "SELECT t.id, tag.id FROM tasks t, tag WHERE t.id = ? AND t.deleted_at IS NULL ON CONFLICT DO NOTHING";
+    static final String SQL_UNTAG = "DELETE FROM task_tags WHERE task_id = ? AND tag_id = (SELECT id FROM tags WHERE name = ?)";
+    static final String SQL_SELECT_AUTO_STOP = "SELECT auto_stop_at FROM tasks " +
+            "WHERE id = ? AND status = 'Активна' AND deleted_at IS NULL AND auto_stop_at IS NOT NULL";
+    static final String SQL_SELECT_AUTO_STOPS = "SELECT id, auto_stop_at FROM tasks " +
+            "WHERE status = 'Активна' AND deleted_at IS NULL AND auto_stop_at IS NOT NULL";
+    // Активные задачи; раньше начатые выполняются дольше всех
+    static final String SQL_SELECT_ACTIVE = "SELECT id, name, start_time, stop_time, status, project_id FROM tasks " +
+            "WHERE status = 'Активна' AND deleted_at IS NULL";
+    static final String SQL_SELECT_LONGEST_ACTIVE = SQL_SELECT_ACTIVE + " ORDER BY start_time, id LIMIT ?";
+    // Физическая очистка удалённых задач порциями; внешнее условие защищает от одновременного восстановления
+    static final String SQL_PURGE = "DELETE FROM tasks WHERE deleted_at < ? AND id = ANY (ARRAY(" +
+            "SELECT id FROM tasks WHERE deleted_at < ? LIMIT ?))";
+    // Перенос завершённых задач в архив порциями; внешнее условие защищает от одновременного удаления и смены статуса
+    static final String SQL_ARCHIVE = "WITH moved AS (" +
+            "DELETE FROM tasks WHERE status = 'Завершена' AND start_time < ? AND deleted_at IS NULL AND id = ANY (ARRAY(" +
+            "SELECT id FROM tasks WHERE status = 'Завершена' AND start_time < ? AND deleted_at IS NULL LIMIT ?)) " +
+            "RETURNING id, name, start_time, stop_time, status, project_id) " +
+            "INSERT INTO tasks_archive (id, name, start_time, stop_time, status, project_id) " +
+            "SELECT id, name, start_time, stop_time, status, project_id FROM moved";
+    // Выгрузка архива в файлы: задачи архива, начатые в течение периода, в порядке начала
+    static final String SQL_SELECT_ARCHIVED = "SELECT id, name, start_time, stop_time, status, project_id FROM tasks_archive " +
+            "WHERE start_time >= ? AND start_time < ? ORDER BY start_time, id";
+    static final String SQL_DELETE_ARCHIVED = "DELETE FROM tasks_archive WHERE start_time >= ? AND start_time < ?";
+    // Синхронизация клиентов: изменения задач и надгробия физически удалённых задач по транзакции изменения.
+    // Транзакции (xid8) передаются в Java как BIGINT; xmin снимка - самая старая ещё не завершённая транзакция
+    static final String SQL_SYNC_HORIZON = "SELECT pruned_xid::text::bigint, pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+            "FROM task_sync_horizon";
+    static final String SQL_CHANGES = "SELECT id, name, start_time, stop_time, status, project_id, " +
+            "deleted_at IS NOT NULL AS deleted, change_xid::text::bigint AS change_xid " +
+            "FROM tasks WHERE change_xid > ?::text::xid8 ORDER BY change_xid, id LIMIT ?";
+    static final String SQL_CHANGES_OF_XID = "SELECT id, name, start_time, stop_time, status, project_id, " +
+            "deleted_at IS NOT NULL AS deleted, change_xid::text::bigint AS change_xid " +
+            "FROM tasks WHERE change_xid = ?::text::xid8";
+    static final String SQL_TOMBSTONES = "SELECT task_id, change_xid::text::bigint AS change_xid " +
+            "FROM task_tombstones WHERE change_xid > ?::text::xid8 ORDER BY change_xid, task_id LIMIT ?";
+    static final String SQL_TOMBSTONES_OF_XID = "SELECT task_id, change_xid::text::bigint AS change_xid " +
+            "FROM task_tombstones WHERE change_xid = ?::text::xid8";
+    static final String SQL_PRUNE_TOMBSTONES = "WITH pruned AS (DELETE FROM task_tombstones WHERE changed_at < ? RETURNING change_xid) " +
+            "UPDATE task_sync_horizon SET pruned_xid = GREATEST(pruned_xid, (SELECT max(change_xid) FROM pruned)) " +
+            "WHERE EXISTS (SELECT 1 FROM pruned)";
+    // Архивация переносит задачи, не меняя учтённое время проектов и меток.
+    // Этот запрос и вызовы функций обслуживания секций ниже не читают таблиц и тестом планов не проверяются
+    static final String SQL_MAINTENANCE_ON = "SELECT set_config('timetracker.maintenance', 'on', true)";
+    static final String SQL_ENSURE_PARTITIONS = "SELECT ensure_task_partitions(?)";
+    static final String SQL_DROP_EMPTY_PARTITIONS = "SELECT drop_empty_task_partitions(?)";
+
     /**
      * Конструктор по умолчанию.
      */
     public TaskDAO() {
     }
 
+    /**
+     * Открывает сеанс работы с базой данных.
+     *
+     * @param transactional true, если операции сеанса должны выполняться в одной транзакции.
+     * @return Сеанс, который необходимо закрыть после использования.
+     * @throws SQLException Если не удалось получить соединение из пула.
+     */
+    public DaoSession openSession(boolean transactional) throws SQLException {
+        return new DaoSession(DatabaseConnection.getConnection(), transactional);
+    }
+
     /**
      * Проверяет, существует ли задача с указанным идентификатором в базе данных.
      *
-     * @param taskId Идентификатор задачи.
+     * @param session Сеанс работы с базой данных.
+     * @param taskId  Идентификатор задачи.
      * @return true, если задача существует, иначе false.
+     * @throws SQLException Если произошла ошибка при выполнении запроса.
      */
-    private boolean checkTaskExists(long taskId) {
-        String sqlSelect = "SELECT * FROM tasks WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sqlSelect)) {
-            pstmt.setObject(1, taskId);
-            ResultSet rs = pstmt.executeQuery();
+    private boolean checkTaskExists(DaoSession session, long taskId) throws SQLException {
+        PreparedStatement pstmt = session.prepare(SQL_EXISTS);
+        pstmt.setObject(1, taskId);
+        try (ResultSet rs = session.executeQuery(pstmt, "checkTaskExists", taskId)) {
             return rs.next();
-        } catch (SQLException e) {
-            logger.error(e.getMessage(), e);
         }
-        return false;
     }
 
     /**
@@ -52,55 +204,226 @@ public class TaskDAO {
      * @return Optional, содержащий UUID добавленной задачи, если операция прошла успешно, иначе пустой Optional.
      */
     public Optional<Long> addTask(Task task) {
-        String sql = "INSERT INTO tasks (name, start_time, stop_time, status) VALUES (?, ?, ?, ?) RETURNING id";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (DaoSession session = openSession(false)) {
+            long taskId = nextTaskId(session);
+            addTask(session, taskId, task);
+            return Optional.of(taskId);
+        } catch (SQLException e) {
+            logger.error("Error adding task", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Выдаёт ID для новой задачи из последовательности task_sequence. Запрос не захватывает блокировок,
+     * а выданный ID не возвращается последовательности, даже если задача не будет добавлена.
+     *
+     * @param session Сеанс работы с базой данных.
+     * @return ID новой задачи.
+     * @throws SQLException Если произошла ошибка при выполнении запроса.
+     */
+    public long nextTaskId(DaoSession session) throws SQLException {
+        try (ResultSet rs = session.executeQuery(session.prepare(SQL_NEXT_ID), "nextTaskId", 0)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Добавляет новую задачу с выданным ранее ID в базу данных в рамках сеанса.
+     *
+     * @param session Сеанс работы с базой данных.
+     * @param taskId  ID, выданный {@link #nextTaskId(DaoSession)}.
+     * @param task    Задача, которую нужно добавить.
+     * @throws SQLException Если произошла ошибка при выполнении запроса.
+     */
+    public void addTask(DaoSession session, long taskId, Task task) throws SQLException {
+        PreparedStatement pstmt = session.prepare(SQL_INSERT);
+        pstmt.setLong(1, taskId);
+        pstmt.setString(2, task.getName());
+        pstmt.setTimestamp(3, Timestamp.valueOf(task.getStartTime()));
+        pstmt.setTimestamp(4, task.getStopTime() != null ? Timestamp.valueOf(task.getStopTime()) : null);
+        pstmt.setString(5, task.getStatus());
+        pstmt.setTimestamp(6, task.getAutoStopAt() != null ? Timestamp.valueOf(task.getAutoStopAt()) : null);
 
-            pstmt.setString(1, task.getName());
-            pstmt.setTimestamp(2, Timestamp.valueOf(task.getStartTime()));
-            pstmt.setTimestamp(3, task.getStopTime() != null ? java.sql.Timestamp.valueOf(task.getStopTime()) : null);
-            pstmt.setString(4, task.getStatus());
+        session.executeUpdate(pstmt, "addTask", taskId);
+        logger.info("Task added with ID: {}", taskId);
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
+    /**
+     * Передаёт ID всех оперативных задач обработчику, читая их порциями через курсор,
+     * чтобы не держать в памяти весь результат.
+     *
+     * @param consumer Обработчик ID задач.
+     * @return true, если все ID прочитаны, иначе false.
+     */
+    public boolean forEachTaskId(LongConsumer consumer) {
+        try (DaoSession session = openSession(true)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_IDS);
+            pstmt.setFetchSize(10_000);
+            long count = 0;
+            try (ResultSet rs = session.executeQuery(pstmt, "forEachTaskId", 0)) {
+                while (rs.next()) {
+                    consumer.accept(rs.getLong(1));
+                    count++;
+                }
+            }
+            session.commit();
+            logger.info("Loaded {} task ids", count);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error loading task ids", e);
+        }
+        return false;
+    }
+
+    /**
+     * Передаёт обработчику сроки автоматической остановки всех активных задач, читая их порциями через курсор.
+     *
+     * @param consumer Обработчик срока и ID задачи.
+     * @return true, если все сроки прочитаны, иначе false.
+     */
+    public boolean forEachAutoStop(ObjLongConsumer<LocalDateTime> consumer) {
+        try (DaoSession session = openSession(true)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_AUTO_STOPS);
+            pstmt.setFetchSize(10_000);
+            long count = 0;
+            try (ResultSet rs = session.executeQuery(pstmt, "forEachAutoStop", 0)) {
+                while (rs.next()) {
+                    consumer.accept(rs.getTimestamp(2).toLocalDateTime(), rs.getLong(1));
+                    count++;
+                }
+            }
+            session.commit();
+            logger.info("Loaded {} auto-stop deadlines", count);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error loading auto-stop deadlines", e);
+        }
+        return false;
+    }
+
+    /**
+     * Передаёт обработчику все активные задачи, читая их порциями через курсор.
+     *
+     * @param consumer Обработчик задач.
+     * @return true, если все задачи прочитаны, иначе false.
+     */
+    public boolean forEachActiveTask(Consumer<Task> consumer) {
+        try (DaoSession session = openSession(true)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_ACTIVE);
+            pstmt.setFetchSize(10_000);
+            long count = 0;
+            try (ResultSet rs = session.executeQuery(pstmt, "forEachActiveTask", 0)) {
+                while (rs.next()) {
+                    consumer.accept(mapTask(rs));
+                    count++;
+                }
+            }
+            session.commit();
+            logger.info("Loaded {} active tasks", count);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error loading active tasks", e);
+        }
+        return false;
+    }
+
+    /**
+     * Получает активные задачи, выполняющиеся дольше всех.
+     *
+     * @param limit Максимальное количество задач.
+     * @return Список задач в порядке времени начала.
+     */
+    public List<Task> getLongestActiveTasks(int limit) {
+        List<Task> tasks = new ArrayList<>();
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_LONGEST_ACTIVE);
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = session.executeQuery(pstmt, "getLongestActiveTasks", 0)) {
+                while (rs.next()) {
+                    tasks.add(mapTask(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving longest active tasks", e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Получает срок автоматической остановки активной задачи.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Optional со сроком, если задача активна и срок задан.
+     */
+    public Optional<LocalDateTime> getAutoStop(long taskId) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_AUTO_STOP);
+            pstmt.setLong(1, taskId);
+            try (ResultSet rs = session.executeQuery(pstmt, "getAutoStop", taskId)) {
                 if (rs.next()) {
-                    long taskId = rs.getLong("id");
-                    logger.info("Task added with ID: {}", taskId);
-                    return Optional.ofNullable(taskId);
+                    return Optional.of(rs.getTimestamp(1).toLocalDateTime());
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error adding task", e);
+            logger.error("Error retrieving auto-stop deadline for ID: {}", taskId, e);
         }
         return Optional.empty();
     }
 
+    /**
+     * Получает задачу по идентификатору.
+     *
+     * @param taskId Идентификатор задачи.
+     * @return Optional с задачей, если она найдена.
+     */
+    public Optional<Task> getTask(long taskId) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_ONE);
+            pstmt.setLong(1, taskId);
+            try (ResultSet rs = session.executeQuery(pstmt, "getTask", taskId)) {
+                if (rs.next()) {
+                    return Optional.of(mapTask(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving task with ID: {}", taskId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Получает компактный список всех задач из базы данных.
+     *
+     * @return Список неизменяемых представлений задач.
+     */
+    public List<TaskView> getAllTaskViews() {
+        List<TaskView> tasks = new ArrayList<>();
+        try (DaoSession session = openSession(false);
+             ResultSet rs = session.executeQuery(session.prepare(SQL_SELECT_ALL_VIEWS), "getAllTaskViews", 0)) {
+
+            while (rs.next()) {
+                tasks.add(mapTaskView(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving task views", e);
+        }
+        return tasks;
+    }
+
     /**
      * Получает список всех задач из базы данных.
      *
      * @return Список задач.
      */
     public List<Task> getAllTasks() {
-        String sql = "SELECT * FROM tasks";
         List<Task> tasks = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (DaoSession session = openSession(false);
+             ResultSet rs = session.executeQuery(session.prepare(SQL_SELECT_ALL), "getAllTasks", 0)) {
 
             while (rs.next()) {
-                long id = rs.getLong("id");
-                String name = rs.getString("name");
-                LocalDateTime startTime = rs.getTimestamp("start_time").toLocalDateTime();
-                LocalDateTime stopTime = rs.getTimestamp("stop_time") != null ? rs.getTimestamp("stop_time").toLocalDateTime() : null;
-                String status = rs.getString("status");
-
-                Task task = new Task();
-                task.setId(id);
-                task.setName(name);
-                task.setStartTime(startTime);
-                task.setStopTime(stopTime);
-                task.setStatus(status);
-
-                tasks.add(task);
+                tasks.add(mapTask(rs));
             }
         } catch (SQLException e) {
             logger.error("Error retrieving tasks", e);
@@ -109,61 +432,362 @@ public class TaskDAO {
     }
 
     /**
-     * Обновляет имя задачи в базе данных.
+     * Получает изменения задач после токена: добавленные, изменённые и удалённые задачи.
+     * Стоимость запроса пропорциональна количеству изменений, а не размеру таблицы.
      *
-     * @param taskId  Идентификатор задачи.
-     * @param newName Новое имя задачи.
-     * @return true, если обновление прошло успешно, иначе false.
-     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     * <p>Каждое изменение помечено транзакцией, которая его выполнила, а токен - это транзакция,
+     * до которой включительно клиент получил все изменения. Транзакция с меньшим номером может
+     * зафиксироваться позже транзакции с большим, поэтому токен не продвигается до xmin снимка -
+     * самой старой ещё не завершённой транзакции: все транзакции меньше неё уже зафиксированы
+     * или отменены, а изменения ещё не завершённых транзакций получат номер не меньше неё
+     * и придут в следующем ответе. Изменения зафиксированных транзакций не меньше xmin приходят клиенту,
+     * но повторяются в следующем ответе. Порция не разрезает транзакцию: транзакция, не поместившаяся
+     * в порцию, приходит в следующей, а транзакция больше порции возвращается целиком.
+     *
+     * @param token Токен версии из предыдущего ответа или 0 для первого запроса.
+     * @param limit Максимальное количество изменений в ответе; полная синхронизация возвращает все задачи.
+     * @return Изменения и токен для следующего запроса; при ошибке - пустые изменения с прежним токеном.
      */
-    public boolean updateTaskName(long taskId, String newName) {
-        if (!checkTaskExists(taskId)) {
-            throw new TaskNotFoundException(taskId);
+    public TaskChanges getChangesSince(long token, int limit) {
+        try (DaoSession session = openSession(false)) {
+            return readChanges(session, token, limit);
+        } catch (SQLException e) {
+            logger.error("Error retrieving task changes since {}", token, e);
         }
+        TaskChanges changes = new TaskChanges();
+        changes.setToken(token);
+        return changes;
+    }
 
-        String sql = "UPDATE tasks SET name = ? WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Читает изменения задач после токена в переданном сеансе (см. {@link #getChangesSince(long, int)}).
+     */
+    TaskChanges readChanges(DaoSession session, long token, int limit) throws SQLException {
+        TaskChanges changes = new TaskChanges();
+        long since = token;
+        long xmin;
+        try (ResultSet rs = session.executeQuery(session.prepare(SQL_SYNC_HORIZON), "getChangesSince", 0)) {
+            rs.next();
+            long horizon = rs.getLong(1);
+            // xmin читается до изменений: транзакции меньше него видны и в снимках следующих запросов
+            xmin = rs.getLong(2);
+            if (token <= 0 || token < horizon) {
+                // Полная синхронизация читает все задачи одной порцией, поэтому токен сразу достигает xmin
+                changes.setFullResync(true);
+                since = 0;
+            }
+        }
+        int pageSize = changes.isFullResync() ? Integer.MAX_VALUE - 1 : limit;
 
-            pstmt.setString(1, newName);
-            pstmt.setLong(2, taskId);
+        List<Change> rows = new ArrayList<>();
+        PreparedStatement pstmt = session.prepare(SQL_CHANGES);
+        pstmt.setLong(1, since);
+        pstmt.setInt(2, pageSize + 1);
+        addChanges(session, pstmt, false, rows);
+        pstmt = session.prepare(SQL_TOMBSTONES);
+        pstmt.setLong(1, since);
+        pstmt.setInt(2, pageSize + 1);
+        addChanges(session, pstmt, true, rows);
+        rows.sort(CHANGE_ORDER);
 
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                logger.info("Task name updated for ID: {}", taskId);
-                return true;
+        // Транзакция, на которой порция обрезана, целиком переносится в следующую порцию
+        long pageNext = Long.MAX_VALUE;
+        boolean cut = rows.size() > pageSize;
+        if (cut) {
+            long cutXid = rows.get(pageSize).xid;
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            rows.removeIf(change -> change.xid >= cutXid);
+            pageNext = cutXid - 1;
+            if (rows.isEmpty()) {
+                // Одна транзакция изменила больше задач, чем помещается в порцию: она возвращается целиком
+                pstmt = session.prepare(SQL_CHANGES_OF_XID);
+                pstmt.setLong(1, cutXid);
+                addChanges(session, pstmt, false, rows);
+                pstmt = session.prepare(SQL_TOMBSTONES_OF_XID);
+                pstmt.setLong(1, cutXid);
+                addChanges(session, pstmt, true, rows);
+                rows.sort(CHANGE_ORDER);
+                pageNext = cutXid;
+            }
+        }
+
+        for (Change change : rows) {
+            if (change.task != null) {
+                changes.getChanged().add(change.task);
+            } else if (!changes.isFullResync()) {
+                changes.getDeletedIds().add(change.taskId);
+            }
+        }
+        changes.setToken(Math.max(since, Math.min(pageNext, xmin - 1)));
+        changes.setHasMore(cut && pageNext < xmin);
+        return changes;
+    }
+
+    private void addChanges(DaoSession session, PreparedStatement pstmt, boolean tombstones, List<Change> rows) throws SQLException {
+        try (ResultSet rs = session.executeQuery(pstmt, "getChangesSince", 0)) {
+            while (rs.next()) {
+                if (tombstones) {
+                    rows.add(new Change(rs.getLong("change_xid"), null, rs.getLong("task_id")));
+                } else {
+                    Task task = mapTask(rs);
+                    rows.add(new Change(rs.getLong("change_xid"), rs.getBoolean("deleted") ? null : task, task.getId()));
+                }
             }
+        }
+    }
+
+    private static final Comparator<Change> CHANGE_ORDER =
+            Comparator.<Change>comparingLong(change -> change.xid).thenComparingLong(change -> change.taskId);
+
+    /**
+     * Изменение задачи для синхронизации: задача или ID удалённой задачи с транзакцией изменения.
+     */
+    private static final class Change {
+        private final long xid;
+        private final Task task; // null для удалённой задачи
+        private final long taskId;
+
+        private Change(long xid, Task task, long taskId) {
+            this.xid = xid;
+            this.task = task;
+            this.taskId = taskId;
+        }
+    }
+
+    /**
+     * Удаляет надгробия задач, удалённых раньше указанного момента.
+     * Клиенты с токеном старше удалённых надгробий при следующем запросе получат полную синхронизацию.
+     *
+     * @param deletedBefore Момент, раньше которого надгробия удаляются.
+     * @return true, если были удалены надгробия, иначе false.
+     */
+    public boolean pruneTombstones(LocalDateTime deletedBefore) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_PRUNE_TOMBSTONES);
+            pstmt.setTimestamp(1, Timestamp.valueOf(deletedBefore));
+            boolean pruned = session.executeUpdate(pstmt, "pruneTombstones", 0) > 0;
+            if (pruned) {
+                logger.info("Pruned task tombstones deleted before {}", deletedBefore);
+            }
+            return pruned;
         } catch (SQLException e) {
-            logger.error("Error updating task name for ID: {}", taskId, e);
+            logger.error("Error pruning task tombstones deleted before {}", deletedBefore, e);
         }
         return false;
     }
 
     /**
-     * Удаляет задачу из базы данных.
+     * Получает задачи, интервал выполнения которых пересекается с периодом [from, to).
+     * Активные задачи считаются выполняющимися до текущего момента.
+     *
+     * @param from Начало периода.
+     * @param to   Конец периода.
+     * @return Список задач в порядке времени начала.
+     */
+    public List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to) {
+        List<Task> tasks = new ArrayList<>();
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_RANGE);
+            pstmt.setTimestamp(1, Timestamp.valueOf(from));
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            pstmt.setTimestamp(3, Timestamp.valueOf(to));
+            try (ResultSet rs = session.executeQuery(pstmt, "getTasksInRange", 0)) {
+                while (rs.next()) {
+                    tasks.add(mapTask(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving tasks between {} and {}", from, to, e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Вычисляет суммарное время задач внутри периода [from, to): интервал каждой задачи
+     * обрезается границами периода, время параллельных задач складывается.
+     *
+     * @param from Начало периода.
+     * @param to   Конец периода (для активных задач - не позже текущего момента).
+     * @return Суммарное время в миллисекундах.
+     */
+    public long getTrackedMillis(LocalDateTime from, LocalDateTime to) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_TRACKED_SECONDS);
+            for (int i = 0; i < 2; i++) {
+                pstmt.setTimestamp(2 * i + 1, Timestamp.valueOf(from));
+                pstmt.setTimestamp(2 * i + 2, Timestamp.valueOf(to));
+            }
+            pstmt.setTimestamp(5, Timestamp.valueOf(to));
+            try (ResultSet rs = session.executeQuery(pstmt, "getTrackedMillis", 0)) {
+                if (rs.next()) {
+                    return Math.round(rs.getDouble(1) * 1000);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error summing tracked time between {} and {}", from, to, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Находит пары задач, интервалы выполнения которых пересекаются внутри периода [from, to).
+     * Каждый интервал ищется по GiST-индексу, поэтому попарное сравнение всех задач не выполняется.
+     * Пары упорядочены по началу пересечения и ID задач, поэтому limit отсекает самые поздние пересечения.
+     *
+     * @param from  Начало периода.
+     * @param to    Конец периода.
+     * @param limit Максимальное количество пар.
+     * @return Список первых limit пересечений в порядке их начала.
+     */
+    public List<TaskOverlap> findOverlaps(LocalDateTime from, LocalDateTime to, int limit) {
+        List<TaskOverlap> overlaps = new ArrayList<>();
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_OVERLAPS);
+            for (int i = 0; i < 2; i++) {
+                pstmt.setTimestamp(3 * i + 1, Timestamp.valueOf(from));
+                pstmt.setTimestamp(3 * i + 2, Timestamp.valueOf(to));
+                pstmt.setTimestamp(3 * i + 3, Timestamp.valueOf(to));
+            }
+            pstmt.setTimestamp(7, Timestamp.valueOf(from));
+            pstmt.setTimestamp(8, Timestamp.valueOf(to));
+            pstmt.setInt(9, limit);
+            try (ResultSet rs = session.executeQuery(pstmt, "findOverlaps", 0)) {
+                while (rs.next()) {
+                    TaskOverlap overlap = new TaskOverlap();
+                    overlap.setFirstTaskId(rs.getLong("first_id"));
+                    overlap.setFirstTaskName(rs.getString("first_name"));
+                    overlap.setSecondTaskId(rs.getLong("second_id"));
+                    overlap.setSecondTaskName(rs.getString("second_name"));
+                    overlap.setStart(rs.getTimestamp("overlap_start").toLocalDateTime());
+                    overlap.setEnd(rs.getTimestamp("overlap_end") != null ? rs.getTimestamp("overlap_end").toLocalDateTime() : null);
+                    overlaps.add(overlap);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding overlapping tasks between {} and {}", from, to, e);
+        }
+        return overlaps;
+    }
+
+    /**
+     * Преобразует строку запроса в задачу, обращаясь к столбцам по номеру: все запросы, читающие задачи,
+     * начинаются со столбцов id, name, start_time, stop_time, status, project_id.
+     */
+    private static Task mapTask(ResultSet rs) throws SQLException {
+        Task task = new Task();
+        task.setId(rs.getLong(1));
+        task.setName(rs.getString(2));
+        task.setStartTime(rs.getTimestamp(3).toLocalDateTime());
+        Timestamp stopTime = rs.getTimestamp(4);
+        task.setStopTime(stopTime != null ? stopTime.toLocalDateTime() : null);
+        task.setStatus(rs.getString(5));
+        long projectId = rs.getLong(6);
+        task.setProjectId(rs.wasNull() ? null : projectId);
+        return task;
+    }
+
+    /**
+     * Преобразует строку запроса {@link #SQL_SELECT_ALL_VIEWS} в представление задачи, обращаясь к столбцам по номеру.
+     */
+    private static TaskView mapTaskView(ResultSet rs) throws SQLException {
+        long stopSeconds = rs.getLong(4);
+        if (rs.wasNull()) {
+            stopSeconds = TaskView.NO_STOP;
+        }
+        return new TaskView(rs.getLong(1), rs.getString(2), rs.getLong(3), stopSeconds, rs.getByte(5), rs.getLong(6));
+    }
+
+    /**
+     * Переименовывает задачу в базе данных.
+     *
+     * @param taskId  Идентификатор задачи.
+     * @param newName Новое имя задачи.
+     * @return Optional, содержащий прежнее имя задачи, если задача переименована, иначе пустой Optional.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public Optional<String> renameTask(long taskId, String newName) {
+        try (DaoSession session = openSession(false)) {
+            return renameTask(session, taskId, newName);
+        } catch (SQLException e) {
+            logger.error("Error updating task name for ID: {}", taskId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Переименовывает задачу в рамках сеанса.
+     *
+     * @param session Сеанс работы с базой данных.
+     * @param taskId  Идентификатор задачи.
+     * @param newName Новое имя задачи.
+     * @return Optional, содержащий прежнее имя задачи, если задача переименована, иначе пустой Optional.
+     * @throws SQLException          Если произошла ошибка при выполнении запроса.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public Optional<String> renameTask(DaoSession session, long taskId, String newName) throws SQLException {
+        PreparedStatement pstmt = session.prepare(SQL_UPDATE_NAME);
+        pstmt.setString(1, newName);
+        pstmt.setLong(2, taskId);
+        return executeTaskChange(session, pstmt, "renameTask", taskId, "Task name updated for ID: {}");
+    }
+
+    /**
+     * Мягко удаляет задачу: задача отмечается удалённой и перестаёт быть видна,
+     * а физически удаляется позже фоновой очисткой.
      *
      * @param taskId Идентификатор задачи.
-     * @return true, если удаление прошло успешно, иначе false.
+     * @return Optional, содержащий название удалённой задачи, если удаление прошло успешно, иначе пустой Optional.
      * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
      */
-    public boolean deleteTask(long taskId) {
-        if (!checkTaskExists(taskId)) {
-            throw new TaskNotFoundException(taskId);
+    public Optional<String> deleteTask(long taskId) {
+        try (DaoSession session = openSession(false)) {
+            return deleteTask(session, taskId);
+        } catch (SQLException e) {
+            logger.error("Error deleting task with ID: {}", taskId, e);
         }
+        return Optional.empty();
+    }
 
-        String sql = "DELETE FROM tasks WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Мягко удаляет задачу в рамках сеанса.
+     *
+     * @param session Сеанс работы с базой данных.
+     * @param taskId  Идентификатор задачи.
+     * @return Optional, содержащий название удалённой задачи, если удаление прошло успешно, иначе пустой Optional.
+     * @throws SQLException          Если произошла ошибка при выполнении запроса.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public Optional<String> deleteTask(DaoSession session, long taskId) throws SQLException {
+        PreparedStatement pstmt = session.prepare(SQL_DELETE);
+        pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+        pstmt.setLong(2, taskId);
+        return executeTaskChange(session, pstmt, "deleteTask", taskId, "Task deleted with ID: {}");
+    }
 
+    /**
+     * Восстанавливает задачу, удалённую не раньше указанного момента.
+     *
+     * @param taskId       Идентификатор задачи.
+     * @param deletedAfter Самый ранний момент удаления, после которого задачу ещё можно восстановить.
+     * @return true, если задача восстановлена, иначе false.
+     * @throws TaskNotFoundException Если удалённой задачи с указанным идентификатором нет или её уже нельзя восстановить.
+     */
+    public boolean restoreTask(long taskId, LocalDateTime deletedAfter) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_RESTORE);
             pstmt.setLong(1, taskId);
-
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                logger.info("Task deleted with ID: {}", taskId);
-                return true;
+            pstmt.setTimestamp(2, Timestamp.valueOf(deletedAfter));
+            if (session.executeUpdate(pstmt, "restoreTask", taskId) == 0) {
+                throw new TaskNotFoundException(taskId);
             }
+            logger.info("Task restored with ID: {}", taskId);
+            return true;
         } catch (SQLException e) {
-            logger.error("Error deleting task with ID: {}", taskId, e);
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                logger.warn("Task {} not restored, its name is taken by another task", taskId);
+            } else {
+                logger.error("Error restoring task with ID: {}", taskId, e);
+            }
         }
         return false;
     }
@@ -172,28 +796,118 @@ public class TaskDAO {
      * Останавливает задачу, обновляя её статус на "Остановлена" и устанавливая время остановки.
      *
      * @param taskId Идентификатор задачи.
-     * @return true, если операция прошла успешно, иначе false.
+     * @return Optional, содержащий прежний статус задачи, если операция прошла успешно, иначе пустой Optional.
      * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
      */
-    public boolean stopTask(long taskId) {
-        if (!checkTaskExists(taskId)) {
-            throw new TaskNotFoundException(taskId);
+    public Optional<String> stopTask(long taskId) {
+        try (DaoSession session = openSession(false)) {
+            return stopTask(session, taskId);
+        } catch (SQLException e) {
+            logger.error("Error stopping task with ID: {}", taskId, e);
         }
+        return Optional.empty();
+    }
+
+    /**
+     * Останавливает задачу в рамках сеанса.
+     *
+     * @param session Сеанс работы с базой данных.
+     * @param taskId  Идентификатор задачи.
+     * @return Optional, содержащий прежний статус задачи, если операция прошла успешно, иначе пустой Optional.
+     * @throws SQLException          Если произошла ошибка при выполнении запроса.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public Optional<String> stopTask(DaoSession session, long taskId) throws SQLException {
+        PreparedStatement pstmt = session.prepare(SQL_STOP);
+        pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+        pstmt.setLong(2, taskId);
+        return executeTaskChange(session, pstmt, "stopTask", taskId, "Task stopped with ID: {}");
+    }
 
-        String sql = "UPDATE tasks SET stop_time = ?, status = 'Остановлена' WHERE id = ? AND status = 'Активна'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Устанавливает или снимает срок автоматической остановки активной задачи.
+     *
+     * @param taskId   Идентификатор задачи.
+     * @param deadline Срок остановки или null, чтобы задача не останавливалась автоматически.
+     * @return true, если срок изменён, false, если задача не активна.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public boolean setAutoStop(long taskId, LocalDateTime deadline) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_SET_AUTO_STOP);
+            pstmt.setTimestamp(1, deadline != null ? Timestamp.valueOf(deadline) : null);
+            pstmt.setLong(2, taskId);
+            return executeTaskUpdate(session, pstmt, "setAutoStop", taskId, "Auto-stop deadline updated for ID: {}");
+        } catch (SQLException e) {
+            logger.error("Error updating auto-stop deadline for ID: {}", taskId, e);
+        }
+        return false;
+    }
 
-            pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+    /**
+     * Назначает задаче проект.
+     *
+     * @param taskId    Идентификатор задачи.
+     * @param projectId Идентификатор проекта или null, чтобы снять назначение.
+     * @return Optional, содержащий прежний проект задачи (0, если задача не была назначена проекту),
+     * если назначение прошло успешно, иначе пустой Optional.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public Optional<Long> assignProject(long taskId, Long projectId) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_ASSIGN);
+            pstmt.setObject(1, projectId, Types.BIGINT);
             pstmt.setLong(2, taskId);
+            return executeTaskChange(session, pstmt, "assignProject", taskId, "Project assigned to task {}")
+                    .map(Long::valueOf);
+        } catch (SQLException e) {
+            logger.error("Error assigning task {} to project {}", taskId, projectId, e);
+        }
+        return Optional.empty();
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
+    /**
+     * Добавляет задаче метку, создавая метку при первом использовании.
+     *
+     * @param taskId  Идентификатор задачи.
+     * @param tagName Название метки.
+     * @return true, если метка добавлена, false, если задача не найдена или уже помечена.
+     */
+    public boolean tagTask(long taskId, String tagName) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_TAG);
+            pstmt.setString(1, tagName);
+            pstmt.setLong(2, taskId);
+            int rowsAffected = session.executeUpdate(pstmt, "tagTask", taskId);
             if (rowsAffected > 0) {
-                logger.info("Task stopped with ID: {}", taskId);
-                return true;
+                logger.info("Task {} tagged with {}", taskId, tagName);
             }
+            return rowsAffected > 0;
         } catch (SQLException e) {
-            logger.error("Error stopping task with ID: {}", taskId, e);
+            logger.error("Error tagging task {} with {}", taskId, tagName, e);
+        }
+        return false;
+    }
+
+    /**
+     * Снимает с задачи метку.
+     *
+     * @param taskId  Идентификатор задачи.
+     * @param tagName Название метки.
+     * @return true, если метка снята, иначе false.
+     */
+    public boolean untagTask(long taskId, String tagName) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_UNTAG);
+            pstmt.setLong(1, taskId);
+            pstmt.setString(2, tagName);
+            int rowsAffected = session.executeUpdate(pstmt, "untagTask", taskId);
+            if (rowsAffected > 0) {
+                logger.info("Tag {} removed from task {}", tagName, taskId);
+            }
+            return rowsAffected > 0;
+        } catch (SQLException e) {
+            logger.error("Error removing tag {} from task {}", tagName, taskId, e);
         }
         return false;
     }
@@ -202,28 +916,381 @@ public class TaskDAO {
      * Завершает задачу, обновляя её статус на "Завершена".
      *
      * @param taskId Идентификатор задачи.
-     * @return true, если операция прошла успешно, иначе false.
+     * @return Optional, содержащий прежний статус задачи, если операция прошла успешно, иначе пустой Optional.
      * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
      */
-    public boolean finishTask(long taskId) {
-        if (!checkTaskExists(taskId)) {
+    public Optional<String> finishTask(long taskId) {
+        try (DaoSession session = openSession(false)) {
+            return finishTask(session, taskId);
+        } catch (SQLException e) {
+            logger.error("Error finishing task with ID: {}", taskId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Завершает задачу в рамках сеанса.
+     *
+     * @param session Сеанс работы с базой данных.
+     * @param taskId  Идентификатор задачи.
+     * @return Optional, содержащий прежний статус задачи, если операция прошла успешно, иначе пустой Optional.
+     * @throws SQLException          Если произошла ошибка при выполнении запроса.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    public Optional<String> finishTask(DaoSession session, long taskId) throws SQLException {
+        PreparedStatement pstmt = session.prepare(SQL_FINISH);
+        pstmt.setLong(1, taskId);
+        return executeTaskChange(session, pstmt, "finishTask", taskId, "Task finished with ID: {}");
+    }
+
+    /**
+     * Выполняет изменение одной задачи. Существование задачи проверяется отдельным запросом
+     * только если изменение не затронуло ни одной строки, поэтому успешная операция стоит один запрос.
+     *
+     * @param session   Сеанс работы с базой данных.
+     * @param pstmt     Подготовленный запрос изменения с установленными параметрами.
+     * @param operation Название операции для события JFR.
+     * @param taskId    Идентификатор задачи.
+     * @param message   Сообщение для журнала при успешном изменении.
+     * @return true, если задача изменена, false, если задача существует, но не подходит для изменения.
+     * @throws SQLException          Если произошла ошибка при выполнении запроса.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    private boolean executeTaskUpdate(DaoSession session, PreparedStatement pstmt, String operation, long taskId,
+                                      String message) throws SQLException {
+        int rowsAffected = session.executeUpdate(pstmt, operation, taskId);
+        if (rowsAffected > 0) {
+            logger.info(message, taskId);
+            return true;
+        }
+        if (!checkTaskExists(session, taskId)) {
             throw new TaskNotFoundException(taskId);
         }
+        return false;
+    }
 
-        String sql = "UPDATE tasks SET status = 'Завершена' WHERE id = ? AND status IN ('Активна', 'Остановлена')";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Выполняет изменение одной задачи, возвращающее прежнее значение изменённой строки (RETURNING).
+     * Как и в {@link #executeTaskUpdate}, существование задачи проверяется только если задача не изменена.
+     *
+     * @param session   Сеанс работы с базой данных.
+     * @param pstmt     Подготовленный запрос изменения с установленными параметрами.
+     * @param operation Название операции для события JFR.
+     * @param taskId    Идентификатор задачи.
+     * @param message   Сообщение для журнала при успешном изменении.
+     * @return Optional с прежним значением, если задача изменена, пустой Optional, если задача существует,
+     * но не подходит для изменения.
+     * @throws SQLException          Если произошла ошибка при выполнении запроса.
+     * @throws TaskNotFoundException Если задача с указанным идентификатором не найдена.
+     */
+    private Optional<String> executeTaskChange(DaoSession session, PreparedStatement pstmt, String operation, long taskId,
+                                               String message) throws SQLException {
+        try (ResultSet rs = session.executeQuery(pstmt, operation, taskId)) {
+            if (rs.next()) {
+                logger.info(message, taskId);
+                return Optional.of(rs.getString(1));
+            }
+        }
+        if (!checkTaskExists(session, taskId)) {
+            throw new TaskNotFoundException(taskId);
+        }
+        return Optional.empty();
+    }
 
-            pstmt.setLong(1, taskId);
+    /**
+     * Останавливает одним запросом все активные задачи, удовлетворяющие фильтру.
+     *
+     * @param filter Условие отбора задач.
+     * @return Прежние статусы остановленных задач по их идентификаторам.
+     */
+    public Map<Long, String> stopTasks(TaskFilter filter) {
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        return executeBulk(SQL_BULK_STOP, filter, params, "stopped");
+    }
+
+    /**
+     * Останавливает одним запросом задачи с наступившим сроком автоматической остановки.
+     * Время остановки задачи равно её сроку; задачи, остановленные раньше или получившие более поздний срок, пропускаются.
+     * Ошибка базы данных не скрывается: сроки порции уже сняты с колеса таймеров
+     * и назначаются повторно вызывающей стороной.
+     *
+     * @param taskIds Идентификаторы задач.
+     * @return Прежние статусы остановленных задач по их идентификаторам.
+     * @throws TaskTransactionException Если запрос не выполнен из-за ошибки базы данных.
+     */
+    public Map<Long, String> autoStopTasks(List<Long> taskIds) {
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        TaskFilter filter = TaskFilter.byIds(taskIds);
+        try {
+            return queryBulk(SQL_AUTO_STOP, filter, params, "auto-stopped");
+        } catch (SQLException e) {
+            logger.error("Error in bulk operation (auto-stopped) by {}", filter, e);
+            throw new TaskTransactionException(e);
+        }
+    }
+
+    /**
+     * Завершает одним запросом все активные и остановленные задачи, удовлетворяющие фильтру.
+     *
+     * @param filter Условие отбора задач.
+     * @return Прежние статусы завершённых задач по их идентификаторам.
+     */
+    public Map<Long, String> finishTasks(TaskFilter filter) {
+        return executeBulk(SQL_BULK_FINISH, filter, new ArrayList<>(), "finished");
+    }
+
+    /**
+     * Мягко удаляет одним запросом все задачи, удовлетворяющие фильтру.
+     *
+     * @param filter Условие отбора задач.
+     * @return Названия удалённых задач по их идентификаторам.
+     */
+    public Map<Long, String> deleteTasks(TaskFilter filter) {
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        return executeBulk(SQL_BULK_DELETE, filter, params, "deleted");
+    }
+
+    /**
+     * Дополняет запрос массовой операции условиями фильтра и собирает параметры в порядке их следования.
+     * Критерии фильтра подставляются дважды: в подзапрос old, блокирующий отобранные строки, и в условие
+     * изменяемой таблицы t.
+     *
+     * @param sql    Шаблон запроса с местами %1$s и %2$s для критериев фильтра.
+     * @param filter Условие отбора задач.
+     * @param params Параметры запроса до критериев фильтра; параметры фильтра добавляются в конец списка.
+     * @return Текст запроса, возвращающего идентификаторы затронутых задач и их прежние значения.
+     */
+    static String bulkQuery(String sql, TaskFilter filter, List<Object> params) {
+        List<Object> filterParams = new ArrayList<>();
+        String conditions = filterConditions(filter, "", filterParams);
+        String targetConditions = filterConditions(filter, "t.", new ArrayList<>());
+        params.addAll(filterParams);
+        params.addAll(filterParams);
+        return String.format(sql, conditions, targetConditions);
+    }
+
+    private static String filterConditions(TaskFilter filter, String alias, List<Object> params) {
+        StringBuilder conditions = new StringBuilder();
+        if (filter.getIds() != null) {
+            conditions.append(" AND ").append(alias).append("id = ANY (?)");
+            params.add(filter.getIds());
+        }
+        if (filter.getStatus() != null) {
+            conditions.append(" AND ").append(alias).append("status = ?");
+            params.add(filter.getStatus());
+        }
+        if (filter.getStartedBefore() != null) {
+            conditions.append(" AND ").append(alias).append("start_time < ?");
+            params.add(Timestamp.valueOf(filter.getStartedBefore()));
+        }
+        if (filter.getNamePattern() != null) {
+            conditions.append(" AND ").append(alias).append("name LIKE ?");
+            params.add(filter.getNamePattern());
+        }
+        return conditions.toString();
+    }
+
+    /**
+     * Устанавливает параметры запроса; списки передаются как массивы bigint.
+     *
+     * @param conn   Соединение, через которое создаются массивы.
+     * @param pstmt  Подготовленный запрос.
+     * @param params Параметры в порядке следования в запросе.
+     * @throws SQLException Если параметр не удалось установить.
+     */
+    static void bindParams(Connection conn, PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof List) {
+                pstmt.setArray(i + 1, conn.createArrayOf("bigint", ((List<?>) param).toArray()));
+            } else {
+                pstmt.setObject(i + 1, param);
+            }
+        }
+    }
+
+    /**
+     * Дополняет запрос условиями фильтра, выполняет его и собирает прежние значения затронутых задач.
+     *
+     * @param sql    Шаблон запроса с местами для критериев фильтра (см. {@link #bulkQuery}).
+     * @param filter Условие отбора задач.
+     * @param params Параметры запроса до критериев фильтра.
+     * @param action Название действия для журнала.
+     * @return Прежние значения затронутых задач по их идентификаторам.
+     */
+    private Map<Long, String> executeBulk(String sql, TaskFilter filter, List<Object> params, String action) {
+        try {
+            return queryBulk(sql, filter, params, action);
+        } catch (SQLException e) {
+            logger.error("Error in bulk operation ({}) by {}", action, filter, e);
+        }
+        return new LinkedHashMap<>();
+    }
+
+    /**
+     * Выполняет массовую операцию, передавая ошибку базы данных вызывающей стороне.
+     *
+     * @param sql    Шаблон запроса с местами для критериев фильтра (см. {@link #bulkQuery}).
+     * @param filter Условие отбора задач.
+     * @param params Параметры запроса до критериев фильтра.
+     * @param action Название действия для журнала.
+     * @return Прежние значения затронутых задач по их идентификаторам.
+     * @throws SQLException Если произошла ошибка при выполнении запроса.
+     */
+    private Map<Long, String> queryBulk(String sql, TaskFilter filter, List<Object> params, String action)
+            throws SQLException {
+        String query = bulkQuery(sql, filter, params);
+
+        Map<Long, String> ids = new LinkedHashMap<>();
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(query);
+            bindParams(session.getConnection(), pstmt, params);
+            try (ResultSet rs = session.executeQuery(pstmt, "bulk-" + action, 0)) {
+                while (rs.next()) {
+                    ids.put(rs.getLong(1), rs.getString(2));
+                }
+            }
+            logger.info("Bulk {} {} tasks by {}", action, ids.size(), filter);
+        }
+        return ids;
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
+    /**
+     * Создаёт помесячные секции таблицы tasks за текущий месяц и указанное число следующих месяцев.
+     *
+     * @param monthsAhead Количество месяцев вперёд, для которых нужно заранее создать секции.
+     */
+    public void ensurePartitions(int monthsAhead) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_ENSURE_PARTITIONS);
+            pstmt.setInt(1, monthsAhead);
+            session.executeQuery(pstmt, "ensurePartitions", 0).close();
+        } catch (SQLException e) {
+            logger.error("Error creating task partitions", e);
+        }
+    }
+
+    /**
+     * Переносит пачку завершённых задач, начатых раньше указанного времени, в таблицу tasks_archive.
+     * Условие по start_time позволяет планировщику затрагивать только старые секции.
+     *
+     * @param startedBefore Граница времени начала задач, подлежащих архивации.
+     * @param batchSize     Максимальное количество задач, переносимых за один вызов.
+     * @return Количество перенесённых задач.
+     */
+    public int archiveFinishedTasks(LocalDateTime startedBefore, int batchSize) {
+        try (DaoSession session = openSession(true)) {
+            session.executeQuery(session.prepare(SQL_MAINTENANCE_ON), "archiveFinishedTasks", 0).close();
+
+            PreparedStatement pstmt = session.prepare(SQL_ARCHIVE);
+            pstmt.setTimestamp(1, Timestamp.valueOf(startedBefore));
+            pstmt.setTimestamp(2, Timestamp.valueOf(startedBefore));
+            pstmt.setInt(3, batchSize);
+
+            int rowsAffected = session.executeUpdate(pstmt, "archiveFinishedTasks", 0);
+            session.commit();
             if (rowsAffected > 0) {
-                logger.info("Task finished with ID: {}", taskId);
-                return true;
+                logger.info("Archived {} finished tasks started before {}", rowsAffected, startedBefore);
             }
+            return rowsAffected;
         } catch (SQLException e) {
-            logger.error("Error finishing task with ID: {}", taskId, e);
+            logger.error("Error archiving tasks started before {}", startedBefore, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Выгружает задачи архива, начатые в течение периода [from, to), и удаляет их из tasks_archive.
+     * Задачи читаются через курсор в порядке начала и передаются обработчику, после чего saved сохраняет их;
+     * удаление фиксируется, только если saved вернул true. Чтение и удаление выполняются в одной транзакции
+     * с уровнем изоляции REPEATABLE READ, поэтому задачи, перенесённые в архив во время выгрузки, не удаляются.
+     *
+     * @param from     Начало периода.
+     * @param to       Конец периода (не включая).
+     * @param consumer Обработчик выгружаемых задач.
+     * @param saved    Сохраняет выгруженные задачи и возвращает true, если они сохранены.
+     * @return true, если задачи выгружены и удалены из tasks_archive, иначе false.
+     */
+    public boolean exportArchivedTasks(LocalDateTime from, LocalDateTime to, Consumer<Task> consumer, BooleanSupplier saved) {
+        try (DaoSession session = openSession(true)) {
+            session.getConnection().setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            PreparedStatement pstmt = session.prepare(SQL_SELECT_ARCHIVED);
+            pstmt.setTimestamp(1, Timestamp.valueOf(from));
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            pstmt.setFetchSize(10_000);
+            try (ResultSet rs = session.executeQuery(pstmt, "exportArchivedTasks", 0)) {
+                while (rs.next()) {
+                    consumer.accept(mapTask(rs));
+                }
+            }
+            if (!saved.getAsBoolean()) {
+                return false;
+            }
+
+            pstmt = session.prepare(SQL_DELETE_ARCHIVED);
+            pstmt.setTimestamp(1, Timestamp.valueOf(from));
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            int rowsAffected = session.executeUpdate(pstmt, "exportArchivedTasks", 0);
+            session.commit();
+            logger.info("Exported {} archived tasks started {} - {}", rowsAffected, from, to);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error exporting archived tasks started {} - {}", from, to, e);
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Физически удаляет порцию задач, мягко удалённых раньше указанного момента.
+     *
+     * @param deletedBefore Момент удаления, раньше которого задачи удаляются физически.
+     * @param batchSize     Максимальное количество задач, удаляемых за один запрос.
+     * @return Количество физически удалённых задач.
+     */
+    public int purgeDeletedTasks(LocalDateTime deletedBefore, int batchSize) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_PURGE);
+            pstmt.setTimestamp(1, Timestamp.valueOf(deletedBefore));
+            pstmt.setTimestamp(2, Timestamp.valueOf(deletedBefore));
+            pstmt.setInt(3, batchSize);
+
+            int rowsAffected = session.executeUpdate(pstmt, "purgeDeletedTasks", 0);
+            if (rowsAffected > 0) {
+                logger.info("Purged {} tasks deleted before {}", rowsAffected, deletedBefore);
+            }
+            return rowsAffected;
+        } catch (SQLException e) {
+            logger.error("Error purging tasks deleted before {}", deletedBefore, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Удаляет опустевшие помесячные секции, целиком лежащие раньше указанного времени.
+     *
+     * @param olderThan Граница, раньше которой должна заканчиваться секция.
+     * @return Количество удалённых секций.
+     */
+    public int dropEmptyPartitions(LocalDateTime olderThan) {
+        try (DaoSession session = openSession(false)) {
+            PreparedStatement pstmt = session.prepare(SQL_DROP_EMPTY_PARTITIONS);
+            pstmt.setTimestamp(1, Timestamp.valueOf(olderThan));
+            try (ResultSet rs = session.executeQuery(pstmt, "dropEmptyPartitions", 0)) {
+                if (rs.next()) {
+                    int dropped = rs.getInt(1);
+                    if (dropped > 0) {
+                        logger.info("Dropped {} empty task partitions older than {}", dropped, olderThan);
+                    }
+                    return dropped;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error dropping empty task partitions older than {}", olderThan, e);
+        }
+        return 0;
+    }
+}
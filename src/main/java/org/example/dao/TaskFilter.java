@@ -0,0 +1,68 @@
+package org.example.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Условие отбора задач для массовых операций.
+ * Все заданные критерии объединяются через AND; незаданные (null) не участвуют в отборе.
+ */
+@Getter
+@Setter
+public class TaskFilter {
+    private List<Long> ids; // Идентификаторы задач
+    private String status; // Статус задачи (например, "Активна")
+    private LocalDateTime startedBefore; // Задача начата строго раньше этого времени
+    private String namePattern; // Шаблон названия в синтаксисе SQL LIKE ('%' - любые символы)
+
+    /**
+     * Создаёт фильтр по списку идентификаторов.
+     *
+     * @param ids идентификаторы задач
+     * @return фильтр
+     */
+    public static TaskFilter byIds(List<Long> ids) {
+        TaskFilter filter = new TaskFilter();
+        filter.setIds(ids);
+        return filter;
+    }
+
+    /**
+     * Создаёт фильтр по статусу задачи.
+     *
+     * @param status статус задачи
+     * @return фильтр
+     */
+    public static TaskFilter byStatus(String status) {
+        TaskFilter filter = new TaskFilter();
+        filter.setStatus(status);
+        return filter;
+    }
+
+    /**
+     * Проверяет, задан ли хотя бы один критерий отбора.
+     *
+     * @return true, если фильтр пустой
+     */
+    public boolean isEmpty() {
+        return ids == null && status == null && startedBefore == null && namePattern == null;
+    }
+
+    /**
+     * Возвращает строковое представление фильтра.
+     *
+     * @return Строка, содержащая заданные критерии отбора.
+     */
+    @Override
+    public String toString() {
+        return "TaskFilter{" +
+                "ids=" + ids +
+                ", status='" + status + '\'' +
+                ", startedBefore=" + startedBefore +
+                ", namePattern='" + namePattern + '\'' +
+                '}';
+    }
+}
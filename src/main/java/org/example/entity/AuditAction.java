@@ -0,0 +1,32 @@
+package org.example.entity;
+
+/**
+ * Вид изменения задачи в журнале изменений.
+ */
+public enum AuditAction {
+    ADD("Добавление"),
+    RENAME("Переименование"),
+    STOP("Остановка"),
+    AUTO_STOP("Автоостановка"),
+    FINISH("Завершение"),
+    DELETE("Удаление"),
+    RESTORE("Восстановление"),
+    ASSIGN("Назначение проекта"),
+    TAG("Добавление метки"),
+    UNTAG("Снятие метки");
+
+    private final String title; // Название изменения для вывода пользователю
+
+    AuditAction(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Возвращает название изменения для вывода пользователю.
+     *
+     * @return название изменения
+     */
+    public String getTitle() {
+        return title;
+    }
+}
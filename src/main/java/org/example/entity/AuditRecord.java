@@ -0,0 +1,38 @@
+package org.example.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Класс AuditRecord представляет запись журнала изменений задач: кто, когда и как изменил задачу.
+ */
+@Getter
+@Setter
+public class AuditRecord {
+    private long id; // Номер записи журнала (присваивается базой данных)
+    private long taskId; // ID изменённой задачи
+    private AuditAction action; // Вид изменения
+    private String oldValue; // Значение до изменения (null, если не известно или не применимо)
+    private String newValue; // Значение после изменения (null, если не применимо)
+    private String actor; // Кто выполнил изменение
+    private LocalDateTime changedAt; // Когда выполнено изменение
+
+    /**
+     * Возвращает строковое представление записи журнала.
+     *
+     * @return Строка, содержащая информацию о записи журнала.
+     */
+    @Override
+    public String toString() {
+        return "AuditRecord{" +
+                "taskId=" + taskId +
+                ", action=" + action +
+                ", oldValue='" + oldValue + '\'' +
+                ", newValue='" + newValue + '\'' +
+                ", actor='" + actor + '\'' +
+                ", changedAt=" + changedAt +
+                '}';
+    }
+}
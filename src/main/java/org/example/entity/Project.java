@@ -0,0 +1,35 @@
+package org.example.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Класс Project представляет узел дерева проектов (клиент, проект, подпроект).
+ * Он содержит учтённое время задач проекта и всего его поддерева.
+ */
+@Getter
+@Setter
+public class Project {
+    private long id; // Уникальный идентификатор проекта
+    private Long parentId; // Родительский проект (null для корневого проекта)
+    private String name; // Название проекта
+    private long ownSeconds; // Время задач, назначенных непосредственно проекту, в секундах
+    private long totalSeconds; // Время задач проекта вместе со всеми подпроектами, в секундах
+    private int depth; // Глубина проекта в дереве (0 для корневого проекта)
+
+    /**
+     * Возвращает строковое представление проекта.
+     *
+     * @return Строка, содержащая информацию о проекте.
+     */
+    @Override
+    public String toString() {
+        return "Project{" +
+                "id=" + id +
+                ", parentId=" + parentId +
+                ", name='" + name + '\'' +
+                ", ownSeconds=" + ownSeconds +
+                ", totalSeconds=" + totalSeconds +
+                '}';
+    }
+}
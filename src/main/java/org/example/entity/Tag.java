@@ -0,0 +1,29 @@
+package org.example.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Класс Tag представляет метку задач и суммарное время помеченных задач.
+ */
+@Getter
+@Setter
+public class Tag {
+    private long id; // Уникальный идентификатор метки
+    private String name; // Название метки
+    private long totalSeconds; // Время помеченных задач в секундах
+
+    /**
+     * Возвращает строковое представление метки.
+     *
+     * @return Строка, содержащая информацию о метке.
+     */
+    @Override
+    public String toString() {
+        return "Tag{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", totalSeconds=" + totalSeconds +
+                '}';
+    }
+}
@@ -17,7 +17,25 @@ public class Task {
     private LocalDateTime startTime; // Время начала задачи
     private LocalDateTime stopTime; // Время остановки задачи
     private String status; // Статус задачи (например, "Активна", "Остановлена", "Завершена")
+    private Long projectId; // Проект задачи (null, если задача не назначена проекту)
+    private LocalDateTime autoStopAt; // Срок автоматической остановки активной задачи (задаётся при добавлении)
 
+    /**
+     * Создаёт копию задачи, изменение которой не затрагивает исходную задачу.
+     *
+     * @return Копия задачи.
+     */
+    public Task copy() {
+        Task copy = new Task();
+        copy.id = id;
+        copy.name = name;
+        copy.startTime = startTime;
+        copy.stopTime = stopTime;
+        copy.status = status;
+        copy.projectId = projectId;
+        copy.autoStopAt = autoStopAt;
+        return copy;
+    }
 
     /**
      * Возвращает строковое представление задачи.
@@ -32,6 +50,7 @@ public class Task {
                 ", startTime=" + startTime +
                 ", stopTime=" + stopTime +
                 ", status='" + status + '\'' +
+                ", projectId=" + projectId +
                 '}';
     }
 }
\ No newline at end of file
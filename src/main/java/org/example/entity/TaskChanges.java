@@ -0,0 +1,54 @@
+package org.example.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Класс TaskChanges представляет изменения задач после некоторого токена версии.
+ * Клиент применяет изменения к своей копии списка задач и передаёт полученный токен в следующий запрос.
+ */
+@Getter
+@Setter
+public class TaskChanges {
+    private List<Task> changed = new ArrayList<>(); // Добавленные и изменённые задачи
+    private List<Long> deletedIds = new ArrayList<>(); // ID удалённых задач
+    private long token; // Токен версии для следующего запроса
+    private boolean fullResync; // true, если клиент должен очистить свою копию задач перед применением изменений
+    private boolean hasMore; // true, если изменения получены не полностью и нужно запросить следующую порцию
+
+    /**
+     * Создаёт копию изменений с копиями задач и неизменяемыми списками.
+     *
+     * @return Копия изменений.
+     */
+    public TaskChanges copy() {
+        TaskChanges copy = new TaskChanges();
+        copy.changed = Collections.unmodifiableList(changed.stream().map(Task::copy).collect(Collectors.toList()));
+        copy.deletedIds = Collections.unmodifiableList(deletedIds);
+        copy.token = token;
+        copy.fullResync = fullResync;
+        copy.hasMore = hasMore;
+        return copy;
+    }
+
+    /**
+     * Возвращает строковое представление изменений.
+     *
+     * @return Строка, содержащая информацию об изменениях.
+     */
+    @Override
+    public String toString() {
+        return "TaskChanges{" +
+                "changed=" + changed.size() +
+                ", deleted=" + deletedIds.size() +
+                ", token=" + token +
+                ", fullResync=" + fullResync +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
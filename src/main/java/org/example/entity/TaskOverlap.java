@@ -0,0 +1,35 @@
+package org.example.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Класс TaskOverlap представляет пересечение интервалов выполнения двух задач.
+ */
+@Getter
+@Setter
+public class TaskOverlap {
+    private long firstTaskId; // ID первой задачи (меньший из двух)
+    private String firstTaskName; // Название первой задачи
+    private long secondTaskId; // ID второй задачи
+    private String secondTaskName; // Название второй задачи
+    private LocalDateTime start; // Начало пересечения
+    private LocalDateTime end; // Конец пересечения (null, если обе задачи ещё активны)
+
+    /**
+     * Возвращает строковое представление пересечения.
+     *
+     * @return Строка, содержащая информацию о пересечении.
+     */
+    @Override
+    public String toString() {
+        return "TaskOverlap{" +
+                "firstTaskId=" + firstTaskId +
+                ", secondTaskId=" + secondTaskId +
+                ", start=" + start +
+                ", end=" + end +
+                '}';
+    }
+}
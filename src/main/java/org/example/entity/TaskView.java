@@ -0,0 +1,122 @@
+package org.example.entity;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Класс TaskView представляет неизменяемое компактное представление задачи для больших списков.
+ * Время хранится в секундах (локальное время, пересчитанное в UTC без сдвига пояса), статус - кодом,
+ * поэтому на задачу приходится один объект и строка названия вместо пяти-шести объектов {@link Task}.
+ * Объекты LocalDateTime создаются только при обращении к {@link #getStartTime()} и {@link #getStopTime()}.
+ */
+@Getter
+public final class TaskView {
+
+    public static final long NO_STOP = Long.MIN_VALUE; // Время остановки не задано
+    public static final byte ACTIVE = 0;
+    public static final byte STOPPED = 1;
+    public static final byte FINISHED = 2;
+
+    private static final String[] STATUS_NAMES = {"Активна", "Остановлена", "Завершена"};
+
+    private final long id; // Уникальный идентификатор задачи
+    private final String name; // Название задачи
+    private final long startSeconds; // Время начала задачи в секундах
+    private final long stopSeconds; // Время остановки задачи в секундах или NO_STOP
+    private final byte status; // Код статуса задачи (ACTIVE, STOPPED, FINISHED)
+    private final long projectId; // Проект задачи (0, если задача не назначена проекту)
+
+    /**
+     * Конструктор для создания экземпляра TaskView.
+     *
+     * @param id           ID задачи
+     * @param name         название задачи
+     * @param startSeconds время начала в секундах
+     * @param stopSeconds  время остановки в секундах или NO_STOP
+     * @param status       код статуса
+     * @param projectId    ID проекта или 0
+     */
+    public TaskView(long id, String name, long startSeconds, long stopSeconds, byte status, long projectId) {
+        this.id = id;
+        this.name = name;
+        this.startSeconds = startSeconds;
+        this.stopSeconds = stopSeconds;
+        this.status = status;
+        this.projectId = projectId;
+    }
+
+    /**
+     * Возвращает время начала задачи.
+     *
+     * @return время начала
+     */
+    public LocalDateTime getStartTime() {
+        return toLocalDateTime(startSeconds);
+    }
+
+    /**
+     * Возвращает время остановки задачи.
+     *
+     * @return время остановки или null, если оно не задано
+     */
+    public LocalDateTime getStopTime() {
+        return stopSeconds != NO_STOP ? toLocalDateTime(stopSeconds) : null;
+    }
+
+    /**
+     * Возвращает название статуса задачи.
+     *
+     * @return статус задачи (например, "Активна")
+     */
+    public String getStatusName() {
+        return STATUS_NAMES[status];
+    }
+
+    /**
+     * Возвращает код статуса по его названию.
+     *
+     * @param statusName название статуса
+     * @return код статуса
+     * @throws IllegalArgumentException если статус неизвестен
+     */
+    public static byte statusCode(String statusName) {
+        for (byte code = 0; code < STATUS_NAMES.length; code++) {
+            if (STATUS_NAMES[code].equals(statusName)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status: " + statusName);
+    }
+
+    /**
+     * Преобразует локальное время в секунды, в которых время хранится в представлении.
+     *
+     * @param time локальное время
+     * @return время в секундах
+     */
+    public static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toLocalDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Возвращает строковое представление задачи.
+     *
+     * @return Строка, содержащая информацию о задаче.
+     */
+    @Override
+    public String toString() {
+        return "TaskView{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", startTime=" + getStartTime() +
+                ", stopTime=" + getStopTime() +
+                ", status='" + getStatusName() + '\'' +
+                '}';
+    }
+}
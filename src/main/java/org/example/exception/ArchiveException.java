@@ -0,0 +1,15 @@
+package org.example.exception;
+
+/**
+ * Исключение, выбрасываемое, когда задачи не удалось выгрузить в файл архива или прочитать из него.
+ */
+public class ArchiveException extends RuntimeException {
+    /**
+     * Конструктор исключения, принимающий причину сбоя.
+     *
+     * @param cause ошибка ввода-вывода или базы данных
+     */
+    public ArchiveException(Throwable cause) {
+        super(String.format("Ошибка архива задач - %s", cause.getMessage()), cause);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.exception;
+
+/**
+ * Исключение, выбрасываемое, когда операция отклонена из-за перегрузки сервиса.
+ */
+public class TaskRejectedException extends RuntimeException {
+    /**
+     * Конструктор исключения, принимающий название перегруженного отсека.
+     *
+     * @param bulkhead название отсека (чтение, запись или массовые операции), отклонившего операцию
+     */
+    public TaskRejectedException(String bulkhead) {
+        super(String.format("Сервис перегружен, операция отклонена - %s", bulkhead));
+    }
+}
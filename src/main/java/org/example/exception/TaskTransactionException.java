@@ -0,0 +1,15 @@
+package org.example.exception;
+
+/**
+ * Исключение, выбрасываемое, когда транзакция из нескольких операций над задачами не выполнена и откачена.
+ */
+public class TaskTransactionException extends RuntimeException {
+    /**
+     * Конструктор исключения, принимающий причину сбоя.
+     *
+     * @param cause ошибка базы данных, из-за которой транзакция откачена
+     */
+    public TaskTransactionException(Throwable cause) {
+        super(String.format("Транзакция не выполнена - %s", cause.getMessage()), cause);
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR: выполнение одного SQL-запроса DAO.
+ * По умолчанию записываются запросы дольше 10 мс без стека вызовов; пороги задаются в профиле timetracker.jfc.
+ */
+@Name("org.example.DaoStatement")
+@Label("DAO Statement")
+@Description("Execution of a single SQL statement by a DAO")
+@Category({"TimeTracker", "Database"})
+@Threshold("10 ms")
+@StackTrace(false)
+public class DaoStatementEvent extends Event {
+
+    @Label("Operation")
+    @Description("DAO method that executed the statement")
+    public String operation;
+
+    @Label("SQL Kind")
+    @Description("Leading SQL keyword: SELECT, INSERT, UPDATE, DELETE or WITH")
+    public String sqlKind;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Task Id")
+    @Description("Task the statement was executed for, 0 for statements over many tasks")
+    public long taskId;
+
+    @Label("Rows Affected")
+    @Description("Rows changed by an update, -1 for queries and failed statements")
+    public long rowsAffected;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,30 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR: ожидание блокировки из пула блокировок TaskService.
+ * Записывается только при конкурентном захвате: свободная блокировка берётся без события.
+ */
+@Name("org.example.LockWait")
+@Label("Task Lock Wait")
+@Description("Waiting for a contended lock stripe in TaskService")
+@Category({"TimeTracker", "Locks"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class LockWaitEvent extends Event {
+
+    @Label("Stripe")
+    @Description("Index of the lock in the TaskService lock pool")
+    public int stripe;
+
+    @Label("Task Id")
+    @Description("Task the lock was taken for, 0 for bulk operations")
+    public long taskId;
+}
@@ -0,0 +1,31 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Событие JFR: ожидание соединения из пула HikariCP.
+ */
+@Name("org.example.PoolCheckout")
+@Label("Pool Checkout")
+@Description("Waiting for a connection from the HikariCP pool")
+@Category({"TimeTracker", "Database"})
+@Threshold("5 ms")
+@StackTrace(false)
+public class PoolCheckoutEvent extends Event {
+
+    @Label("Threads Awaiting")
+    @Description("Threads waiting for a connection when this checkout completed")
+    public int threadsAwaiting;
+
+    @Label("Pool Size")
+    public int poolSize;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
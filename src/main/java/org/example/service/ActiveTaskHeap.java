@@ -0,0 +1,216 @@
+package org.example.service;
+
+import org.example.entity.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Индексированная двоичная куча активных задач, упорядоченных по времени начала:
+ * в вершине - задача, выполняющаяся дольше всех. Индекс ID -> позиция в куче позволяет удалять
+ * и переименовывать задачу за O(log M) без поиска, где M - количество активных задач.
+ *
+ * <p>Первые N задач читаются за O(N log N) независимо от M: по куче идёт обход в порядке возрастания
+ * с малой вспомогательной очередью позиций-кандидатов, в которую попадают только потомки уже выданных вершин.
+ * Куча заполняется при старте из базы данных и поддерживается сервисом при добавлении, остановке,
+ * завершении, удалении и восстановлении задач. Методы потокобезопасны.
+ */
+public class ActiveTaskHeap {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private LocalDateTime[] starts = new LocalDateTime[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Добавляет активную задачу; если задача уже есть в куче, её данные заменяются.
+     *
+     * @param taskId    ID задачи
+     * @param name      название задачи
+     * @param startTime время начала задачи
+     */
+    public synchronized void add(long taskId, String name, LocalDateTime startTime) {
+        Integer position = positions.get(taskId);
+        if (position != null) {
+            names[position] = name;
+            starts[position] = startTime;
+            restore(position);
+            return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            starts = Arrays.copyOf(starts, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+        }
+        set(size, taskId, name, startTime);
+        siftUp(size++);
+    }
+
+    /**
+     * Удаляет задачу из кучи, например после её остановки.
+     *
+     * @param taskId ID задачи
+     * @return true, если задача была в куче
+     */
+    public synchronized boolean remove(long taskId) {
+        Integer position = positions.remove(taskId);
+        if (position == null) {
+            return false;
+        }
+        int last = --size;
+        if (position != last) {
+            set(position, ids[last], names[last], starts[last]);
+        }
+        starts[last] = null;
+        names[last] = null;
+        if (position != last) {
+            restore(position);
+        }
+        return true;
+    }
+
+    /**
+     * Заменяет название задачи, если она есть в куче.
+     *
+     * @param taskId ID задачи
+     * @param name   новое название
+     */
+    public synchronized void rename(long taskId, String name) {
+        Integer position = positions.get(taskId);
+        if (position != null) {
+            names[position] = name;
+        }
+    }
+
+    /**
+     * Проверяет, есть ли задача в куче.
+     *
+     * @param taskId ID задачи
+     * @return true, если задача есть в куче
+     */
+    public synchronized boolean contains(long taskId) {
+        return positions.containsKey(taskId);
+    }
+
+    /**
+     * Возвращает активные задачи, выполняющиеся дольше всех, в порядке времени начала.
+     *
+     * @param limit максимальное количество задач
+     * @return копии задач со статусом "Активна"
+     */
+    public synchronized List<Task> top(int limit) {
+        List<Task> tasks = new ArrayList<>(Math.min(Math.max(limit, 0), size));
+        PriorityQueue<Integer> candidates = new PriorityQueue<>(this::compare);
+        if (size > 0) {
+            candidates.add(0);
+        }
+        while (tasks.size() < limit && !candidates.isEmpty()) {
+            int position = candidates.poll();
+            Task task = new Task();
+            task.setId(ids[position]);
+            task.setName(names[position]);
+            task.setStartTime(starts[position]);
+            task.setStatus("Активна");
+            tasks.add(task);
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                candidates.add(child);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Возвращает количество задач в куче.
+     *
+     * @return количество активных задач
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Отмечает, что куча заполнена из базы данных. До этого её содержимое неполно.
+     */
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * Проверяет, заполнена ли куча из базы данных.
+     *
+     * @return true, если куча содержит все активные задачи
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private void set(int position, long taskId, String name, LocalDateTime startTime) {
+        ids[position] = taskId;
+        names[position] = name;
+        starts[position] = startTime;
+        positions.put(taskId, position);
+    }
+
+    private void swap(int a, int b) {
+        long taskId = ids[a];
+        String name = names[a];
+        LocalDateTime startTime = starts[a];
+        set(a, ids[b], names[b], starts[b]);
+        set(b, taskId, name, startTime);
+    }
+
+    /**
+     * Восстанавливает порядок кучи после изменения элемента на позиции.
+     */
+    private void restore(int position) {
+        if (position > 0 && compare(position, (position - 1) / 2) < 0) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (compare(position, parent) >= 0) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (compare(child, smallest) < 0) {
+                    smallest = child;
+                }
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    /**
+     * Сравнивает задачи на позициях: раньше начатая задача меньше, при равном начале - задача с меньшим ID.
+     */
+    private int compare(int a, int b) {
+        int result = starts[a].compareTo(starts[b]);
+        return result != 0 ? result : Long.compare(ids[a], ids[b]);
+    }
+}
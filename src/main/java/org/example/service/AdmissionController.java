@@ -0,0 +1,181 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.AppConfig;
+import org.example.exception.TaskRejectedException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Контроль допуска операций к базе данных. Чтение, запись и массовые операции выполняются
+ * в отдельных отсеках, чтобы длинные выборки не вытесняли короткие изменения задач из пула соединений.
+ * Лимит отсека подстраивается по задержке обращений к базе данных, поэтому операция, ожидающая
+ * блокировку задачи, отмечает обращение к базе через {@link Permit#measure}: ожидание блокировки
+ * вызвано не базой данных и не должно снижать лимит.
+ */
+public class AdmissionController {
+
+    private static final Logger logger = LogManager.getLogger(AdmissionController.class);
+
+    /**
+     * Вид работы, определяющий отсек, в котором выполняется операция.
+     */
+    public enum WorkType {
+        READ, WRITE, BULK
+    }
+
+    private static final int DEFAULT_POOL_SIZE = 10; // Размер пула соединений, если DB_POOL_SIZE не задан
+
+    private final Map<WorkType, Bulkhead> bulkheads = new EnumMap<>(WorkType.class);
+
+    /**
+     * Конструктор для создания экземпляра AdmissionController.
+     *
+     * @param read  отсек для чтения
+     * @param write отсек для изменения отдельных задач
+     * @param bulk  отсек для массовых операций и отчётов
+     */
+    public AdmissionController(Bulkhead read, Bulkhead write, Bulkhead bulk) {
+        bulkheads.put(WorkType.READ, read);
+        bulkheads.put(WorkType.WRITE, write);
+        bulkheads.put(WorkType.BULK, bulk);
+    }
+
+    /**
+     * Создаёт контроль допуска с настройками из переменных окружения
+     * ADMISSION_{READ|WRITE|BULK}_MAX_LIMIT, ADMISSION_{...}_QUEUE и ADMISSION_{...}_WAIT_MS.
+     * Максимальные лимиты по умолчанию делят пул из DB_POOL_SIZE соединений без пересечения:
+     * одно соединение остаётся фоновым задачам (архивации, очистке, журналу изменений),
+     * из остальных десятая часть (не меньше одного) отдаётся массовым операциям, треть оставшихся - чтению,
+     * остальное - изменениям задач. Для пула из 10 соединений это 3 / 5 / 1.
+     *
+     * @return контроль допуска
+     */
+    public static AdmissionController fromEnvironment() {
+        int available = Math.max(3, AppConfig.getInt("DB_POOL_SIZE", DEFAULT_POOL_SIZE) - 1);
+        int bulk = Math.max(1, available / 10);
+        int read = Math.max(1, (available - bulk + 1) / 3);
+        int write = available - bulk - read;
+        return new AdmissionController(
+                bulkheadFromEnvironment(WorkType.READ, (read + 1) / 2, 1, read, 64, 200),
+                bulkheadFromEnvironment(WorkType.WRITE, (write + 1) / 2, 1, write, 128, 500),
+                bulkheadFromEnvironment(WorkType.BULK, 1, 1, bulk, 8, 2000));
+    }
+
+    private static Bulkhead bulkheadFromEnvironment(WorkType type, int initialLimit, int minLimit, int maxLimit,
+                                                    int maxQueue, long maxWaitMs) {
+        String prefix = "ADMISSION_" + type.name() + "_";
+        int max = AppConfig.getInt(prefix + "MAX_LIMIT", maxLimit);
+        return new Bulkhead(type.name(), Math.min(initialLimit, max), Math.min(minLimit, max), max,
+                AppConfig.getInt(prefix + "QUEUE", maxQueue),
+                AppConfig.getLong(prefix + "WAIT_MS", maxWaitMs),
+                2.0, 0.9);
+    }
+
+    /**
+     * Выполняет в отсеке указанного вида операцию, целиком состоящую из обращения к базе данных.
+     *
+     * @param type вид работы
+     * @param work операция
+     * @param <T>  тип результата операции
+     * @return результат операции
+     * @throws TaskRejectedException если отсек перегружен и операция отклонена
+     */
+    public <T> T call(WorkType type, Supplier<T> work) {
+        return call(type, permit -> permit.measure(work));
+    }
+
+    /**
+     * Выполняет операцию в отсеке указанного вида. Задержкой операции для подстройки лимита считается
+     * время обращений к базе данных, отмеченных через {@link Permit#measure}; если операция их не отмечала -
+     * всё время операции за вычетом ожидания, переданного в {@link Permit#exclude}.
+     *
+     * @param type вид работы
+     * @param work операция, получающая допуск
+     * @param <T>  тип результата операции
+     * @return результат операции
+     * @throws TaskRejectedException если отсек перегружен и операция отклонена
+     */
+    public <T> T call(WorkType type, Function<Permit, T> work) {
+        Bulkhead bulkhead = bulkheads.get(type);
+        if (!bulkhead.acquire()) {
+            logger.warn("Operation rejected by admission control: {}", bulkhead);
+            throw new TaskRejectedException(bulkhead.getName());
+        }
+        Permit permit = new Permit();
+        long start = System.nanoTime();
+        try {
+            return work.apply(permit);
+        } finally {
+            bulkhead.release(permit.rttNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Допуск операции в отсек: отмечает, какая часть операции приходится на обращения к базе данных.
+     * Используется только потоком, выполняющим операцию.
+     */
+    public static final class Permit {
+
+        private long measuredNanos;
+        private boolean measured;
+        private long excludedNanos;
+
+        private Permit() {
+        }
+
+        /**
+         * Выполняет обращение к базе данных и учитывает его время в задержке операции.
+         *
+         * @param databaseCall обращение к базе данных
+         * @param <R>          тип результата
+         * @return результат обращения
+         */
+        public <R> R measure(Supplier<R> databaseCall) {
+            long start = System.nanoTime();
+            try {
+                return databaseCall.get();
+            } finally {
+                measuredNanos += System.nanoTime() - start;
+                measured = true;
+            }
+        }
+
+        /**
+         * Исключает из задержки операции ожидание, не связанное с базой данных (например, блокировки задачи).
+         *
+         * @param nanos время ожидания в наносекундах
+         */
+        public void exclude(long nanos) {
+            excludedNanos += nanos;
+        }
+
+        private long rttNanos(long elapsedNanos) {
+            return measured ? measuredNanos : Math.max(0, elapsedNanos - excludedNanos);
+        }
+    }
+
+    /**
+     * Возвращает отсек указанного вида.
+     *
+     * @param type вид работы
+     * @return отсек
+     */
+    public Bulkhead getBulkhead(WorkType type) {
+        return bulkheads.get(type);
+    }
+
+    /**
+     * Возвращает строковое представление состояния всех отсеков.
+     *
+     * @return Строка с состоянием отсеков.
+     */
+    @Override
+    public String toString() {
+        return "AdmissionController" + bulkheads.values();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.archive.ArchiveStore;
+import org.example.archive.ArchiveTotals;
+import org.example.archive.ArchiveWriter;
+import org.example.dao.TaskDAO;
+import org.example.exception.ArchiveException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Сервис файлового архива задач. Задачи, которые фоновый архиватор перенёс в tasks_archive,
+ * выгружаются за закрытый период в неизменяемый сжатый столбцовый файл и удаляются из базы.
+ * Итоги за прошлые периоды затем вычисляются по файлам без обращения к базе данных.
+ */
+public class ArchiveService {
+
+    private static final Logger logger = LogManager.getLogger(ArchiveService.class);
+
+    private final TaskDAO taskDAO;
+    private final ArchiveStore archiveStore;
+
+    /**
+     * Конструктор для создания экземпляра ArchiveService.
+     *
+     * @param taskDAO      DAO для работы с задачами
+     * @param archiveStore каталог файлов архива
+     */
+    public ArchiveService(TaskDAO taskDAO, ArchiveStore archiveStore) {
+        this.taskDAO = taskDAO;
+        this.archiveStore = archiveStore;
+        logger.info("ArchiveService initialized");
+    }
+
+    /**
+     * Выгружает в файл архивные задачи, начатые в течение периода [from, to).
+     * Файл публикуется только после удаления задач из базы, поэтому задача не учитывается дважды:
+     * если удаление не зафиксировано, файл удаляется, а если приложение остановилось до публикации,
+     * задачи остаются в неопубликованном файле с расширением .tmp.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return количество выгруженных задач
+     * @throws IllegalArgumentException если начало периода не раньше его конца
+     * @throws ArchiveException         если файл не удалось записать или задачи не удалось удалить из базы
+     */
+    public int exportArchive(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Period start must be before its end");
+        }
+        ArchiveWriter writer = new ArchiveWriter(from, to);
+        Path pending = null;
+        try {
+            Path file = archiveStore.newFile(from, to);
+            pending = file;
+            boolean exported = taskDAO.exportArchivedTasks(from, to, writer::add, () -> {
+                if (writer.size() == 0) {
+                    return true;
+                }
+                try {
+                    writer.writeTo(file);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!exported) {
+                throw new ArchiveException(new IllegalStateException("задачи не удалены из базы данных"));
+            }
+            // Задачи удалены из базы: с этого момента файл - единственная их копия и не удаляется
+            pending = null;
+            if (writer.size() > 0) {
+                logger.info("Exported {} archived tasks to {}", writer.size(), archiveStore.publish(file));
+            }
+            return writer.size();
+        } catch (IOException | UncheckedIOException e) {
+            throw new ArchiveException(e);
+        } finally {
+            deletePending(pending);
+        }
+    }
+
+    /**
+     * Вычисляет итоги задач, выгруженных в файлы архива, внутри периода [from, to).
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return итоги по файлам архива
+     * @throws IllegalArgumentException если начало периода не раньше его конца
+     * @throws ArchiveException         если файл архива не удалось прочитать
+     */
+    public ArchiveTotals getArchiveTotals(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Period start must be before its end");
+        }
+        try {
+            return archiveStore.totals(from, to);
+        } catch (IOException e) {
+            throw new ArchiveException(e);
+        }
+    }
+
+    private void deletePending(Path pending) {
+        if (pending == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(pending);
+        } catch (IOException e) {
+            logger.warn("Could not delete unpublished archive file {}", pending, e);
+        }
+    }
+}
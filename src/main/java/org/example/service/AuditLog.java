@@ -0,0 +1,306 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.AppConfig;
+import org.example.dao.AuditDAO;
+import org.example.entity.AuditAction;
+import org.example.entity.AuditRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронный журнал изменений задач. Операции сервиса только помещают запись в ограниченную очередь в памяти,
+ * а фоновый поток записывает накопившиеся записи в task_audit пакетами: чем выше нагрузка, тем крупнее пакет,
+ * и запись журнала не добавляет обращений к базе на пути запроса.
+ *
+ * <p>Запись становится сохранённой после записи её пакета. Если очередь заполнена (база недоступна
+ * или не успевает), операция ждёт свободного места не дольше заданного времени, после чего запись
+ * отбрасывается с ошибкой в логе: журнал не блокирует изменение задач. Пакет, запись которого не удалась,
+ * повторяется, пока журнал не закрыт. При закрытии оставшиеся записи либо дописываются
+ * в пределах заданного времени ({@link ShutdownMode#FLUSH}), либо отбрасываются ({@link ShutdownMode#DROP}).
+ */
+public class AuditLog implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(AuditLog.class);
+
+    // Задержка повторной записи пакета после ошибки базы данных
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    // Как часто поток записи проверяет, не закрыт ли журнал, когда очередь пуста
+    private static final long POLL_MILLIS = 200;
+
+    /**
+     * Что делать с записями, оставшимися в очереди при закрытии журнала.
+     */
+    public enum ShutdownMode {
+        FLUSH, // дописать в базу, ожидая не дольше времени закрытия
+        DROP // отбросить, не задерживая остановку приложения
+    }
+
+    private final AuditDAO auditDAO;
+    private final String actor;
+    private final BlockingQueue<AuditRecord> queue;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final ShutdownMode shutdownMode;
+    private final Duration shutdownTimeout;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Количество принятых в очередь записей и записей, обработанных потоком записи (сохранённых или потерянных)
+    private final Object progress = new Object();
+    private long accepted;
+    private long completed;
+
+    private volatile boolean started;
+    private volatile boolean closed;
+    private volatile long giveUpAt; // System.nanoTime(), после которого закрываемый журнал не повторяет запись
+
+    /**
+     * Конструктор для создания экземпляра AuditLog.
+     *
+     * @param auditDAO        DAO журнала изменений
+     * @param actor           кто выполняет изменения (записывается в каждую запись)
+     * @param capacity        максимальное количество записей в очереди
+     * @param batchSize       максимальное количество записей в одном пакете
+     * @param offerTimeout    сколько операция ждёт места в заполненной очереди
+     * @param shutdownMode    что делать с оставшимися записями при закрытии
+     * @param shutdownTimeout сколько закрытие ждёт записи оставшихся записей
+     */
+    public AuditLog(AuditDAO auditDAO, String actor, int capacity, int batchSize, Duration offerTimeout,
+                    ShutdownMode shutdownMode, Duration shutdownTimeout) {
+        this.auditDAO = auditDAO;
+        this.actor = actor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.shutdownMode = shutdownMode;
+        this.shutdownTimeout = shutdownTimeout;
+        this.writer = new Thread(this::run, "task-audit");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Создаёт журнал с настройками из переменных окружения AUDIT_ACTOR (по умолчанию - пользователь ОС),
+     * AUDIT_QUEUE_SIZE, AUDIT_BATCH_SIZE, AUDIT_OFFER_TIMEOUT_MS, AUDIT_SHUTDOWN (flush или drop)
+     * и AUDIT_SHUTDOWN_TIMEOUT_MS.
+     *
+     * @param auditDAO DAO журнала изменений
+     * @return журнал изменений задач
+     */
+    public static AuditLog fromEnvironment(AuditDAO auditDAO) {
+        return new AuditLog(
+                auditDAO,
+                AppConfig.getString("AUDIT_ACTOR", System.getProperty("user.name", "unknown")),
+                AppConfig.getInt("AUDIT_QUEUE_SIZE", 10_000),
+                AppConfig.getInt("AUDIT_BATCH_SIZE", 500),
+                Duration.ofMillis(AppConfig.getLong("AUDIT_OFFER_TIMEOUT_MS", 100)),
+                ShutdownMode.valueOf(AppConfig.getString("AUDIT_SHUTDOWN", "flush").trim().toUpperCase(Locale.ROOT)),
+                Duration.ofMillis(AppConfig.getLong("AUDIT_SHUTDOWN_TIMEOUT_MS", 5000)));
+    }
+
+    /**
+     * Запускает фоновую запись журнала в базу данных. До запуска записи только накапливаются в очереди.
+     */
+    public synchronized void start() {
+        if (started || closed) {
+            return;
+        }
+        writer.start();
+        started = true;
+        logger.info("AuditLog started: actor {}, queue {}, batch {}, shutdown {}",
+                actor, queue.remainingCapacity() + queue.size(), batchSize, shutdownMode);
+    }
+
+    /**
+     * Помещает запись об изменении задачи в очередь журнала.
+     *
+     * @param taskId   ID задачи
+     * @param action   вид изменения
+     * @param oldValue значение до изменения или null
+     * @param newValue значение после изменения или null
+     */
+    public void record(long taskId, AuditAction action, String oldValue, String newValue) {
+        AuditRecord record = new AuditRecord();
+        record.setTaskId(taskId);
+        record.setAction(action);
+        record.setOldValue(oldValue);
+        record.setNewValue(newValue);
+        record.setActor(actor);
+        record.setChangedAt(LocalDateTime.now());
+        if (closed) {
+            drop(record, "audit log is closed");
+            return;
+        }
+
+        boolean offered;
+        try {
+            offered = started ? queue.offer(record, offerTimeout.toMillis(), TimeUnit.MILLISECONDS) : queue.offer(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if (!offered) {
+            drop(record, "audit queue is full");
+            return;
+        }
+        synchronized (progress) {
+            accepted++;
+        }
+    }
+
+    /**
+     * Ждёт записи в базу всех записей, принятых в очередь до вызова.
+     *
+     * @param timeout максимальное время ожидания
+     * @return true, если записи сохранены или потеряны с ошибкой в логе; false, если время ожидания истекло
+     */
+    public boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            long target = accepted;
+            while (completed < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !started) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Возвращает количество записей, ожидающих записи в базу.
+     *
+     * @return размер очереди
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * Возвращает количество потерянных записей: отброшенных при заполненной очереди, после закрытия журнала
+     * или не записанных до истечения времени закрытия.
+     *
+     * @return количество потерянных записей
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Цикл потока записи: забирает из очереди всё накопившееся (не больше размера пакета) и записывает одним пакетом.
+     */
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            AuditRecord first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            if (!write(batch)) {
+                break;
+            }
+            batch.clear();
+        }
+        logger.info("Audit writer stopped, {} records dropped in total", dropped.get());
+    }
+
+    /**
+     * Записывает пакет, повторяя запись после ошибок базы данных.
+     *
+     * @return false, если поток записи прерван и должен завершиться
+     */
+    private boolean write(List<AuditRecord> batch) {
+        while (!auditDAO.insertRecords(batch)) {
+            if (closed && System.nanoTime() - giveUpAt >= 0) {
+                logger.error("Audit log closed, {} unwritten records lost", batch.size());
+                dropped.addAndGet(batch.size());
+                complete(batch.size());
+                return true;
+            }
+            try {
+                Thread.sleep(RETRY_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                logger.error("Audit writer interrupted, {} unwritten records lost", batch.size());
+                dropped.addAndGet(batch.size());
+                complete(batch.size());
+                return false;
+            }
+        }
+        complete(batch.size());
+        return true;
+    }
+
+    private void complete(int count) {
+        synchronized (progress) {
+            completed += count;
+            progress.notifyAll();
+        }
+    }
+
+    private void drop(AuditRecord record, String reason) {
+        dropped.incrementAndGet();
+        logger.error("Audit record dropped ({}): {}", reason, record);
+    }
+
+    /**
+     * Закрывает журнал: новые записи больше не принимаются, а оставшиеся в очереди
+     * дописываются или отбрасываются в соответствии с режимом закрытия. Повторный вызов ничего не делает.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            giveUpAt = System.nanoTime() + shutdownTimeout.toNanos();
+            closed = true;
+        }
+        if (shutdownMode == ShutdownMode.DROP) {
+            List<AuditRecord> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            if (!rest.isEmpty()) {
+                logger.warn("Audit log closed in drop mode, {} queued records discarded", rest.size());
+                dropped.addAndGet(rest.size());
+                complete(rest.size());
+            }
+        }
+        if (!started) {
+            return;
+        }
+        try {
+            writer.join(shutdownTimeout.toMillis() + RETRY_DELAY.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            logger.error("Audit writer did not finish in {}, {} queued records lost", shutdownTimeout, queue.size());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.AppConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Автоматическая остановка забытых активных задач. Каждой активной задаче назначается срок остановки:
+ * не позже максимальной длительности от начала и не позже ближайшего ежедневного времени отсечки.
+ * Сроки хранятся в памяти в {@link HashedTimingWheel}, поэтому таблица задач не опрашивается:
+ * раз в тик колесо возвращает задачи с наступившим сроком, и они останавливаются порциями.
+ *
+ * <p>Колесо не переживает перезапуск, поэтому при старте сроки загружаются из столбца auto_stop_at,
+ * а остановка выставляет задаче время остановки, равное её сроку, даже если срок наступил во время простоя.
+ */
+public class AutoStopScheduler implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(AutoStopScheduler.class);
+
+    // Задержка повторной попытки для порции, остановка которой была отклонена
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final Duration maxDuration;
+    private final LocalTime cutoff;
+    private final Duration tick;
+    private final int batchSize;
+    private final HashedTimingWheel wheel;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Конструктор для создания экземпляра AutoStopScheduler.
+     *
+     * @param maxDuration максимальная длительность активной задачи или null, если она не ограничена
+     * @param cutoff      ежедневное время остановки активных задач или null, если оно не задано
+     * @param tick        точность срабатывания сроков
+     * @param wheelSize   количество корзин колеса таймеров
+     * @param batchSize   максимальное количество задач, останавливаемых одним запросом
+     */
+    public AutoStopScheduler(Duration maxDuration, LocalTime cutoff, Duration tick, int wheelSize, int batchSize) {
+        this.maxDuration = maxDuration;
+        this.cutoff = cutoff;
+        this.tick = tick;
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimingWheel(tick, wheelSize, System.currentTimeMillis());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-auto-stop");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Создаёт автоматическую остановку с настройками из переменных окружения
+     * AUTO_STOP_MAX_HOURS, AUTO_STOP_CUTOFF, AUTO_STOP_TICK_MS, AUTO_STOP_WHEEL_SIZE и AUTO_STOP_BATCH_SIZE.
+     * По умолчанию активная задача останавливается через 12 часов, время отсечки не задано.
+     *
+     * @return автоматическая остановка задач
+     */
+    public static AutoStopScheduler fromEnvironment() {
+        long maxHours = AppConfig.getLong("AUTO_STOP_MAX_HOURS", 12);
+        String cutoff = AppConfig.getString("AUTO_STOP_CUTOFF", "").trim();
+        return new AutoStopScheduler(
+                maxHours > 0 ? Duration.ofHours(maxHours) : null,
+                cutoff.isEmpty() ? null : LocalTime.parse(cutoff),
+                Duration.ofMillis(AppConfig.getLong("AUTO_STOP_TICK_MS", 1000)),
+                AppConfig.getInt("AUTO_STOP_WHEEL_SIZE", 4096),
+                AppConfig.getInt("AUTO_STOP_BATCH_SIZE", 500));
+    }
+
+    /**
+     * Вычисляет срок остановки задачи по её времени начала.
+     *
+     * @param startTime время начала задачи
+     * @return ближайший из сроков по длительности и по времени отсечки или null, если ни один не задан
+     */
+    public LocalDateTime deadlineFor(LocalDateTime startTime) {
+        LocalDateTime deadline = maxDuration != null ? startTime.plus(maxDuration) : null;
+        if (cutoff != null) {
+            LocalDateTime cutoffTime = startTime.toLocalDate().atTime(cutoff);
+            if (!cutoffTime.isAfter(startTime)) {
+                cutoffTime = cutoffTime.plusDays(1);
+            }
+            if (deadline == null || cutoffTime.isBefore(deadline)) {
+                deadline = cutoffTime;
+            }
+        }
+        return deadline;
+    }
+
+    /**
+     * Назначает задаче срок остановки, заменяя прежний.
+     *
+     * @param taskId   ID задачи
+     * @param deadline срок остановки
+     */
+    public void schedule(long taskId, LocalDateTime deadline) {
+        wheel.schedule(taskId, toMillis(deadline));
+    }
+
+    /**
+     * Отменяет срок остановки задачи, например после её остановки пользователем.
+     *
+     * @param taskId ID задачи
+     */
+    public void cancel(long taskId) {
+        wheel.cancel(taskId);
+    }
+
+    /**
+     * Запускает продвижение колеса раз в тик.
+     *
+     * @param stopper останавливает порцию задач с наступившим сроком
+     */
+    public void start(Consumer<List<Long>> stopper) {
+        scheduler.scheduleAtFixedRate(() -> fire(System.currentTimeMillis(), stopper),
+                tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("AutoStopScheduler started: max duration {}, cutoff {}, {} deadlines pending",
+                maxDuration, cutoff, wheel.size());
+    }
+
+    /**
+     * Продвигает колесо до указанного времени и передаёт задачи с наступившим сроком порциями.
+     * Порция, остановка которой завершилась исключением (операция отклонена или база данных недоступна),
+     * назначается повторно через несколько секунд.
+     *
+     * @param nowMillis текущее время в миллисекундах
+     * @param stopper   останавливает порцию задач
+     * @return количество задач с наступившим сроком
+     */
+    int fire(long nowMillis, Consumer<List<Long>> stopper) {
+        List<Long> expired = wheel.advance(nowMillis);
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                stopper.accept(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Auto-stop of {} tasks failed, retrying in {}: {}", batch.size(), RETRY_DELAY, e.getMessage());
+                for (long taskId : batch) {
+                    wheel.schedule(taskId, nowMillis + RETRY_DELAY.toMillis());
+                }
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Возвращает колесо таймеров (для статистики).
+     *
+     * @return колесо таймеров
+     */
+    public HashedTimingWheel getWheel() {
+        return wheel;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Останавливает продвижение колеса.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отсек (bulkhead) с адаптивным лимитом одновременно выполняемых операций и ограниченной очередью ожидания.
+ * Лимит подбирается по схеме AIMD: пока задержка операций близка к минимальной наблюдаемой,
+ * лимит растёт на единицу за "окно" из limit операций; когда задержка превышает минимальную
+ * в tolerance раз, лимит умножается на backoff (не чаще одного раза за окно).
+ */
+public class Bulkhead {
+
+    private static final int BASELINE_WINDOW = 1000; // Через сколько замеров минимальная задержка измеряется заново
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final double tolerance;
+    private final double backoff;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long minRtt = Long.MAX_VALUE;
+    private int samplesSinceBaseline;
+    private int samplesSinceDecrease;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Конструктор для создания экземпляра Bulkhead.
+     *
+     * @param name         название отсека для журналов и статистики
+     * @param initialLimit начальный лимит одновременно выполняемых операций
+     * @param minLimit     минимальный лимит
+     * @param maxLimit     максимальный лимит
+     * @param maxQueue     максимальное количество операций, ожидающих допуска
+     * @param maxWaitMs    максимальное время ожидания допуска в миллисекундах
+     * @param tolerance    во сколько раз задержка может превышать минимальную без снижения лимита
+     * @param backoff      множитель снижения лимита при перегрузке
+     */
+    public Bulkhead(String name, int initialLimit, int minLimit, int maxLimit, int maxQueue, long maxWaitMs,
+                    double tolerance, double backoff) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits for bulkhead " + name);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Запрашивает допуск операции. Если лимит исчерпан, операция ждёт в очереди;
+     * при переполненной очереди или истечении времени ожидания операция отклоняется.
+     *
+     * @return true, если операция допущена, false, если отклонена
+     */
+    public boolean acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                return admit();
+            }
+            if (waiting >= maxQueue) {
+                return reject();
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return reject();
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                return admit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return reject();
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Освобождает место в отсеке и корректирует лимит по задержке завершённой операции.
+     *
+     * @param rttNanos задержка операции в наносекундах
+     */
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit / 2;
+            inFlight--;
+            int before = (int) limit;
+            adjustLimit(rttNanos, saturated);
+            if ((int) limit > before) {
+                available.signalAll();
+            } else {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjustLimit(long rttNanos, boolean saturated) {
+        if (++samplesSinceBaseline >= BASELINE_WINDOW) {
+            // Периодически забываем минимум, чтобы подстроиться под изменившуюся нагрузку на базу данных
+            minRtt = rttNanos;
+            samplesSinceBaseline = 0;
+        } else {
+            minRtt = Math.min(minRtt, rttNanos);
+        }
+        samplesSinceDecrease++;
+
+        if (rttNanos > minRtt * tolerance) {
+            if (samplesSinceDecrease >= limit) {
+                limit = Math.max(minLimit, limit * backoff);
+                samplesSinceDecrease = 0;
+            }
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private boolean admit() {
+        inFlight++;
+        admitted.increment();
+        return true;
+    }
+
+    private boolean reject() {
+        rejected.increment();
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Возвращает текущий лимит одновременно выполняемых операций.
+     *
+     * @return текущий лимит
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Возвращает строковое представление состояния отсека.
+     *
+     * @return Строка с лимитом, количеством выполняемых и ожидающих операций и счётчиками.
+     */
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return name + "{limit=" + (int) limit +
+                    ", inFlight=" + inFlight +
+                    ", waiting=" + waiting +
+                    ", admitted=" + admitted.sum() +
+                    ", rejected=" + rejected.sum() +
+                    '}';
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Хешированное колесо таймеров для сроков, привязанных к ID задач.
+ * Время делится на тики, колесо состоит из wheelSize корзин, и срок попадает в корзину
+ * номер своего тика по модулю размера колеса. При продвижении времени просматривается только корзина
+ * наступившего тика, а сроки из следующих оборотов колеса в ней пропускаются.
+ * Поэтому добавление и отмена срока выполняются за O(1), а продвижение на один тик - за размер корзины.
+ *
+ * <p>Сроки хранятся в параллельных массивах примитивов со списками корзин на индексах слотов,
+ * а ID ищутся в хеш-таблице с открытой адресацией. На один срок приходится порядка 50 байт
+ * без отдельных объектов, что позволяет держать в памяти миллионы сроков.
+ *
+ * <p>Срок никогда не срабатывает раньше себя: он возвращается из {@link #advance(long)},
+ * когда время достигло начала следующего за сроком тика. Методы потокобезопасны.
+ */
+public class HashedTimingWheel {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long tickMillis;
+    private final int mask;
+    private final int[] buckets;
+    private long currentTick;
+
+    // Слоты сроков: ID задачи, номер тика срабатывания и связи внутри корзины
+    private long[] slotIds = new long[INITIAL_CAPACITY];
+    private long[] slotTicks = new long[INITIAL_CAPACITY];
+    private int[] slotNext = new int[INITIAL_CAPACITY];
+    private int[] slotPrev = new int[INITIAL_CAPACITY];
+    private int slotsUsed;
+    private int freeSlot = NONE;
+    private int size;
+
+    // Индекс ID -> слот: открытая адресация с линейным пробированием, заполнение не больше половины
+    private long[] indexKeys = new long[INITIAL_CAPACITY * 2];
+    private int[] indexSlots = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * Конструктор для создания экземпляра HashedTimingWheel.
+     *
+     * @param tick      длительность тика; сроки срабатывают с точностью до тика
+     * @param wheelSize количество корзин, округляется вверх до степени двойки
+     * @param nowMillis текущее время в миллисекундах
+     */
+    public HashedTimingWheel(Duration tick, int wheelSize, long nowMillis) {
+        if (tick.toMillis() <= 0 || wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid timing wheel tick " + tick + " or size " + wheelSize);
+        }
+        this.tickMillis = tick.toMillis();
+        int bucketCount = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.mask = bucketCount - 1;
+        this.buckets = new int[bucketCount];
+        Arrays.fill(buckets, NONE);
+        Arrays.fill(indexSlots, NONE);
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Назначает срок для ID; прежний срок этого ID заменяется.
+     * Срок в прошлом срабатывает при следующем продвижении времени.
+     *
+     * @param id             ID задачи
+     * @param deadlineMillis срок в миллисекундах
+     */
+    public synchronized void schedule(long id, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        int slot = findSlot(id);
+        if (slot != NONE) {
+            unlink(slot);
+        } else {
+            slot = allocateSlot();
+            slotIds[slot] = id;
+            indexPut(id, slot);
+            size++;
+        }
+        slotTicks[slot] = tick;
+        link(slot);
+    }
+
+    /**
+     * Отменяет срок для ID.
+     *
+     * @param id ID задачи
+     * @return true, если срок был назначен
+     */
+    public synchronized boolean cancel(long id) {
+        int slot = findSlot(id);
+        if (slot == NONE) {
+            return false;
+        }
+        remove(slot);
+        return true;
+    }
+
+    /**
+     * Проверяет, назначен ли срок для ID.
+     *
+     * @param id ID задачи
+     * @return true, если срок назначен и ещё не сработал
+     */
+    public synchronized boolean contains(long id) {
+        return findSlot(id) != NONE;
+    }
+
+    /**
+     * Продвигает время и возвращает ID, сроки которых наступили. Сработавшие сроки удаляются из колеса.
+     * Если время ушло вперёд больше чем на оборот колеса, все корзины просматриваются один раз.
+     *
+     * @param nowMillis текущее время в миллисекундах
+     * @return ID со сработавшими сроками
+     */
+    public synchronized List<Long> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<Long> expired = new ArrayList<>();
+        if (targetTick - currentTick > mask) {
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                expireBucket(bucket, targetTick, expired);
+            }
+        } else {
+            for (long tick = currentTick + 1; tick <= targetTick; tick++) {
+                expireBucket((int) (tick & mask), tick, expired);
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    /**
+     * Возвращает количество назначенных сроков.
+     *
+     * @return количество сроков
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "HashedTimingWheel{size=" + size +
+                ", buckets=" + buckets.length +
+                ", tickMillis=" + tickMillis +
+                '}';
+    }
+
+    private void expireBucket(int bucket, long upToTick, List<Long> expired) {
+        int slot = buckets[bucket];
+        while (slot != NONE) {
+            int next = slotNext[slot];
+            if (slotTicks[slot] <= upToTick) {
+                expired.add(slotIds[slot]);
+                remove(slot);
+            }
+            slot = next;
+        }
+    }
+
+    private void link(int slot) {
+        int bucket = (int) (slotTicks[slot] & mask);
+        int head = buckets[bucket];
+        slotPrev[slot] = NONE;
+        slotNext[slot] = head;
+        if (head != NONE) {
+            slotPrev[head] = slot;
+        }
+        buckets[bucket] = slot;
+    }
+
+    private void unlink(int slot) {
+        int prev = slotPrev[slot];
+        int next = slotNext[slot];
+        if (prev != NONE) {
+            slotNext[prev] = next;
+        } else {
+            buckets[(int) (slotTicks[slot] & mask)] = next;
+        }
+        if (next != NONE) {
+            slotPrev[next] = prev;
+        }
+    }
+
+    private void remove(int slot) {
+        unlink(slot);
+        indexRemove(slotIds[slot]);
+        slotNext[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = slotNext[slot];
+            return slot;
+        }
+        if (slotsUsed == slotIds.length) {
+            int capacity = slotIds.length * 2;
+            slotIds = Arrays.copyOf(slotIds, capacity);
+            slotTicks = Arrays.copyOf(slotTicks, capacity);
+            slotNext = Arrays.copyOf(slotNext, capacity);
+            slotPrev = Arrays.copyOf(slotPrev, capacity);
+        }
+        return slotsUsed++;
+    }
+
+    private int indexOf(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (indexKeys.length - 1);
+    }
+
+    private int findSlot(long id) {
+        int indexMask = indexKeys.length - 1;
+        for (int i = indexOf(id); indexSlots[i] != NONE; i = (i + 1) & indexMask) {
+            if (indexKeys[i] == id) {
+                return indexSlots[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void indexPut(long id, int slot) {
+        if ((size + 1) * 2 > indexKeys.length) {
+            rehash(indexKeys.length * 2);
+        }
+        int indexMask = indexKeys.length - 1;
+        int i = indexOf(id);
+        while (indexSlots[i] != NONE) {
+            i = (i + 1) & indexMask;
+        }
+        indexKeys[i] = id;
+        indexSlots[i] = slot;
+    }
+
+    /**
+     * Удаляет ID из индекса со сдвигом следующих записей цепочки назад, чтобы поиск не прерывался на дыре.
+     */
+    private void indexRemove(long id) {
+        int indexMask = indexKeys.length - 1;
+        int hole = indexOf(id);
+        while (indexKeys[hole] != id || indexSlots[hole] == NONE) {
+            hole = (hole + 1) & indexMask;
+        }
+        for (int i = (hole + 1) & indexMask; indexSlots[i] != NONE; i = (i + 1) & indexMask) {
+            int home = indexOf(indexKeys[i]);
+            // Запись можно перенести в дыру, если её исходная позиция не лежит между дырой и ней самой
+            if (((i - home) & indexMask) >= ((i - hole) & indexMask)) {
+                indexKeys[hole] = indexKeys[i];
+                indexSlots[hole] = indexSlots[i];
+                hole = i;
+            }
+        }
+        indexSlots[hole] = NONE;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = indexKeys;
+        int[] oldSlots = indexSlots;
+        indexKeys = new long[capacity];
+        indexSlots = new int[capacity];
+        Arrays.fill(indexSlots, NONE);
+        int indexMask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != NONE) {
+                int j = indexOf(oldKeys[i]);
+                while (indexSlots[j] != NONE) {
+                    j = (j + 1) & indexMask;
+                }
+                indexKeys[j] = oldKeys[i];
+                indexSlots[j] = oldSlots[i];
+            }
+        }
+    }
+}
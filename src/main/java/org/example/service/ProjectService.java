@@ -0,0 +1,122 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.dao.ProjectDAO;
+import org.example.entity.Project;
+import org.example.entity.Tag;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Сервис для работы с деревом проектов и метками задач.
+ * Учтённое время проекта включает все его подпроекты и обновляется при остановке,
+ * завершении, переназначении и удалении задач; время активных задач учитывается после их остановки.
+ */
+public class ProjectService {
+
+    private ProjectDAO projectDAO;
+    private TaskService taskService;
+    private static final Logger logger = LogManager.getLogger(ProjectService.class);
+
+    /**
+     * Конструктор для создания экземпляра ProjectService.
+     *
+     * @param projectDAO  DAO для работы с проектами и метками
+     * @param taskService сервис задач, через который изменяются проект и метки задачи
+     */
+    public ProjectService(ProjectDAO projectDAO, TaskService taskService) {
+        this.projectDAO = projectDAO;
+        this.taskService = taskService;
+        logger.info("ProjectService initialized");
+    }
+
+    /**
+     * Добавляет новый проект.
+     *
+     * @param name     название проекта
+     * @param parentId родительский проект или null для корневого проекта (клиента)
+     * @return Optional с ID добавленного проекта, если операция успешна, иначе пустой Optional
+     */
+    public Optional<Long> addProject(String name, Long parentId) {
+        if (parentId != null && !projectDAO.getProject(parentId).isPresent()) {
+            logger.warn("Parent project not found with ID: {}", parentId);
+            return Optional.empty();
+        }
+        return projectDAO.addProject(name, parentId);
+    }
+
+    /**
+     * Возвращает проект вместе с учтённым временем его поддерева.
+     *
+     * @param projectId ID проекта
+     * @return Optional с проектом, если он найден
+     */
+    public Optional<Project> getProject(long projectId) {
+        return projectDAO.getProject(projectId);
+    }
+
+    /**
+     * Возвращает суммарное время проекта вместе со всеми подпроектами.
+     *
+     * @param projectId ID проекта
+     * @return Optional с суммарным временем, если проект найден
+     */
+    public Optional<Duration> getTotalDuration(long projectId) {
+        return projectDAO.getProject(projectId).map(project -> Duration.ofSeconds(project.getTotalSeconds()));
+    }
+
+    /**
+     * Возвращает все проекты в порядке обхода дерева.
+     *
+     * @return список проектов
+     */
+    public List<Project> getProjectTree() {
+        return projectDAO.getProjectTree();
+    }
+
+    /**
+     * Назначает задаче проект. Изменение выполняется сервисом задач под блокировкой задачи
+     * и записывается в журнал изменений.
+     *
+     * @param taskId    ID задачи
+     * @param projectId ID проекта или null, чтобы снять назначение
+     * @return true, если операция успешна, иначе false
+     */
+    public boolean assignTask(long taskId, Long projectId) {
+        return taskService.assignProject(taskId, projectId);
+    }
+
+    /**
+     * Добавляет задаче метку.
+     *
+     * @param taskId  ID задачи
+     * @param tagName название метки
+     * @return true, если метка добавлена, иначе false
+     */
+    public boolean tagTask(long taskId, String tagName) {
+        return taskService.tagTask(taskId, tagName.trim());
+    }
+
+    /**
+     * Снимает с задачи метку.
+     *
+     * @param taskId  ID задачи
+     * @param tagName название метки
+     * @return true, если метка снята, иначе false
+     */
+    public boolean untagTask(long taskId, String tagName) {
+        return taskService.untagTask(taskId, tagName.trim());
+    }
+
+    /**
+     * Возвращает все метки с суммарным временем помеченных задач.
+     *
+     * @return список меток
+     */
+    public List<Tag> getTags() {
+        return projectDAO.getTags();
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.service;
+
+import org.example.config.AppConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Объединение одинаковых одновременных чтений: пока запрос с некоторым ключом выполняется,
+ * остальные вызовы с тем же ключом не обращаются к базе, а ждут его результат.
+ * Поэтому одновременный опрос списка задач множеством клиентов выполняется одним запросом.
+ *
+ * <p>Окно объединения задаёт, сколько миллисекунд после начала запроса к нему можно присоединиться:
+ * при нулевом окне результат разделяют только вызовы, пришедшие во время выполнения запроса,
+ * при положительном - также пришедшие вскоре после его завершения.
+ * Изменения задач вызывают {@link #invalidate()}, чтобы чтение после записи не получило результат,
+ * начатый до неё.
+ *
+ * <p>Результат запроса разделяют все присоединившиеся вызовы, поэтому изменяемый результат каждый вызов
+ * получает в виде собственной копии (см. {@link #call(String, Supplier, UnaryOperator)}).
+ */
+public class ReadCoalescer {
+
+    // Предел числа завершённых запросов, после которого устаревшие удаляются из таблицы
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final boolean enabled;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Конструктор для создания экземпляра ReadCoalescer.
+     *
+     * @param windowMs окно объединения в миллисекундах от начала запроса
+     * @param enabled  false, чтобы каждый вызов выполнял свой запрос
+     */
+    public ReadCoalescer(long windowMs, boolean enabled) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+        this.enabled = enabled;
+    }
+
+    /**
+     * Создаёт объединение чтений с настройками из переменных окружения
+     * READ_COALESCE_ENABLED и READ_COALESCE_WINDOW_MS.
+     * По умолчанию объединение включено, а окно равно нулю: результат разделяют только одновременные вызовы.
+     *
+     * @return объединение чтений
+     */
+    public static ReadCoalescer fromEnvironment() {
+        return new ReadCoalescer(AppConfig.getLong("READ_COALESCE_WINDOW_MS", 0),
+                Boolean.parseBoolean(AppConfig.getString("READ_COALESCE_ENABLED", "true")));
+    }
+
+    /**
+     * Выполняет чтение или присоединяется к уже выполняющемуся чтению с тем же ключом.
+     * Все вызовы получают один и тот же объект результата, поэтому результат должен быть неизменяемым.
+     * Исключение запроса получают все присоединившиеся к нему вызовы.
+     *
+     * @param key   ключ чтения: одинаковые ключи означают одинаковые запросы
+     * @param query запрос к базе данных
+     * @param <T>   тип результата
+     * @return результат запроса
+     */
+    public <T> T call(String key, Supplier<T> query) {
+        return call(key, query, UnaryOperator.identity());
+    }
+
+    /**
+     * Выполняет чтение или присоединяется к уже выполняющемуся чтению с тем же ключом.
+     * Каждый вызов, включая выполнивший запрос, получает результат через share: разделяемый объект
+     * остаётся нетронутым, и изменение полученной копии одним вызовом не видно другим.
+     * Исключение запроса получают все присоединившиеся к нему вызовы.
+     *
+     * @param key   ключ чтения: одинаковые ключи означают одинаковые запросы
+     * @param query запрос к базе данных
+     * @param share создаёт копию (или неизменяемое представление) результата для одного вызова
+     * @param <T>   тип результата
+     * @return результат запроса в виде, возвращённом share
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(String key, Supplier<T> query, UnaryOperator<T> share) {
+        if (!enabled) {
+            executed.increment();
+            return share.apply(query.get());
+        }
+        long now = System.nanoTime();
+        Flight mine = new Flight(now);
+        Flight flight = flights.compute(key, (k, current) -> current != null && current.joinable(now, windowNanos) ? current : mine);
+        if (flight != mine) {
+            coalesced.increment();
+            return share.apply((T) flight.await());
+        }
+
+        executed.increment();
+        try {
+            T result = query.get();
+            mine.result.complete(result);
+            return share.apply(result);
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (windowNanos == 0 || mine.result.isCompletedExceptionally()) {
+                flights.remove(key, mine);
+            } else if (flights.size() > PRUNE_THRESHOLD) {
+                long prunedAt = System.nanoTime();
+                flights.values().removeIf(f -> !f.joinable(prunedAt, windowNanos));
+            }
+        }
+    }
+
+    /**
+     * Запрещает присоединяться к уже начатым чтениям. Вызывается после изменения задач:
+     * следующие чтения выполнят новый запрос и увидят изменение.
+     */
+    public void invalidate() {
+        if (!flights.isEmpty()) {
+            flights.clear();
+        }
+    }
+
+    /**
+     * Возвращает количество чтений, выполненных запросом к базе данных.
+     *
+     * @return количество выполненных запросов
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * Возвращает количество чтений, получивших результат чужого запроса.
+     *
+     * @return количество объединённых чтений
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadCoalescer{executed=" + executed.sum() +
+                ", coalesced=" + coalesced.sum() +
+                ", windowMs=" + TimeUnit.NANOSECONDS.toMillis(windowNanos) +
+                ", enabled=" + enabled +
+                '}';
+    }
+
+    /**
+     * Выполняющийся или недавно завершённый запрос.
+     */
+    private static class Flight {
+        private final long startedAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        boolean joinable(long now, long windowNanos) {
+            return !result.isDone() || (!result.isCompletedExceptionally() && now - startedAt <= windowNanos);
+        }
+
+        Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
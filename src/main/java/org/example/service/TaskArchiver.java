@@ -0,0 +1,99 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.dao.TaskDAO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновый архиватор задач. Периодически создаёт секции таблицы tasks на будущие месяцы,
+ * переносит давно завершённые задачи в таблицу tasks_archive и удаляет опустевшие старые секции,
+ * чтобы в оперативной таблице оставались только "горячие" данные.
+ */
+public class TaskArchiver implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(TaskArchiver.class);
+
+    private static final int PARTITIONS_AHEAD = 2; // Количество месяцев, для которых секции создаются заранее
+
+    private final TaskDAO taskDAO;
+    private final ReadCoalescer readCoalescer;
+    private final Duration retention;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Конструктор для создания экземпляра TaskArchiver.
+     *
+     * @param taskDAO       DAO для работы с задачами
+     * @param readCoalescer объединение чтений задач, сбрасываемое после переноса задач в архив
+     * @param retention     сколько завершённая задача хранится в оперативной таблице с момента начала
+     * @param batchSize     количество задач, переносимых в архив за один запрос
+     */
+    public TaskArchiver(TaskDAO taskDAO, ReadCoalescer readCoalescer, Duration retention, int batchSize) {
+        this.taskDAO = taskDAO;
+        this.readCoalescer = readCoalescer;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает периодическую архивацию.
+     *
+     * @param period интервал между запусками архивации
+     */
+    public void start(Duration period) {
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("TaskArchiver started: retention {}, period {}", retention, period);
+    }
+
+    /**
+     * Выполняет один проход архивации.
+     *
+     * @return количество задач, перенесённых в архив
+     */
+    public int archiveNow() {
+        taskDAO.ensurePartitions(PARTITIONS_AHEAD);
+
+        LocalDateTime threshold = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int moved;
+        do {
+            moved = taskDAO.archiveFinishedTasks(threshold, batchSize);
+            total += moved;
+            if (moved > 0) {
+                readCoalescer.invalidate();
+            }
+        } while (moved == batchSize);
+
+        taskDAO.dropEmptyPartitions(threshold);
+        return total;
+    }
+
+    private void runSafely() {
+        try {
+            int archived = archiveNow();
+            logger.debug("Archiver pass finished, {} tasks archived", archived);
+        } catch (RuntimeException e) {
+            logger.error("Error during task archiving", e);
+        }
+    }
+
+    /**
+     * Останавливает фоновую архивацию.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.config.AppConfig;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Фильтр существующих ID задач: битовая карта по пространству значений task_sequence, один бит на ID.
+ * Карта разбита на блоки по 8 КБ (65 536 ID), которые создаются только при первой записи,
+ * поэтому 100 млн ID занимают около 12 МБ, а незанятые диапазоны памяти не требуют.
+ *
+ * <p>Фильтр отвечает "точно нет" или "возможно есть": ID, для которых он не может дать точный ответ
+ * (фильтр ещё не загружен, ID за пределами бюджета памяти или ID мог быть выдан незавершённому добавлению),
+ * считаются возможно существующими и проверяются в базе данных.
+ * Фильтр предполагает, что задачи добавляются только через этот экземпляр приложения.
+ */
+public class TaskIdFilter {
+
+    private static final Logger logger = LogManager.getLogger(TaskIdFilter.class);
+
+    private static final int CHUNK_SHIFT = 16; // 65 536 бит в блоке
+    private static final int CHUNK_WORDS = (1 << CHUNK_SHIFT) / Long.SIZE;
+
+    private final AtomicReferenceArray<AtomicLongArray> chunks;
+    private final long capacity;
+    private final boolean enabled;
+    private volatile boolean loaded;
+
+    // Наибольший ID, бит которого уже установлен
+    private final AtomicLong highWater = new AtomicLong();
+    // Значения highWater на момент начала незавершённых добавлений (значение -> количество добавлений)
+    private final TreeMap<Long, Integer> pendingAdds = new TreeMap<>();
+    // ID не больше этой границы не могут принадлежать незавершённому добавлению
+    private volatile long settledBound = Long.MAX_VALUE;
+
+    /**
+     * Конструктор для создания экземпляра TaskIdFilter.
+     *
+     * @param maxMegabytes бюджет памяти битовой карты в мегабайтах
+     * @param enabled      false, чтобы все ID проверялись в базе данных
+     */
+    public TaskIdFilter(int maxMegabytes, boolean enabled) {
+        int maxChunks = (int) Math.max(1, ((long) maxMegabytes << 20) / (CHUNK_WORDS * (long) Long.BYTES));
+        this.chunks = new AtomicReferenceArray<>(maxChunks);
+        this.capacity = (long) maxChunks << CHUNK_SHIFT;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Создаёт фильтр с настройками из переменных окружения TASK_ID_FILTER_ENABLED и TASK_ID_FILTER_MAX_MB.
+     * По умолчанию фильтр включён, бюджет - 64 МБ (около 536 млн ID).
+     *
+     * @return фильтр ID задач
+     */
+    public static TaskIdFilter fromEnvironment() {
+        return new TaskIdFilter(AppConfig.getInt("TASK_ID_FILTER_MAX_MB", 64),
+                Boolean.parseBoolean(AppConfig.getString("TASK_ID_FILTER_ENABLED", "true")));
+    }
+
+    /**
+     * Проверяет, может ли существовать задача с указанным ID.
+     *
+     * @param taskId ID задачи
+     * @return false, если задачи точно нет, иначе true
+     */
+    public boolean mightContain(long taskId) {
+        if (!loaded || taskId > settledBound || taskId >= capacity) {
+            return true;
+        }
+        if (taskId <= 0) {
+            return false;
+        }
+        AtomicLongArray chunk = chunks.get((int) (taskId >>> CHUNK_SHIFT));
+        if (chunk == null) {
+            return false;
+        }
+        return (chunk.get(wordIndex(taskId)) & bit(taskId)) != 0;
+    }
+
+    /**
+     * Отмечает ID как существующий.
+     *
+     * @param taskId ID задачи
+     */
+    public void add(long taskId) {
+        if (taskId <= 0 || taskId >= capacity) {
+            return;
+        }
+        int chunkIndex = (int) (taskId >>> CHUNK_SHIFT);
+        AtomicLongArray chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunks.compareAndSet(chunkIndex, null, new AtomicLongArray(CHUNK_WORDS));
+            chunk = chunks.get(chunkIndex);
+        }
+        int word = wordIndex(taskId);
+        long mask = bit(taskId);
+        long current;
+        do {
+            current = chunk.get(word);
+        } while ((current & mask) == 0 && !chunk.compareAndSet(word, current, current | mask));
+        highWater.accumulateAndGet(taskId, Math::max);
+    }
+
+    /**
+     * Отмечает ID как удалённый.
+     *
+     * @param taskId ID задачи
+     */
+    public void remove(long taskId) {
+        if (taskId <= 0 || taskId >= capacity) {
+            return;
+        }
+        AtomicLongArray chunk = chunks.get((int) (taskId >>> CHUNK_SHIFT));
+        if (chunk == null) {
+            return;
+        }
+        int word = wordIndex(taskId);
+        long mask = bit(taskId);
+        long current;
+        do {
+            current = chunk.get(word);
+        } while ((current & mask) != 0 && !chunk.compareAndSet(word, current, current & ~mask));
+    }
+
+    /**
+     * Регистрирует начинающееся добавление задачи. Пока оно не завершено, ID больше текущего
+     * наибольшего известного ID считаются возможно существующими: один из них может уже быть
+     * записан в базу, но ещё не отмечен в фильтре.
+     *
+     * @return метка добавления для {@link #endAdd(long)}
+     */
+    public synchronized long beginAdd() {
+        long floor = highWater.get();
+        pendingAdds.merge(floor, 1, Integer::sum);
+        settledBound = pendingAdds.firstKey();
+        return floor;
+    }
+
+    /**
+     * Завершает добавление задачи, зарегистрированное {@link #beginAdd()}.
+     *
+     * @param floor метка добавления
+     */
+    public synchronized void endAdd(long floor) {
+        pendingAdds.computeIfPresent(floor, (key, count) -> count > 1 ? count - 1 : null);
+        settledBound = pendingAdds.isEmpty() ? Long.MAX_VALUE : pendingAdds.firstKey();
+    }
+
+    /**
+     * Отмечает фильтр загруженным: с этого момента отсутствующие ID отклоняются без обращения к базе.
+     */
+    public void markLoaded() {
+        if (enabled) {
+            loaded = true;
+            logger.info("Task id filter loaded, highest id {}, {} KB allocated", highWater.get(), allocatedBytes() / 1024);
+        }
+    }
+
+    /**
+     * Возвращает, отвечает ли фильтр "точно нет" для отсутствующих ID.
+     *
+     * @return true, если фильтр включён и загружен
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Возвращает объём памяти, занятый блоками битовой карты.
+     *
+     * @return размер в байтах
+     */
+    public long allocatedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < chunks.length(); i++) {
+            if (chunks.get(i) != null) {
+                bytes += CHUNK_WORDS * (long) Long.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    private static int wordIndex(long taskId) {
+        return (int) (taskId & ((1 << CHUNK_SHIFT) - 1)) >>> 6;
+    }
+
+    private static long bit(long taskId) {
+        return 1L << taskId;
+    }
+}
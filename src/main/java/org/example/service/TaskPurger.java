@@ -0,0 +1,144 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.dao.TaskDAO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая очистка мягко удалённых задач. Удаление задачи в оперативном пути - это обновление одной строки,
+ * а физическое удаление строк, обслуживание индексов и последующая работа autovacuum переносятся
+ * на непиковое время: очистка выполняется только в заданном окне суток, порциями с паузами между ними.
+ * Задачи, удалённые меньше срока хранения назад, не очищаются и могут быть восстановлены.
+ * В том же окне удаляются устаревшие надгробия, по которым клиенты синхронизируют удаления.
+ */
+public class TaskPurger implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(TaskPurger.class);
+
+    private final TaskDAO taskDAO;
+    private final ReadCoalescer readCoalescer;
+    private final Duration retention;
+    private final Duration tombstoneRetention;
+    private final int batchSize;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final Duration batchPause;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Конструктор для создания экземпляра TaskPurger.
+     *
+     * @param taskDAO            DAO для работы с задачами
+     * @param readCoalescer      объединение чтений задач, сбрасываемое после очистки задач и надгробий
+     * @param retention          сколько удалённая задача хранится и может быть восстановлена
+     * @param tombstoneRetention сколько хранятся надгробия физически удалённых задач
+     * @param batchSize          количество задач, удаляемых за один запрос
+     * @param windowStart        начало непикового окна очистки
+     * @param windowEnd          конец непикового окна очистки; окно может переходить через полночь
+     * @param batchPause         пауза между порциями, ограничивающая нагрузку на базу
+     */
+    public TaskPurger(TaskDAO taskDAO, ReadCoalescer readCoalescer, Duration retention, Duration tombstoneRetention,
+                      int batchSize, LocalTime windowStart, LocalTime windowEnd, Duration batchPause) {
+        this.taskDAO = taskDAO;
+        this.readCoalescer = readCoalescer;
+        this.retention = retention;
+        this.tombstoneRetention = tombstoneRetention;
+        this.batchSize = batchSize;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.batchPause = batchPause;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает периодическую проверку: если текущее время попадает в окно, выполняется очистка.
+     *
+     * @param period интервал между проверками
+     */
+    public void start(Duration period) {
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("TaskPurger started: retention {}, window {}-{}, period {}", retention, windowStart, windowEnd, period);
+    }
+
+    /**
+     * Проверяет, попадает ли время в непиковое окно очистки.
+     *
+     * @param time время суток
+     * @return true, если очистка в это время разрешена
+     */
+    public boolean isOffPeak(LocalTime time) {
+        if (windowStart.isBefore(windowEnd)) {
+            return !time.isBefore(windowStart) && time.isBefore(windowEnd);
+        }
+        return !time.isBefore(windowStart) || time.isBefore(windowEnd);
+    }
+
+    /**
+     * Очищает все задачи и надгробия, срок хранения которых истёк, независимо от окна очистки.
+     *
+     * @return количество физически удалённых задач
+     */
+    public int purgeNow() {
+        return purge(false);
+    }
+
+    private int purge(boolean offPeakOnly) {
+        LocalDateTime threshold = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int purged;
+        do {
+            if (offPeakOnly && !isOffPeak(LocalTime.now())) {
+                logger.info("Purge window closed, {} tasks purged in this pass", total);
+                break;
+            }
+            purged = taskDAO.purgeDeletedTasks(threshold, batchSize);
+            total += purged;
+            if (purged > 0) {
+                readCoalescer.invalidate();
+            }
+            if (purged == batchSize && !batchPause.isZero()) {
+                try {
+                    Thread.sleep(batchPause.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (purged == batchSize);
+        if (taskDAO.pruneTombstones(LocalDateTime.now().minus(tombstoneRetention))) {
+            readCoalescer.invalidate();
+        }
+        return total;
+    }
+
+    private void runSafely() {
+        if (!isOffPeak(LocalTime.now())) {
+            return;
+        }
+        try {
+            int purged = purge(true);
+            logger.debug("Purger pass finished, {} tasks purged", purged);
+        } catch (RuntimeException e) {
+            logger.error("Error during task purge", e);
+        }
+    }
+
+    /**
+     * Останавливает фоновую очистку.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -2,16 +2,37 @@ package org.example.service;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.config.AppConfig;
+import org.example.dao.AuditDAO;
+import org.example.dao.DaoSession;
 import org.example.dao.TaskDAO;
+import org.example.dao.TaskFilter;
+import org.example.entity.AuditAction;
+import org.example.entity.AuditRecord;
 import org.example.entity.Task;
+import org.example.entity.TaskChanges;
+import org.example.entity.TaskOverlap;
+import org.example.entity.TaskView;
 import org.example.exception.TaskNotFoundException;
+import org.example.exception.TaskTransactionException;
+import org.example.jfr.LockWaitEvent;
+import org.example.service.AdmissionController.Permit;
+import org.example.service.AdmissionController.WorkType;
 
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для управления задачами. Обеспечивает выполнение операций над задачами,
@@ -23,6 +44,33 @@ public class TaskService {
     private TaskDAO taskDAO;
     private static final Logger logger = LogManager.getLogger(TaskService.class);
 
+    // Контроль допуска операций к пулу соединений с отдельными отсеками для чтения, записи и массовых операций
+    private final AdmissionController admissionController;
+
+    // Фильтр существующих ID: операции над точно отсутствующими задачами не обращаются к базе
+    private final TaskIdFilter idFilter;
+
+    // Объединение одинаковых одновременных чтений в один запрос к базе
+    private final ReadCoalescer readCoalescer;
+
+    // Срок, в течение которого удалённую задачу можно восстановить; после него задача очищается
+    private final Duration deleteRetention = Duration.ofHours(AppConfig.getLong("DELETE_RETENTION_HOURS", 72));
+
+    // Синхронизация клиентов: размер порции изменений
+    private final int syncPageSize = AppConfig.getInt("SYNC_PAGE_SIZE", 1000);
+
+    // Сроки автоматической остановки активных задач в колесе таймеров
+    private final AutoStopScheduler autoStop;
+
+    // Активные задачи в порядке времени начала для быстрого чтения самых долгих
+    private final ActiveTaskHeap activeTasks;
+
+    // Журнал изменений задач, записываемый в базу пакетами в фоновом потоке
+    private final AuditDAO auditDAO;
+    private final AuditLog auditLog;
+    private final int auditHistoryLimit = AppConfig.getInt("AUDIT_HISTORY_LIMIT", 100);
+    private final Duration auditFlushTimeout = Duration.ofMillis(AppConfig.getLong("AUDIT_FLUSH_TIMEOUT_MS", 2000));
+
     private static final Lock[] lockPool = new ReentrantLock[16]; // Фиксированное количество блокировок
 
     static {
@@ -32,23 +80,134 @@ public class TaskService {
     }
 
     /**
-     * Возвращает блокировку для задачи на основе её UUID.
+     * Захватывает блокировку задачи на основе её ID.
      *
-     * @param taskId UUID задачи
-     * @return блокировка, связанная с задачей
+     * @param taskId ID задачи
+     * @return захваченная блокировка, связанная с задачей
+     */
+    private Lock lockTask(long taskId) {
+        int stripe = stripeOf(taskId);
+        lockStripe(stripe, taskId);
+        return lockPool[stripe];
+    }
+
+    /**
+     * Захватывает блокировку пула с ожиданием. Свободная блокировка берётся сразу,
+     * ожидание занятой записывается событием JFR {@link LockWaitEvent}.
+     *
+     * @param stripe индекс блокировки в пуле
+     * @param taskId ID задачи, для которой берётся блокировка, или 0 для массовых операций
+     * @return время ожидания блокировки в наносекундах (0, если блокировка была свободна)
+     */
+    static long lockStripe(int stripe, long taskId) {
+        Lock lock = lockPool[stripe];
+        if (lock.tryLock()) {
+            return 0;
+        }
+        LockWaitEvent event = new LockWaitEvent();
+        long start = System.nanoTime();
+        event.begin();
+        lock.lock();
+        event.end();
+        long waited = System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.stripe = stripe;
+            event.taskId = taskId;
+            event.commit();
+        }
+        return waited;
+    }
+
+    /**
+     * Возвращает индекс блокировки пула, которой защищается задача.
+     *
+     * @param taskId ID задачи
+     * @return индекс блокировки в пуле
+     */
+    static int stripeOf(long taskId) {
+        return Math.abs(Long.hashCode(taskId)) % lockPool.length;
+    }
+
+    /**
+     * Захватывает блокировки для массовой операции в порядке возрастания индекса,
+     * чтобы не допустить взаимоблокировки с другими массовыми операциями.
+     * Если фильтр задаёт список ID, захватываются только соответствующие им блокировки,
+     * иначе затронутые задачи заранее неизвестны и захватываются все блокировки пула.
+     *
+     * @param filter условие отбора задач
+     * @return захваченные блокировки в порядке захвата
      */
-    private Lock getLock(Long taskId) {
-        int index = Math.abs(taskId.hashCode()) % lockPool.length;
-        return lockPool[index];
+    private List<Lock> lockAll(TaskFilter filter) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        if (filter.getIds() != null) {
+            for (Long taskId : filter.getIds()) {
+                indexes.add(stripeOf(taskId));
+            }
+        } else {
+            for (int i = 0; i < lockPool.length; i++) {
+                indexes.add(i);
+            }
+        }
+        List<Lock> locks = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            lockStripe(index, 0);
+            locks.add(lockPool[index]);
+        }
+        return locks;
     }
 
     /**
-     * Конструктор для создания экземпляра TaskService.
+     * Освобождает блокировки в порядке, обратном порядку захвата.
+     *
+     * @param locks захваченные блокировки
+     */
+    private void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * Конструктор для создания экземпляра TaskService с настройками из переменных окружения.
      *
      * @param taskDAO DAO для работы с задачами
      */
     public TaskService(TaskDAO taskDAO) {
+        this(taskDAO, AdmissionController.fromEnvironment(), TaskIdFilter.fromEnvironment(),
+                ReadCoalescer.fromEnvironment(), AutoStopScheduler.fromEnvironment(), new ActiveTaskHeap(),
+                new AuditDAO());
+    }
+
+    private TaskService(TaskDAO taskDAO, AdmissionController admissionController, TaskIdFilter idFilter,
+                        ReadCoalescer readCoalescer, AutoStopScheduler autoStop, ActiveTaskHeap activeTasks,
+                        AuditDAO auditDAO) {
+        this(taskDAO, admissionController, idFilter, readCoalescer, autoStop, activeTasks, auditDAO,
+                AuditLog.fromEnvironment(auditDAO));
+    }
+
+    /**
+     * Конструктор для создания экземпляра TaskService с заданными компонентами.
+     *
+     * @param taskDAO             DAO для работы с задачами
+     * @param admissionController контроль допуска операций к пулу соединений
+     * @param idFilter            фильтр существующих ID задач
+     * @param readCoalescer       объединение одинаковых одновременных чтений
+     * @param autoStop            автоматическая остановка активных задач
+     * @param activeTasks         активные задачи в порядке времени начала
+     * @param auditDAO            DAO журнала изменений (чтение истории задачи)
+     * @param auditLog            журнал изменений задач
+     */
+    public TaskService(TaskDAO taskDAO, AdmissionController admissionController, TaskIdFilter idFilter,
+                       ReadCoalescer readCoalescer, AutoStopScheduler autoStop, ActiveTaskHeap activeTasks,
+                       AuditDAO auditDAO, AuditLog auditLog) {
         this.taskDAO = taskDAO;
+        this.admissionController = admissionController;
+        this.idFilter = idFilter;
+        this.readCoalescer = readCoalescer;
+        this.autoStop = autoStop;
+        this.activeTasks = activeTasks;
+        this.auditDAO = auditDAO;
+        this.auditLog = auditLog;
         logger.info("TaskService initialized");
     }
 
@@ -63,17 +222,373 @@ public class TaskService {
         task.setName(name);
         task.setStartTime(LocalDateTime.now());
         task.setStatus("Активна");
+        task.setAutoStopAt(autoStop.deadlineFor(task.getStartTime()));
+
+        long addFloor = idFilter.beginAdd();
+        try {
+            return admissionController.call(WorkType.WRITE, permit -> addTask(task, permit));
+        } finally {
+            idFilter.endAdd(addFloor);
+        }
+    }
+
+    /**
+     * Добавляет задачу в транзакции, которая фиксируется под блокировкой новой задачи.
+     * Операции над задачей ждут эту блокировку, поэтому видят задачу в базе данных только после того,
+     * как она добавлена в кучу активных задач, колесо таймеров и фильтр ID.
+     * ID выдаётся до вставки: блокировка задачи захватывается раньше блокировок, которые берёт вставка,
+     * и ожидание блокировки задачи не может замкнуться в цикл с ожиданием в базе данных.
+     */
+    private Optional<Long> addTask(Task task, Permit permit) {
+        try (DaoSession session = taskDAO.openSession(true)) {
+            long taskId = taskDAO.nextTaskId(session);
+            int stripe = stripeOf(taskId);
+            // Ожидание блокировки задачи не относится к задержке базы данных
+            permit.exclude(lockStripe(stripe, taskId));
+            try {
+                taskDAO.addTask(session, taskId, task);
+                session.commit();
+                activeTasks.add(taskId, task.getName(), task.getStartTime());
+                if (task.getAutoStopAt() != null) {
+                    autoStop.schedule(taskId, task.getAutoStopAt());
+                }
+                auditLog.record(taskId, AuditAction.ADD, null, task.getName());
+                readCoalescer.invalidate();
+                idFilter.add(taskId);
+            } finally {
+                lockPool[stripe].unlock();
+            }
+            return Optional.of(taskId);
+        } catch (SQLException e) {
+            logger.error("Error adding task", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Загружает ID существующих задач в фильтр. До загрузки все операции проверяют задачу в базе данных.
+     *
+     * @return true, если фильтр загружен, иначе false
+     */
+    public boolean loadIdFilter() {
+        if (!taskDAO.forEachTaskId(idFilter::add)) {
+            logger.warn("Task id filter is not loaded, all ids will be checked in the database");
+            return false;
+        }
+        idFilter.markLoaded();
+        return true;
+    }
+
+    /**
+     * Загружает в колесо таймеров сроки автоматической остановки активных задач.
+     * Вызывается при старте: сроки, наступившие во время простоя, срабатывают при первом тике.
+     *
+     * @return true, если сроки загружены, иначе false
+     */
+    public boolean loadAutoStops() {
+        if (!taskDAO.forEachAutoStop((deadline, taskId) -> autoStop.schedule(taskId, deadline))) {
+            logger.warn("Auto-stop deadlines are not loaded, active tasks will not be stopped automatically");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Загружает активные задачи в кучу самых долгих задач. До загрузки они читаются из базы данных.
+     *
+     * @return true, если активные задачи загружены, иначе false
+     */
+    public boolean loadActiveTasks() {
+        if (!taskDAO.forEachActiveTask(task -> activeTasks.add(task.getId(), task.getName(), task.getStartTime()))) {
+            logger.warn("Active tasks are not loaded, longest running tasks will be read from the database");
+            return false;
+        }
+        activeTasks.markLoaded();
+        return true;
+    }
+
+    /**
+     * Возвращает активные задачи, выполняющиеся дольше всех, без обращения к базе данных.
+     *
+     * @param limit максимальное количество задач
+     * @return задачи в порядке времени начала
+     * @throws org.example.exception.TaskRejectedException если куча не загружена, сервис перегружен и операция отклонена
+     */
+    public List<Task> getLongestActiveTasks(int limit) {
+        if (activeTasks.isLoaded()) {
+            return activeTasks.top(limit);
+        }
+        return admissionController.call(WorkType.READ, () -> taskDAO.getLongestActiveTasks(limit));
+    }
+
+    /**
+     * Останавливает задачи с наступившим сроком автоматической остановки одним запросом.
+     * Вызывается колесом таймеров; задачи, уже остановленные другим способом, пропускаются запросом.
+     *
+     * @param taskIds ID задач с наступившим сроком
+     * @return ID остановленных задач
+     * @throws TaskTransactionException                    если запрос не выполнен из-за ошибки базы данных
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public List<Long> autoStopTasks(List<Long> taskIds) {
+        TaskFilter filter = TaskFilter.byIds(taskIds);
+        return admissionController.call(WorkType.BULK, permit -> {
+            List<Lock> locks = lockAll(filter);
+            try {
+                Map<Long, String> previous = permit.measure(() -> taskDAO.autoStopTasks(taskIds));
+                List<Long> ids = new ArrayList<>(previous.keySet());
+                ids.forEach(activeTasks::remove);
+                previous.forEach((id, status) -> auditLog.record(id, AuditAction.AUTO_STOP, status, "Остановлена"));
+                if (!ids.isEmpty()) {
+                    readCoalescer.invalidate();
+                }
+                logger.info("Tasks auto-stopped: {} of {}", ids.size(), taskIds.size());
+                return ids;
+            } finally {
+                unlockAll(locks);
+            }
+        });
+    }
+
+    /**
+     * Устанавливает срок автоматической остановки активной задачи вместо срока, назначенного при добавлении.
+     *
+     * @param taskId   ID задачи
+     * @param deadline срок остановки или null, чтобы задача не останавливалась автоматически
+     * @return true, если срок изменён, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public boolean setAutoStop(long taskId, LocalDateTime deadline) {
+        if (isMissing(taskId)) {
+            return false;
+        }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                boolean result = permit.measure(() -> taskDAO.setAutoStop(taskId, deadline));
+                if (result) {
+                    if (deadline != null) {
+                        autoStop.schedule(taskId, deadline);
+                    } else {
+                        autoStop.cancel(taskId);
+                    }
+                    logger.info("Auto-stop deadline set to {} for ID: {}", deadline, taskId);
+                } else {
+                    logger.warn("Failed to set auto-stop deadline for ID: {}", taskId);
+                }
+                return result;
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
 
-        return taskDAO.addTask(task);
+    /**
+     * Назначает задаче проект.
+     *
+     * @param taskId    ID задачи
+     * @param projectId ID проекта или null, чтобы снять назначение
+     * @return true, если операция успешна, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public boolean assignProject(long taskId, Long projectId) {
+        if (isMissing(taskId)) {
+            return false;
+        }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                Optional<Long> previous = permit.measure(() -> taskDAO.assignProject(taskId, projectId));
+                boolean result = previous.isPresent();
+                if (result) {
+                    auditLog.record(taskId, AuditAction.ASSIGN, previous.get() != 0 ? String.valueOf(previous.get()) : null,
+                            projectId != null ? String.valueOf(projectId) : null);
+                    readCoalescer.invalidate();
+                    logger.info("Task {} assigned to project {}", taskId, projectId);
+                } else {
+                    logger.warn("Failed to assign task {} to project {}", taskId, projectId);
+                }
+                return result;
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
     }
 
     /**
-     * Возвращает список всех задач.
+     * Добавляет задаче метку.
+     *
+     * @param taskId  ID задачи
+     * @param tagName название метки
+     * @return true, если метка добавлена, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public boolean tagTask(long taskId, String tagName) {
+        return changeTags(taskId, AuditAction.TAG, null, tagName, () -> taskDAO.tagTask(taskId, tagName));
+    }
+
+    /**
+     * Снимает с задачи метку.
+     *
+     * @param taskId  ID задачи
+     * @param tagName название метки
+     * @return true, если метка снята, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public boolean untagTask(long taskId, String tagName) {
+        return changeTags(taskId, AuditAction.UNTAG, tagName, null, () -> taskDAO.untagTask(taskId, tagName));
+    }
+
+    private boolean changeTags(long taskId, AuditAction action, String oldValue, String newValue, Supplier<Boolean> change) {
+        if (isMissing(taskId)) {
+            return false;
+        }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                boolean result = permit.measure(change);
+                if (result) {
+                    auditLog.record(taskId, action, oldValue, newValue);
+                    readCoalescer.invalidate();
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Проверяет по фильтру, что задачи с указанным ID точно нет.
+     *
+     * @param taskId ID задачи
+     * @return true, если задачи точно нет
+     */
+    private boolean isMissing(long taskId) {
+        if (idFilter.mightContain(taskId)) {
+            return false;
+        }
+        logger.warn("Task not found with ID: {} (rejected by id filter)", taskId);
+        return true;
+    }
+
+    /**
+     * Возвращает список всех задач. Одновременные вызовы разделяют один запрос к базе,
+     * а каждый вызов получает неизменяемый список собственных копий задач.
      *
      * @return список задач
      */
     public List<Task> getAllTasks() {
-        return taskDAO.getAllTasks();
+        return readCoalescer.call("tasks", () -> admissionController.call(WorkType.READ, taskDAO::getAllTasks),
+                TaskService::copyTasks);
+    }
+
+    /**
+     * Возвращает компактный список всех задач для вывода больших списков.
+     * Одновременные вызовы разделяют один запрос к базе; представления задач неизменяемы,
+     * поэтому каждый вызов получает неизменяемый список без копирования элементов.
+     *
+     * @return список неизменяемых представлений задач
+     */
+    public List<TaskView> getAllTaskViews() {
+        return readCoalescer.call("taskViews", () -> admissionController.call(WorkType.READ, taskDAO::getAllTaskViews),
+                Collections::unmodifiableList);
+    }
+
+    /**
+     * Возвращает задачу по её ID. Одновременные вызовы с одним ID разделяют один запрос к базе,
+     * а каждый вызов получает собственную копию задачи.
+     *
+     * @param taskId ID задачи
+     * @return Optional с задачей, если она найдена
+     */
+    public Optional<Task> getTask(long taskId) {
+        if (isMissing(taskId)) {
+            return Optional.empty();
+        }
+        return readCoalescer.call("task:" + taskId, () -> admissionController.call(WorkType.READ, () -> taskDAO.getTask(taskId)),
+                task -> task.map(Task::copy));
+    }
+
+    /**
+     * Возвращает изменения задач после токена версии. Клиент, опрашивающий сервис, применяет изменения
+     * к своей копии списка задач вместо повторной загрузки всех задач. Клиенты с одинаковым токеном
+     * разделяют один запрос к базе.
+     *
+     * @param token токен из предыдущего ответа или 0 для первого запроса
+     * @return изменения задач и токен для следующего запроса
+     */
+    public TaskChanges getChangesSince(long token) {
+        return readCoalescer.call("changes:" + token,
+                () -> admissionController.call(WorkType.READ, () -> taskDAO.getChangesSince(token, syncPageSize)),
+                TaskChanges::copy);
+    }
+
+    /**
+     * Возвращает задачи, выполнявшиеся в течение периода [from, to) хотя бы частично.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return список задач в порядке времени начала
+     * @throws IllegalArgumentException если начало периода не раньше его конца
+     */
+    public List<Task> getTasksInRange(LocalDateTime from, LocalDateTime to) {
+        requirePeriod(from, to);
+        return readCoalescer.call("range:" + from + "/" + to,
+                () -> admissionController.call(WorkType.READ, () -> taskDAO.getTasksInRange(from, to)),
+                TaskService::copyTasks);
+    }
+
+    /**
+     * Копирует разделяемый результат чтения для одного вызова.
+     */
+    private static List<Task> copyTasks(List<Task> tasks) {
+        return Collections.unmodifiableList(tasks.stream().map(Task::copy).collect(Collectors.toList()));
+    }
+
+    /**
+     * Возвращает суммарное время задач внутри периода [from, to). Время параллельных задач складывается,
+     * активные задачи учитываются до текущего момента.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return суммарное время
+     * @throws IllegalArgumentException если начало периода не раньше его конца
+     */
+    public Duration getTrackedDuration(LocalDateTime from, LocalDateTime to) {
+        requirePeriod(from, to);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = to.isAfter(now) ? now : to;
+        if (!end.isAfter(from)) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(admissionController.call(WorkType.READ, () -> taskDAO.getTrackedMillis(from, end)));
+    }
+
+    /**
+     * Находит пары задач, выполнявшихся одновременно внутри периода [from, to).
+     *
+     * @param from  начало периода
+     * @param to    конец периода
+     * @param limit максимальное количество пар
+     * @return пересечения в порядке их начала
+     * @throws IllegalArgumentException если начало периода не раньше его конца
+     */
+    public List<TaskOverlap> findOverlaps(LocalDateTime from, LocalDateTime to, int limit) {
+        requirePeriod(from, to);
+        return admissionController.call(WorkType.BULK, () -> taskDAO.findOverlaps(from, to, limit));
+    }
+
+    private void requirePeriod(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Period start must be before its end");
+        }
     }
 
     /**
@@ -82,24 +597,32 @@ public class TaskService {
      * @param taskId  UUID задачи
      * @param newName новое имя задачи
      * @return true, если операция успешна, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
      */
     public boolean updateTaskName(long taskId, String newName) {
-        Lock lock = getLock(taskId);
-        lock.lock();
-        try {
-            boolean result = taskDAO.updateTaskName(taskId, newName);
-            if (result) {
-                logger.info("Task name updated to {} for ID: {}", newName, taskId);
-            } else {
-                logger.warn("Failed to update task name for ID: {}", taskId);
-            }
-            return result;
-        } catch (TaskNotFoundException e) {
-            logger.warn(e.getMessage());
+        if (isMissing(taskId)) {
             return false;
-        } finally {
-            lock.unlock();
         }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                Optional<String> oldName = permit.measure(() -> taskDAO.renameTask(taskId, newName));
+                if (oldName.isPresent()) {
+                    activeTasks.rename(taskId, newName);
+                    auditLog.record(taskId, AuditAction.RENAME, oldName.get(), newName);
+                    readCoalescer.invalidate();
+                    logger.info("Task name updated to {} for ID: {}", newName, taskId);
+                } else {
+                    logger.warn("Failed to update task name for ID: {}", taskId);
+                }
+                return oldName.isPresent();
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
     }
 
     /**
@@ -107,24 +630,69 @@ public class TaskService {
      *
      * @param taskId UUID задачи
      * @return true, если операция успешна, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
      */
     public boolean deleteTask(long taskId) {
-        Lock lock = getLock(taskId);
-        lock.lock();
-        try {
-            boolean result = taskDAO.deleteTask(taskId);
-            if (result) {
-                logger.info("Task deleted with ID: {}", taskId);
-            } else {
-                logger.warn("Failed to delete task with ID: {}", taskId);
-            }
-            return result;
-        } catch (TaskNotFoundException e) {
-            logger.warn(e.getMessage());
+        if (isMissing(taskId)) {
             return false;
-        } finally {
-            lock.unlock();
         }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                Optional<String> name = permit.measure(() -> taskDAO.deleteTask(taskId));
+                boolean result = name.isPresent();
+                if (result) {
+                    idFilter.remove(taskId);
+                    autoStop.cancel(taskId);
+                    activeTasks.remove(taskId);
+                    auditLog.record(taskId, AuditAction.DELETE, name.get(), null);
+                    readCoalescer.invalidate();
+                    logger.info("Task deleted with ID: {}", taskId);
+                } else {
+                    logger.warn("Failed to delete task with ID: {}", taskId);
+                }
+                return result;
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Восстанавливает задачу, удалённую не раньше срока хранения удалённых задач.
+     *
+     * @param taskId ID задачи
+     * @return true, если задача восстановлена, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public boolean restoreTask(long taskId) {
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                boolean result = permit.measure(() -> taskDAO.restoreTask(taskId, LocalDateTime.now().minus(deleteRetention)));
+                if (result) {
+                    idFilter.add(taskId);
+                    permit.measure(() -> taskDAO.getAutoStop(taskId)).ifPresent(deadline -> autoStop.schedule(taskId, deadline));
+                    permit.measure(() -> taskDAO.getTask(taskId))
+                            .filter(task -> "Активна".equals(task.getStatus()))
+                            .ifPresent(task -> activeTasks.add(taskId, task.getName(), task.getStartTime()));
+                    auditLog.record(taskId, AuditAction.RESTORE, null, null);
+                    readCoalescer.invalidate();
+                    logger.info("Task restored with ID: {}", taskId);
+                } else {
+                    logger.warn("Failed to restore task with ID: {}", taskId);
+                }
+                return result;
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
     }
 
     /**
@@ -132,24 +700,34 @@ public class TaskService {
      *
      * @param taskId UUID задачи
      * @return true, если операция успешна, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
      */
     public boolean stopTask(long taskId) {
-        Lock lock = getLock(taskId);
-        lock.lock();
-        try {
-            boolean result = taskDAO.stopTask(taskId);
-            if (result) {
-                logger.info("Task stopped with ID: {}", taskId);
-            } else {
-                logger.warn("Failed to stop task with ID: {}", taskId);
-            }
-            return result;
-        } catch (TaskNotFoundException e) {
-            logger.warn(e.getMessage());
+        if (isMissing(taskId)) {
             return false;
-        } finally {
-            lock.unlock();
         }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                Optional<String> status = permit.measure(() -> taskDAO.stopTask(taskId));
+                boolean result = status.isPresent();
+                if (result) {
+                    autoStop.cancel(taskId);
+                    activeTasks.remove(taskId);
+                    auditLog.record(taskId, AuditAction.STOP, status.get(), "Остановлена");
+                    readCoalescer.invalidate();
+                    logger.info("Task stopped with ID: {}", taskId);
+                } else {
+                    logger.warn("Failed to stop task with ID: {}", taskId);
+                }
+                return result;
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
     }
 
     /**
@@ -157,26 +735,190 @@ public class TaskService {
      *
      * @param taskId UUID задачи
      * @return true, если операция успешна, иначе false
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
      */
     public boolean finishTask(long taskId) {
-        Lock lock = getLock(taskId);
-        lock.lock();
-        try {
-            boolean result = taskDAO.finishTask(taskId);
-            if (result) {
-                logger.info("Task finished with ID: {}", taskId);
-            } else {
-                logger.warn("Failed to finish task with ID: {}", taskId);
-            }
-            return result;
-        } catch (TaskNotFoundException e) {
-            logger.warn(e.getMessage());
+        if (isMissing(taskId)) {
             return false;
+        }
+        return admissionController.call(WorkType.WRITE, permit -> {
+            Lock lock = lockTask(taskId);
+            try {
+                Optional<String> status = permit.measure(() -> taskDAO.finishTask(taskId));
+                boolean result = status.isPresent();
+                if (result) {
+                    autoStop.cancel(taskId);
+                    activeTasks.remove(taskId);
+                    auditLog.record(taskId, AuditAction.FINISH, status.get(), "Завершена");
+                    readCoalescer.invalidate();
+                    logger.info("Task finished with ID: {}", taskId);
+                } else {
+                    logger.warn("Failed to finish task with ID: {}", taskId);
+                }
+                return result;
+            } catch (TaskNotFoundException e) {
+                logger.warn(e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Выполняет несколько операций над задачами в одной транзакции на одном соединении.
+     * Транзакция фиксируется, если work завершился без исключения, иначе откатывается
+     * и исключение пробрасывается вызывающему.
+     *
+     * <p>Если операции единицы работы обращаются к блокировкам в порядке, грозящем взаимоблокировкой,
+     * транзакция откатывается и work вызывается повторно, поэтому он не должен иметь побочных эффектов
+     * вне переданной ему единицы работы.
+     *
+     * @param work операции над задачами
+     * @param <T>  тип результата
+     * @return результат work
+     * @throws org.example.exception.TaskTransactionException если транзакция не выполнена из-за ошибки базы данных
+     * @throws org.example.exception.TaskRejectedException    если сервис перегружен и операция отклонена
+     */
+    public <T> T inTransaction(Function<UnitOfWork, T> work) {
+        long addFloor = idFilter.beginAdd();
+        try {
+            return admissionController.call(WorkType.WRITE, permit -> runUnitOfWork(work, permit));
         } finally {
-            lock.unlock();
+            idFilter.endAdd(addFloor);
         }
     }
 
+    /**
+     * Выполняет единицу работы с повторами при нарушении порядка захвата блокировок.
+     */
+    private <T> T runUnitOfWork(Function<UnitOfWork, T> work, Permit permit) {
+        TreeSet<Integer> prelock = new TreeSet<>();
+        for (int attempt = 0; ; attempt++) {
+            UnitOfWork unitOfWork = null;
+            try (DaoSession session = taskDAO.openSession(true)) {
+                unitOfWork = new UnitOfWork(taskDAO, session, lockPool, prelock, idFilter, autoStop);
+                T result = work.apply(unitOfWork);
+                session.commit();
+                readCoalescer.invalidate();
+                unitOfWork.getAddedIds().forEach(idFilter::add);
+                unitOfWork.getDeletedIds().forEach(idFilter::remove);
+                unitOfWork.getAutoStops().forEach((taskId, deadline) -> {
+                    if (deadline != null) {
+                        autoStop.schedule(taskId, deadline);
+                    } else {
+                        autoStop.cancel(taskId);
+                    }
+                });
+                unitOfWork.getActiveTasks().forEach((taskId, task) -> {
+                    if (task != null) {
+                        activeTasks.add(taskId, task.getName(), task.getStartTime());
+                    } else {
+                        activeTasks.remove(taskId);
+                    }
+                });
+                unitOfWork.getRenamedTasks().forEach(activeTasks::rename);
+                for (AuditRecord record : unitOfWork.getAuditRecords()) {
+                    auditLog.record(record.getTaskId(), record.getAction(), record.getOldValue(), record.getNewValue());
+                }
+                logger.info("Unit of work committed");
+                return result;
+            } catch (UnitOfWork.LockOrderException e) {
+                if (attempt >= lockPool.length) {
+                    throw new IllegalStateException("Unit of work could not acquire locks in order", e);
+                }
+                prelock = new TreeSet<>(unitOfWork.getTouchedStripes());
+                logger.debug("Retrying unit of work with locks {}", prelock);
+            } catch (SQLException e) {
+                throw new TaskTransactionException(e);
+            } finally {
+                if (unitOfWork != null) {
+                    unitOfWork.releaseLocks();
+                    // Ожидание блокировок задач не относится к задержке базы данных
+                    permit.exclude(unitOfWork.getLockWaitNanos());
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает историю изменений задачи в порядке выполнения изменений. Перед чтением журнал
+     * дописывает в базу записи, ожидающие в очереди, чтобы в историю попали только что выполненные изменения.
+     *
+     * @param taskId ID задачи
+     * @return записи журнала изменений задачи
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public List<AuditRecord> getTaskHistory(long taskId) {
+        if (!auditLog.flush(auditFlushTimeout)) {
+            logger.warn("Audit log not flushed in {}, history of task {} may be incomplete", auditFlushTimeout, taskId);
+        }
+        return admissionController.call(WorkType.READ, () -> auditDAO.getHistory(taskId, auditHistoryLimit));
+    }
+
+    /**
+     * Возвращает журнал изменений задач (для запуска, остановки и статистики).
+     *
+     * @return журнал изменений задач
+     */
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    /**
+     * Возвращает фильтр существующих ID задач (для статистики).
+     *
+     * @return фильтр ID задач
+     */
+    public TaskIdFilter getIdFilter() {
+        return idFilter;
+    }
+
+    /**
+     * Возвращает срок, в течение которого удалённую задачу можно восстановить.
+     *
+     * @return срок хранения удалённых задач
+     */
+    public Duration getDeleteRetention() {
+        return deleteRetention;
+    }
+
+    /**
+     * Возвращает автоматическую остановку задач (для запуска и статистики).
+     *
+     * @return автоматическая остановка задач
+     */
+    public AutoStopScheduler getAutoStop() {
+        return autoStop;
+    }
+
+    /**
+     * Возвращает кучу активных задач (для статистики).
+     *
+     * @return куча активных задач
+     */
+    public ActiveTaskHeap getActiveTasks() {
+        return activeTasks;
+    }
+
+    /**
+     * Возвращает объединение одинаковых чтений (для статистики).
+     *
+     * @return объединение чтений
+     */
+    public ReadCoalescer getReadCoalescer() {
+        return readCoalescer;
+    }
+
+    /**
+     * Возвращает контроль допуска операций сервиса (для статистики и настройки).
+     *
+     * @return контроль допуска
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
     /**
      * Вычисляет продолжительность выполнения задачи.
      * Если задача активна, возвращает продолжительность с момента начала до текущего времени.
@@ -203,4 +945,143 @@ public class TaskService {
         }
         return totalDuration;
     }
-}
\ No newline at end of file
+
+    /**
+     * Вычисляет продолжительность выполнения задачи по её компактному представлению,
+     * так же как {@link #getDuration(Task)}: у активной задачи - до текущего времени.
+     *
+     * @param task представление задачи
+     * @return Продолжительность выполнения задачи.
+     */
+    public Duration getDuration(TaskView task) {
+        long stopSeconds = task.getStopSeconds();
+        if (stopSeconds == TaskView.NO_STOP) {
+            if (task.getStatus() != TaskView.ACTIVE) {
+                return Duration.ZERO;
+            }
+            stopSeconds = TaskView.toSeconds(LocalDateTime.now());
+        }
+        return Duration.ofSeconds(stopSeconds - task.getStartSeconds());
+    }
+
+    /**
+     * Останавливает одним запросом все активные задачи, удовлетворяющие фильтру.
+     *
+     * @param filter условие отбора задач
+     * @return ID остановленных задач
+     * @throws IllegalArgumentException если фильтр не задаёт ни одного критерия
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public List<Long> stopTasks(TaskFilter filter) {
+        requireCriteria(filter);
+        if (allMissing(filter)) {
+            return new ArrayList<>();
+        }
+        return admissionController.call(WorkType.BULK, permit -> {
+            List<Lock> locks = lockAll(filter);
+            try {
+                Map<Long, String> previous = permit.measure(() -> taskDAO.stopTasks(filter));
+                List<Long> ids = new ArrayList<>(previous.keySet());
+                ids.forEach(autoStop::cancel);
+                ids.forEach(activeTasks::remove);
+                previous.forEach((id, status) -> auditLog.record(id, AuditAction.STOP, status, "Остановлена"));
+                readCoalescer.invalidate();
+                logger.info("Tasks stopped: {}", ids.size());
+                return ids;
+            } finally {
+                unlockAll(locks);
+            }
+        });
+    }
+
+    /**
+     * Завершает одним запросом все активные и остановленные задачи, удовлетворяющие фильтру.
+     *
+     * @param filter условие отбора задач
+     * @return ID завершённых задач
+     * @throws IllegalArgumentException если фильтр не задаёт ни одного критерия
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public List<Long> finishTasks(TaskFilter filter) {
+        requireCriteria(filter);
+        if (allMissing(filter)) {
+            return new ArrayList<>();
+        }
+        return admissionController.call(WorkType.BULK, permit -> {
+            List<Lock> locks = lockAll(filter);
+            try {
+                Map<Long, String> previous = permit.measure(() -> taskDAO.finishTasks(filter));
+                List<Long> ids = new ArrayList<>(previous.keySet());
+                ids.forEach(autoStop::cancel);
+                ids.forEach(activeTasks::remove);
+                previous.forEach((id, status) -> auditLog.record(id, AuditAction.FINISH, status, "Завершена"));
+                readCoalescer.invalidate();
+                logger.info("Tasks finished: {}", ids.size());
+                return ids;
+            } finally {
+                unlockAll(locks);
+            }
+        });
+    }
+
+    /**
+     * Удаляет одним запросом все задачи, удовлетворяющие фильтру.
+     *
+     * @param filter условие отбора задач
+     * @return ID удалённых задач
+     * @throws IllegalArgumentException если фильтр не задаёт ни одного критерия
+     * @throws org.example.exception.TaskRejectedException если сервис перегружен и операция отклонена
+     */
+    public List<Long> deleteTasks(TaskFilter filter) {
+        requireCriteria(filter);
+        if (allMissing(filter)) {
+            return new ArrayList<>();
+        }
+        return admissionController.call(WorkType.BULK, permit -> {
+            List<Lock> locks = lockAll(filter);
+            try {
+                Map<Long, String> previous = permit.measure(() -> taskDAO.deleteTasks(filter));
+                List<Long> ids = new ArrayList<>(previous.keySet());
+                ids.forEach(idFilter::remove);
+                ids.forEach(autoStop::cancel);
+                ids.forEach(activeTasks::remove);
+                previous.forEach((id, name) -> auditLog.record(id, AuditAction.DELETE, name, null));
+                readCoalescer.invalidate();
+                logger.info("Tasks deleted: {}", ids.size());
+                return ids;
+            } finally {
+                unlockAll(locks);
+            }
+        });
+    }
+
+    /**
+     * Проверяет по фильтру ID, что ни одной из перечисленных в условии задач точно нет.
+     *
+     * @param filter условие отбора задач
+     * @return true, если условие задаёт список ID и все они отсутствуют
+     */
+    private boolean allMissing(TaskFilter filter) {
+        if (filter.getIds() == null) {
+            return false;
+        }
+        for (Long taskId : filter.getIds()) {
+            if (idFilter.mightContain(taskId)) {
+                return false;
+            }
+        }
+        logger.warn("Bulk operation skipped, no task found with IDs: {} (rejected by id filter)", filter.getIds());
+        return true;
+    }
+
+    /**
+     * Запрещает массовые операции без критериев отбора, чтобы случайно не затронуть все задачи.
+     *
+     * @param filter условие отбора задач
+     */
+    private void requireCriteria(TaskFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            throw new IllegalArgumentException("Bulk operation requires at least one filter criterion");
+        }
+    }
+}
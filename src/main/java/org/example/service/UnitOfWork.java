@@ -0,0 +1,350 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.dao.DaoSession;
+import org.example.dao.TaskDAO;
+import org.example.entity.AuditAction;
+import org.example.entity.AuditRecord;
+import org.example.entity.Task;
+import org.example.exception.TaskNotFoundException;
+import org.example.exception.TaskTransactionException;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Единица работы: несколько операций над задачами, выполняемых в одной транзакции
+ * на одном соединении с переиспользованием подготовленных запросов.
+ * Создаётся методом {@link TaskService#inTransaction}, фиксируется или откатывается им же.
+ *
+ * <p>Блокировки задач захватываются по мере обращения к задачам и удерживаются до конца транзакции.
+ * Чтобы не допустить взаимоблокировки, блокировка с индексом меньше уже захваченных
+ * берётся только без ожидания; если она занята, единица работы откатывается и повторяется
+ * с заранее захваченными в порядке возрастания блокировками.
+ */
+public class UnitOfWork {
+
+    private static final Logger logger = LogManager.getLogger(UnitOfWork.class);
+
+    private final TaskDAO taskDAO;
+    private final DaoSession session;
+    private final Lock[] lockPool;
+    private final TreeSet<Integer> held = new TreeSet<>();
+    private final List<Lock> locks = new ArrayList<>();
+    private final TreeSet<Integer> touched = new TreeSet<>();
+    private final TaskIdFilter idFilter;
+    private final List<Long> addedIds = new ArrayList<>();
+    private final List<Long> deletedIds = new ArrayList<>();
+    private final AutoStopScheduler autoStop;
+    // Сроки автоматической остановки, изменённые в транзакции; null - срок отменён
+    private final Map<Long, LocalDateTime> autoStops = new LinkedHashMap<>();
+    // Активные задачи, добавленные в транзакции или переставшие быть активными (null), и новые названия задач
+    private final Map<Long, Task> activeTasks = new LinkedHashMap<>();
+    private final Map<Long, String> renamedTasks = new LinkedHashMap<>();
+    // Записи журнала изменений, передаваемые в журнал только после фиксации транзакции
+    private final List<AuditRecord> auditRecords = new ArrayList<>();
+    // Суммарное ожидание блокировок задач, не учитываемое в задержке базы данных
+    private long lockWaitNanos;
+
+    /**
+     * Конструктор для создания экземпляра UnitOfWork.
+     *
+     * @param taskDAO  DAO для работы с задачами
+     * @param session  транзакционный сеанс работы с базой данных
+     * @param lockPool пул блокировок сервиса
+     * @param prelock  индексы блокировок, захватываемых заранее в порядке возрастания
+     * @param idFilter фильтр существующих ID задач
+     * @param autoStop автоматическая остановка задач, назначающая срок добавленным задачам
+     */
+    UnitOfWork(TaskDAO taskDAO, DaoSession session, Lock[] lockPool, TreeSet<Integer> prelock, TaskIdFilter idFilter,
+               AutoStopScheduler autoStop) {
+        this.taskDAO = taskDAO;
+        this.session = session;
+        this.lockPool = lockPool;
+        this.idFilter = idFilter;
+        this.autoStop = autoStop;
+        for (int index : prelock) {
+            lockWaitNanos += TaskService.lockStripe(index, 0);
+            locks.add(lockPool[index]);
+            held.add(index);
+            touched.add(index);
+        }
+    }
+
+    /**
+     * Добавляет новую задачу с указанным именем.
+     *
+     * @param name имя задачи
+     * @return Optional с ID добавленной задачи
+     */
+    public Optional<Long> addTask(String name) {
+        Task task = new Task();
+        task.setName(name);
+        task.setStartTime(LocalDateTime.now());
+        task.setStatus("Активна");
+        task.setAutoStopAt(autoStop.deadlineFor(task.getStartTime()));
+        try {
+            // Блокировка новой задачи удерживается до обновления кучи, колеса таймеров и фильтра после фиксации,
+            // поэтому операции над задачей не видят её в базе раньше этих обновлений
+            long taskId = taskDAO.nextTaskId(session);
+            lock(taskId);
+            taskDAO.addTask(session, taskId, task);
+            addedIds.add(taskId);
+            activeTasks.put(taskId, task);
+            audit(taskId, AuditAction.ADD, null, name);
+            if (task.getAutoStopAt() != null) {
+                autoStops.put(taskId, task.getAutoStopAt());
+            }
+            return Optional.of(taskId);
+        } catch (SQLException e) {
+            throw new TaskTransactionException(e);
+        }
+    }
+
+    /**
+     * Обновляет имя задачи по её ID.
+     *
+     * @param taskId  ID задачи
+     * @param newName новое имя задачи
+     * @return true, если операция успешна, иначе false
+     */
+    public boolean updateTaskName(long taskId, String newName) {
+        if (!idFilter.mightContain(taskId)) {
+            logger.warn("Task not found with ID: {} (rejected by id filter)", taskId);
+            return false;
+        }
+        lock(taskId);
+        try {
+            Optional<String> oldName = taskDAO.renameTask(session, taskId, newName);
+            if (oldName.isPresent()) {
+                renamedTasks.put(taskId, newName);
+                audit(taskId, AuditAction.RENAME, oldName.get(), newName);
+            }
+            return oldName.isPresent();
+        } catch (SQLException e) {
+            throw new TaskTransactionException(e);
+        } catch (TaskNotFoundException e) {
+            logger.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Удаляет задачу по её ID.
+     *
+     * @param taskId ID задачи
+     * @return true, если операция успешна, иначе false
+     */
+    public boolean deleteTask(long taskId) {
+        if (!idFilter.mightContain(taskId)) {
+            logger.warn("Task not found with ID: {} (rejected by id filter)", taskId);
+            return false;
+        }
+        lock(taskId);
+        try {
+            Optional<String> name = taskDAO.deleteTask(session, taskId);
+            if (name.isPresent()) {
+                deletedIds.add(taskId);
+                autoStops.put(taskId, null);
+                activeTasks.put(taskId, null);
+                audit(taskId, AuditAction.DELETE, name.get(), null);
+            }
+            return name.isPresent();
+        } catch (SQLException e) {
+            throw new TaskTransactionException(e);
+        } catch (TaskNotFoundException e) {
+            logger.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Останавливает задачу по её ID.
+     *
+     * @param taskId ID задачи
+     * @return true, если операция успешна, иначе false
+     */
+    public boolean stopTask(long taskId) {
+        if (!idFilter.mightContain(taskId)) {
+            logger.warn("Task not found with ID: {} (rejected by id filter)", taskId);
+            return false;
+        }
+        lock(taskId);
+        try {
+            Optional<String> status = taskDAO.stopTask(session, taskId);
+            if (status.isPresent()) {
+                autoStops.put(taskId, null);
+                activeTasks.put(taskId, null);
+                audit(taskId, AuditAction.STOP, status.get(), "Остановлена");
+            }
+            return status.isPresent();
+        } catch (SQLException e) {
+            throw new TaskTransactionException(e);
+        } catch (TaskNotFoundException e) {
+            logger.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Завершает задачу по её ID.
+     *
+     * @param taskId ID задачи
+     * @return true, если операция успешна, иначе false
+     */
+    public boolean finishTask(long taskId) {
+        if (!idFilter.mightContain(taskId)) {
+            logger.warn("Task not found with ID: {} (rejected by id filter)", taskId);
+            return false;
+        }
+        lock(taskId);
+        try {
+            Optional<String> status = taskDAO.finishTask(session, taskId);
+            if (status.isPresent()) {
+                autoStops.put(taskId, null);
+                activeTasks.put(taskId, null);
+                audit(taskId, AuditAction.FINISH, status.get(), "Завершена");
+            }
+            return status.isPresent();
+        } catch (SQLException e) {
+            throw new TaskTransactionException(e);
+        } catch (TaskNotFoundException e) {
+            logger.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    private void audit(long taskId, AuditAction action, String oldValue, String newValue) {
+        AuditRecord record = new AuditRecord();
+        record.setTaskId(taskId);
+        record.setAction(action);
+        record.setOldValue(oldValue);
+        record.setNewValue(newValue);
+        auditRecords.add(record);
+    }
+
+    /**
+     * Захватывает блокировку задачи до конца транзакции.
+     * Блокировка с индексом больше всех захваченных берётся с ожиданием, что сохраняет порядок захвата;
+     * остальные - только если свободны, иначе единица работы прерывается для повтора.
+     *
+     * @param taskId ID задачи
+     * @throws LockOrderException если блокировку нельзя захватить без нарушения порядка
+     */
+    private void lock(long taskId) {
+        int index = TaskService.stripeOf(taskId);
+        touched.add(index);
+        if (held.contains(index)) {
+            return;
+        }
+        Lock lock = lockPool[index];
+        if (held.isEmpty() || index > held.last()) {
+            lockWaitNanos += TaskService.lockStripe(index, taskId);
+        } else if (!lock.tryLock()) {
+            throw new LockOrderException();
+        }
+        locks.add(lock);
+        held.add(index);
+    }
+
+    /**
+     * Возвращает ID задач, добавленных в транзакции.
+     *
+     * @return ID добавленных задач
+     */
+    List<Long> getAddedIds() {
+        return addedIds;
+    }
+
+    /**
+     * Возвращает ID задач, удалённых в транзакции.
+     *
+     * @return ID удалённых задач
+     */
+    List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Возвращает сроки автоматической остановки, изменённые в транзакции.
+     *
+     * @return сроки по ID задач; null означает, что срок отменён
+     */
+    Map<Long, LocalDateTime> getAutoStops() {
+        return autoStops;
+    }
+
+    /**
+     * Возвращает задачи, ставшие активными или переставшие быть активными в транзакции.
+     *
+     * @return задачи по ID; null означает, что задача больше не активна
+     */
+    Map<Long, Task> getActiveTasks() {
+        return activeTasks;
+    }
+
+    /**
+     * Возвращает новые названия задач, переименованных в транзакции.
+     *
+     * @return названия по ID задач
+     */
+    Map<Long, String> getRenamedTasks() {
+        return renamedTasks;
+    }
+
+    /**
+     * Возвращает изменения задач для журнала изменений в порядке их выполнения.
+     *
+     * @return записи журнала без исполнителя и времени изменения
+     */
+    List<AuditRecord> getAuditRecords() {
+        return auditRecords;
+    }
+
+    /**
+     * Возвращает суммарное время ожидания блокировок задач.
+     *
+     * @return время ожидания в наносекундах
+     */
+    long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    /**
+     * Возвращает индексы всех блокировок, к которым обращалась единица работы.
+     *
+     * @return индексы блокировок
+     */
+    TreeSet<Integer> getTouchedStripes() {
+        return touched;
+    }
+
+    /**
+     * Освобождает захваченные блокировки в порядке, обратном порядку захвата.
+     */
+    void releaseLocks() {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+        locks.clear();
+        held.clear();
+    }
+
+    /**
+     * Сигнал о том, что блокировку нельзя захватить без риска взаимоблокировки
+     * и единицу работы нужно повторить с заранее захваченными блокировками.
+     */
+    static class LockOrderException extends RuntimeException {
+        LockOrderException() {
+            super("Lock order violation, unit of work must be retried", null, false, false);
+        }
+    }
+}
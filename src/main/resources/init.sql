@@ -6,11 +6,401 @@ CREATE SEQUENCE task_sequence
     START WITH 1
     NO CYCLE;
 
+-- Дерево проектов (клиент -> проект -> подпроект).
+-- total_seconds - время задач проекта вместе со всеми подпроектами, own_seconds - только собственных задач.
+-- Оба счётчика поддерживаются триггерами на tasks и обновляются только при остановке,
+-- завершении, переназначении и удалении задач.
+CREATE TABLE IF NOT EXISTS projects (
+    id BIGSERIAL PRIMARY KEY,
+    parent_id BIGINT REFERENCES projects (id),
+    name VARCHAR(255) NOT NULL UNIQUE,
+    own_seconds BIGINT NOT NULL DEFAULT 0,
+    total_seconds BIGINT NOT NULL DEFAULT 0
+    );
+
+CREATE INDEX IF NOT EXISTS projects_parent_id_idx ON projects (parent_id);
+
+-- Оперативные задачи, секционированные помесячно по start_time.
+-- Ключ секционирования обязан входить в первичный ключ, поэтому PK составной.
 CREATE TABLE IF NOT EXISTS tasks (
-    id BIGINT PRIMARY KEY DEFAULT nextval('task_sequence'),
-    name VARCHAR(255) UNIQUE NOT NULL,
+    id BIGINT NOT NULL DEFAULT nextval('task_sequence'),
+    name VARCHAR(255) NOT NULL,
     start_time TIMESTAMP NOT NULL,
     stop_time TIMESTAMP,
-    status VARCHAR(50) NOT NULL DEFAULT 'Активна'
+    status VARCHAR(50) NOT NULL DEFAULT 'Активна',
+    project_id BIGINT REFERENCES projects (id),
+    -- Момент мягкого удаления: удалённая задача не видна в выборках и физически удаляется фоновой очисткой
+    deleted_at TIMESTAMP,
+    -- Транзакция последнего изменения задачи и момент его выполнения (для синхронизации клиентов)
+    change_xid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp(),
+    -- Срок автоматической остановки активной задачи; сроки загружаются в память при старте приложения
+    auto_stop_at TIMESTAMP,
+    -- Интервал выполнения задачи; у активной задачи интервал открыт до бесконечности
+    period TSRANGE GENERATED ALWAYS AS (
+        tsrange(start_time, GREATEST(start_time, COALESCE(stop_time, 'infinity'::TIMESTAMP)), '[)')) STORED,
+    PRIMARY KEY (id, start_time)
+    ) PARTITION BY RANGE (start_time);
+
+-- Страховочная секция для строк, для которых ещё не создана помесячная секция
+CREATE TABLE IF NOT EXISTS tasks_default PARTITION OF tasks DEFAULT;
+
+-- varchar_pattern_ops обслуживает и проверку уникальности (=), и поиск по шаблону (LIKE 'префикс%')
+CREATE INDEX IF NOT EXISTS tasks_name_idx ON tasks (name varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS tasks_status_start_time_idx ON tasks (status, start_time);
+CREATE INDEX IF NOT EXISTS tasks_project_id_idx ON tasks (project_id);
+-- GiST-индекс по интервалу обслуживает запросы пересечения с периодом (&&)
+CREATE INDEX IF NOT EXISTS tasks_period_idx ON tasks USING gist (period);
+-- Частичный индекс содержит только удалённые задачи и обслуживает фоновую очистку
+CREATE INDEX IF NOT EXISTS tasks_deleted_at_idx ON tasks (deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS tasks_change_xid_idx ON tasks (change_xid, id);
+
+-- Метки задач с суммарным временем помеченных задач
+CREATE TABLE IF NOT EXISTS tags (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    total_seconds BIGINT NOT NULL DEFAULT 0
     );
 
+-- Внешний ключ на секционированную tasks потребовал бы start_time, поэтому связи чистит триггер
+CREATE TABLE IF NOT EXISTS task_tags (
+    task_id BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL REFERENCES tags (id),
+    PRIMARY KEY (task_id, tag_id)
+    );
+
+-- Надгробия задач, физически удалённых из tasks (очисткой или архивацией), для синхронизации клиентов.
+-- Мягкое удаление надгробий не создаёт: удалённая строка сама сообщает клиентам об удалении.
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    task_id BIGINT PRIMARY KEY,
+    change_xid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+    );
+
+CREATE INDEX IF NOT EXISTS task_tombstones_change_xid_idx ON task_tombstones (change_xid, task_id);
+-- Обслуживает удаление устаревших надгробий
+CREATE INDEX IF NOT EXISTS task_tombstones_changed_at_idx ON task_tombstones (changed_at);
+
+-- Наибольшая транзакция среди очищенных надгробий: клиенту с токеном меньше неё
+-- могли не достаться удаления, и он должен выполнить полную синхронизацию
+CREATE TABLE IF NOT EXISTS task_sync_horizon (
+    pruned_xid XID8 NOT NULL
+    );
+
+INSERT INTO task_sync_horizon (pruned_xid) SELECT '0' WHERE NOT EXISTS (SELECT 1 FROM task_sync_horizon);
+
+-- Холодный архив завершённых задач, вынесенных из tasks фоновым архиватором
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    stop_time TIMESTAMP,
+    status VARCHAR(50) NOT NULL,
+    project_id BIGINT,
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+    );
+
+-- Обслуживает выгрузку архива в файлы за период
+CREATE INDEX IF NOT EXISTS tasks_archive_start_time_idx ON tasks_archive (start_time);
+
+-- Журнал изменений задач: кто, когда и как изменил задачу. Записи только добавляются.
+-- Внешнего ключа на tasks нет: история остаётся после удаления и архивации задачи.
+CREATE TABLE IF NOT EXISTS task_audit (
+    id BIGSERIAL PRIMARY KEY,
+    task_id BIGINT NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    old_value TEXT,
+    new_value TEXT,
+    actor VARCHAR(100) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+    );
+
+-- Обслуживает просмотр истории задачи
+CREATE INDEX IF NOT EXISTS task_audit_task_id_idx ON task_audit (task_id, changed_at);
+
+-- Запрещает изменение и удаление записей журнала.
+CREATE OR REPLACE FUNCTION task_audit_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'task_audit is append-only: % is not allowed', TG_OP
+        USING ERRCODE = 'insufficient_privilege';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_audit_append_only
+    BEFORE UPDATE OR DELETE OR TRUNCATE ON task_audit
+    FOR EACH STATEMENT EXECUTE FUNCTION task_audit_append_only();
+
+-- Уникальный индекс по name на секционированной таблице невозможен без start_time,
+-- поэтому уникальность названия среди оперативных задач проверяется триггером.
+-- Удалённые задачи не занимают название; при восстановлении задачи название проверяется заново.
+CREATE OR REPLACE FUNCTION tasks_check_unique_name() RETURNS trigger AS $$
+BEGIN
+    IF NEW.deleted_at IS NOT NULL THEN
+        RETURN NEW;
+    END IF;
+    PERFORM pg_advisory_xact_lock(hashtext(NEW.name));
+    IF EXISTS (SELECT 1 FROM tasks WHERE name = NEW.name AND id <> NEW.id AND deleted_at IS NULL) THEN
+        RAISE EXCEPTION 'duplicate key value violates unique constraint "tasks_name_key"'
+            USING ERRCODE = 'unique_violation', DETAIL = format('Key (name)=(%s) already exists.', NEW.name);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tasks_unique_name
+    BEFORE INSERT OR UPDATE OF name, deleted_at ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_check_unique_name();
+
+-- Записывает в задачу транзакцию, изменившую видимые клиентам поля.
+-- Срок автоматической остановки клиентам не передаётся и транзакцию изменения не меняет.
+CREATE OR REPLACE FUNCTION tasks_bump_change_xid() RETURNS trigger AS $$
+BEGIN
+    IF (NEW.name, NEW.start_time, NEW.stop_time, NEW.status, NEW.project_id, NEW.deleted_at)
+        IS DISTINCT FROM (OLD.name, OLD.start_time, OLD.stop_time, OLD.status, OLD.project_id, OLD.deleted_at) THEN
+        NEW.change_xid := pg_current_xact_id();
+        NEW.changed_at := clock_timestamp();
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tasks_bump_change_xid
+    BEFORE UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_bump_change_xid();
+
+-- Записывает надгробие физически удалённой задачи.
+-- Перенос строк между секциями (timetracker.moving_partitions = 'on') надгробий не создаёт.
+CREATE OR REPLACE FUNCTION tasks_tombstone() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('timetracker.moving_partitions', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO task_tombstones (task_id) VALUES (OLD.id)
+    ON CONFLICT (task_id) DO UPDATE SET change_xid = pg_current_xact_id(), changed_at = clock_timestamp();
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tasks_tombstone
+    AFTER DELETE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_tombstone();
+
+-- Учитываемое время задачи: от начала до остановки, пока задача не активна.
+CREATE OR REPLACE FUNCTION task_seconds(start_time TIMESTAMP, stop_time TIMESTAMP, status VARCHAR) RETURNS BIGINT AS $$
+    SELECT CASE WHEN status <> 'Активна' AND stop_time IS NOT NULL
+                THEN floor(extract(EPOCH FROM stop_time - start_time))::BIGINT
+                ELSE 0 END;
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Применяет изменения учтённого времени задач одного оператора: суммирует их по проектам (вместе с предками)
+-- и по меткам и обновляет каждую строку один раз. Строки блокируются по возрастанию id, поэтому операторы,
+-- затрагивающие общих предков или метки, ждут друг друга, а не взаимоблокируются.
+CREATE OR REPLACE FUNCTION apply_task_seconds(task_ids BIGINT[], project_ids BIGINT[], deltas BIGINT[]) RETURNS void AS $$
+DECLARE
+    ids BIGINT[];
+    totals BIGINT[];
+    owns BIGINT[];
+BEGIN
+    WITH RECURSIVE changes AS (
+        SELECT project_id, sum(seconds)::BIGINT AS seconds
+        FROM unnest(project_ids, deltas) AS c (project_id, seconds)
+        WHERE project_id IS NOT NULL
+        GROUP BY project_id
+    ), ancestors AS (
+        SELECT p.id, p.parent_id, c.seconds, c.seconds AS own
+        FROM projects p JOIN changes c ON p.id = c.project_id
+        UNION ALL
+        SELECT p.id, p.parent_id, a.seconds, 0::BIGINT
+        FROM projects p JOIN ancestors a ON p.id = a.parent_id
+    )
+    SELECT array_agg(id ORDER BY id), array_agg(total ORDER BY id), array_agg(own ORDER BY id)
+    INTO ids, totals, owns
+    FROM (SELECT id, sum(seconds)::BIGINT AS total, sum(own)::BIGINT AS own
+          FROM ancestors GROUP BY id HAVING sum(seconds) <> 0 OR sum(own) <> 0) s;
+    IF ids IS NOT NULL THEN
+        PERFORM 1 FROM projects WHERE id = ANY (ids) ORDER BY id FOR UPDATE;
+        UPDATE projects p SET total_seconds = p.total_seconds + d.total, own_seconds = p.own_seconds + d.own
+        FROM unnest(ids, totals, owns) AS d (id, total, own)
+        WHERE p.id = d.id;
+    END IF;
+
+    SELECT array_agg(tag_id ORDER BY tag_id), array_agg(seconds ORDER BY tag_id)
+    INTO ids, totals
+    FROM (SELECT tt.tag_id, sum(c.seconds)::BIGINT AS seconds
+          FROM unnest(task_ids, deltas) AS c (task_id, seconds)
+          JOIN task_tags tt ON tt.task_id = c.task_id
+          GROUP BY tt.tag_id HAVING sum(c.seconds) <> 0) s;
+    IF ids IS NOT NULL THEN
+        PERFORM 1 FROM tags WHERE id = ANY (ids) ORDER BY id FOR UPDATE;
+        UPDATE tags t SET total_seconds = t.total_seconds + d.seconds
+        FROM unnest(ids, totals) AS d (id, seconds)
+        WHERE t.id = d.id;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Поддерживает суммарное время проектов и меток при изменении задач.
+-- Триггер срабатывает один раз на оператор: изменённые строки берутся из таблиц переходов old_rows и new_rows,
+-- и итоги обновляются одним вызовом apply_task_seconds вместо обновления предков для каждой строки.
+-- Мягко удалённая задача не учитывается, поэтому её удаление, восстановление и физическая очистка
+-- меняют итоги так же, как удаление и добавление задачи.
+-- При архивации и переносе строк между секциями (timetracker.maintenance = 'on') учтённое время сохраняется.
+CREATE OR REPLACE FUNCTION tasks_rollup() RETURNS trigger AS $$
+DECLARE
+    task_ids BIGINT[];
+    project_ids BIGINT[];
+    deltas BIGINT[];
+BEGIN
+    IF current_setting('timetracker.maintenance', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(id), array_agg(project_id), array_agg(seconds)
+        INTO task_ids, project_ids, deltas
+        FROM (SELECT id, project_id, task_seconds(start_time, stop_time, status) AS seconds
+              FROM new_rows WHERE deleted_at IS NULL) c
+        WHERE seconds <> 0;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(id), array_agg(project_id), array_agg(-seconds)
+        INTO task_ids, project_ids, deltas
+        FROM (SELECT id, project_id, task_seconds(start_time, stop_time, status) AS seconds
+              FROM old_rows WHERE deleted_at IS NULL) c
+        WHERE seconds <> 0;
+    ELSE
+        -- Время задачи снимается со старого проекта и добавляется новому; при неизменном проекте
+        -- обе части складываются в разницу
+        SELECT array_agg(c.id), array_agg(c.project_id), array_agg(c.seconds)
+        INTO task_ids, project_ids, deltas
+        FROM old_rows o
+        JOIN new_rows n ON n.id = o.id
+        CROSS JOIN LATERAL (VALUES
+            (o.id, o.project_id, CASE WHEN o.deleted_at IS NULL
+                                      THEN -task_seconds(o.start_time, o.stop_time, o.status) ELSE 0 END),
+            (n.id, n.project_id, CASE WHEN n.deleted_at IS NULL
+                                      THEN task_seconds(n.start_time, n.stop_time, n.status) ELSE 0 END)
+        ) AS c (id, project_id, seconds)
+        WHERE (o.status, o.stop_time, o.start_time, o.project_id, o.deleted_at)
+                  IS DISTINCT FROM (n.status, n.stop_time, n.start_time, n.project_id, n.deleted_at)
+          AND c.seconds <> 0;
+    END IF;
+    IF task_ids IS NOT NULL THEN
+        PERFORM apply_task_seconds(task_ids, project_ids, deltas);
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM task_tags WHERE task_id IN (SELECT id FROM old_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Таблица переходов допускает только одно событие на триггер и не допускает списка столбцов
+CREATE TRIGGER tasks_rollup_insert
+    AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_rollup();
+
+CREATE TRIGGER tasks_rollup_update
+    AFTER UPDATE ON tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_rollup();
+
+CREATE TRIGGER tasks_rollup_delete
+    AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_rollup();
+
+-- Учитывает время уже остановленной задачи при добавлении и снятии метки.
+-- Время удалённой задачи уже вычтено из итогов меток.
+CREATE OR REPLACE FUNCTION task_tags_rollup() RETURNS trigger AS $$
+DECLARE
+    seconds BIGINT;
+BEGIN
+    SELECT task_seconds(start_time, stop_time, status) INTO seconds
+    FROM tasks WHERE id = COALESCE(NEW.task_id, OLD.task_id) AND deleted_at IS NULL;
+    IF COALESCE(seconds, 0) <> 0 THEN
+        UPDATE tags SET total_seconds = total_seconds + CASE WHEN TG_OP = 'INSERT' THEN seconds ELSE -seconds END
+        WHERE id = COALESCE(NEW.tag_id, OLD.tag_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_tags_rollup
+    AFTER INSERT OR DELETE ON task_tags
+    FOR EACH ROW EXECUTE FUNCTION task_tags_rollup();
+
+-- Создаёт секцию tasks за месяц, которому принадлежит month_start.
+-- Строки, успевшие попасть в секцию по умолчанию, переносятся в новую секцию.
+CREATE OR REPLACE FUNCTION create_task_partition(month_start DATE) RETURNS void AS $$
+DECLARE
+    from_ts   TIMESTAMP := date_trunc('month', month_start);
+    to_ts     TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    part_name TEXT := format('tasks_y%sm%s', to_char(from_ts, 'YYYY'), to_char(from_ts, 'MM'));
+    columns   TEXT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('tasks_partitions'));
+    IF to_regclass(part_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM tasks_default WHERE start_time >= from_ts AND start_time < to_ts) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)', part_name, from_ts, to_ts);
+        RETURN;
+    END IF;
+
+    SELECT string_agg(quote_ident(attname), ', ' ORDER BY attnum) INTO columns
+    FROM pg_attribute
+    WHERE attrelid = 'tasks'::regclass AND attnum > 0 AND NOT attisdropped AND attgenerated = '';
+
+    -- Перенос строк между секциями не меняет учтённое время проектов и меток
+    PERFORM set_config('timetracker.maintenance', 'on', true);
+    PERFORM set_config('timetracker.moving_partitions', 'on', true);
+    ALTER TABLE tasks DETACH PARTITION tasks_default;
+    EXECUTE format('CREATE TABLE %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)', part_name, from_ts, to_ts);
+    EXECUTE format('INSERT INTO tasks (%s) SELECT %s FROM tasks_default WHERE start_time >= %L AND start_time < %L',
+                   columns, columns, from_ts, to_ts);
+    DELETE FROM tasks_default WHERE start_time >= from_ts AND start_time < to_ts;
+    ALTER TABLE tasks ATTACH PARTITION tasks_default DEFAULT;
+    PERFORM set_config('timetracker.moving_partitions', 'off', true);
+    PERFORM set_config('timetracker.maintenance', 'off', true);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Гарантирует наличие секций за текущий месяц и months_ahead следующих.
+CREATE OR REPLACE FUNCTION ensure_task_partitions(months_ahead INT) RETURNS void AS $$
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        PERFORM create_task_partition((date_trunc('month', now()) + make_interval(months => i))::DATE);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Отключает и удаляет опустевшие помесячные секции, целиком лежащие раньше older_than.
+-- Возвращает количество удалённых секций.
+CREATE OR REPLACE FUNCTION drop_empty_task_partitions(older_than TIMESTAMP) RETURNS INT AS $$
+DECLARE
+    part    RECORD;
+    is_used BOOLEAN;
+    dropped INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('tasks_partitions'));
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'tasks'::regclass
+          AND c.relname ~ '^tasks_y[0-9]{4}m[0-9]{2}$'
+          AND to_date(substr(c.relname, 8), 'YYYY"m"MM') + INTERVAL '1 month' <= older_than
+    LOOP
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', part.relname) INTO is_used;
+        IF NOT is_used THEN
+            EXECUTE format('ALTER TABLE tasks DETACH PARTITION %I', part.relname);
+            EXECUTE format('DROP TABLE %I', part.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_task_partitions(2);
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.example.entity.Task;
+import org.example.service.ActiveTaskHeap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Класс для тестирования кучи активных задач (ActiveTaskHeap).
+ */
+public class ActiveTaskHeapTest {
+
+    /**
+     * Тестируем порядок задач: раньше начатые первыми, при равном начале - по ID.
+     */
+    @Test
+    @DisplayName("Тестируем порядок самых долгих задач")
+    void testTopOrder() {
+        // Подготовка данных
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 9, 0);
+        ActiveTaskHeap heap = new ActiveTaskHeap();
+        heap.add(5, "Почта", start.plusHours(2));
+        heap.add(3, "Отчёт", start);
+        heap.add(1, "Созвон", start);
+        heap.add(7, "Ревью", start.plusHours(1));
+        heap.add(5, "Почта", start.minusHours(1)); // повторное добавление заменяет время начала
+
+        // Вызов метода
+        List<Task> top = heap.top(3);
+
+        // Проверки
+        assertEquals(List.of(5L, 1L, 3L), top.stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals("Активна", top.get(0).getStatus());
+        assertEquals(4, heap.top(10).size());
+        assertEquals(List.of(), heap.top(0));
+    }
+
+    /**
+     * Тестируем кучу на случайных добавлениях и удалениях против полной сортировки.
+     */
+    @Test
+    @DisplayName("Тестируем случайные добавления и удаления")
+    void testRandomOperations() {
+        // Подготовка данных
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 5, 1, 0, 0);
+        ActiveTaskHeap heap = new ActiveTaskHeap();
+        Map<Long, LocalDateTime> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(2000);
+            // Вызов метода
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, heap.remove(id));
+            } else {
+                LocalDateTime startTime = start.plusMinutes(random.nextInt(500));
+                heap.add(id, "task-" + id, startTime);
+                expected.put(id, startTime);
+            }
+
+            // Проверки
+            if (i % 500 == 0) {
+                List<Long> top = heap.top(20).stream().map(Task::getId).collect(Collectors.toList());
+                List<Long> sorted = new ArrayList<>(expected.keySet());
+                sorted.sort(Comparator.comparing((Long taskId) -> expected.get(taskId)).thenComparing(taskId -> taskId));
+                assertEquals(sorted.subList(0, Math.min(20, sorted.size())), top);
+            }
+        }
+        assertEquals(expected.size(), heap.size());
+    }
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import org.example.exception.TaskRejectedException;
+import org.example.service.AdmissionController;
+import org.example.service.AdmissionController.WorkType;
+import org.example.service.Bulkhead;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Класс для тестирования контроля допуска (AdmissionController) и отсеков (Bulkhead).
+ */
+public class AdmissionControllerTest {
+
+    /**
+     * Тестируем отклонение операции при исчерпанном лимите и переполненной очереди.
+     */
+    @Test
+    @DisplayName("Тестируем отклонение операции при переполненной очереди")
+    void testRejectWhenQueueIsFull() {
+        // Подготовка данных: лимит 1, очередь отсутствует
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 1, 0, 100, 2.0, 0.9);
+
+        // Проверки
+        assertTrue(bulkhead.acquire());
+        assertFalse(bulkhead.acquire());
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        bulkhead.release(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(bulkhead.acquire());
+    }
+
+    /**
+     * Тестируем снижение лимита при росте задержки и его восстановление при быстрых ответах.
+     */
+    @Test
+    @DisplayName("Тестируем адаптивное изменение лимита по задержке")
+    void testLimitAdaptsToLatency() {
+        // Подготовка данных
+        Bulkhead bulkhead = new Bulkhead("test", 8, 1, 8, 0, 0, 2.0, 0.5);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+        long slow = TimeUnit.MILLISECONDS.toNanos(50);
+
+        // Задаём минимальную задержку, затем отвечаем медленно
+        runBatch(bulkhead, 8, fast);
+        for (int i = 0; i < 5; i++) {
+            runBatch(bulkhead, bulkhead.getLimit(), slow);
+        }
+        int reduced = bulkhead.getLimit();
+        assertTrue(reduced < 8, "limit should shrink under slow responses, was " + reduced);
+
+        // При быстрых ответах и полной загрузке лимит снова растёт
+        for (int i = 0; i < 100; i++) {
+            runBatch(bulkhead, bulkhead.getLimit(), fast);
+        }
+        assertTrue(bulkhead.getLimit() > reduced, "limit should grow back under fast responses");
+    }
+
+    /**
+     * Тестируем, что ожидающая операция допускается после освобождения места.
+     */
+    @Test
+    @DisplayName("Тестируем допуск ожидающей операции после освобождения места")
+    void testQueuedOperationIsAdmitted() throws Exception {
+        // Подготовка данных
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 1, 1, 5000, 2.0, 0.9);
+        assertTrue(bulkhead.acquire());
+        CountDownLatch admitted = new CountDownLatch(1);
+
+        // Вызов метода в отдельном потоке
+        Thread waiter = new Thread(() -> {
+            if (bulkhead.acquire()) {
+                admitted.countDown();
+            }
+        });
+        waiter.start();
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+        bulkhead.release(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // Проверки
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        waiter.join();
+    }
+
+    /**
+     * Тестируем, что контроль допуска выбрасывает TaskRejectedException при перегрузке.
+     */
+    @Test
+    @DisplayName("Тестируем исключение при перегрузке отсека")
+    void testCallThrowsWhenOverloaded() {
+        // Подготовка данных
+        Bulkhead write = new Bulkhead("WRITE", 1, 1, 1, 0, 0, 2.0, 0.9);
+        AdmissionController controller = new AdmissionController(
+                new Bulkhead("READ", 1, 1, 1, 0, 0, 2.0, 0.9), write,
+                new Bulkhead("BULK", 1, 1, 1, 0, 0, 2.0, 0.9));
+
+        // Вызов метода и проверка исключения
+        assertEquals(42, controller.call(WorkType.WRITE, () -> 42));
+        assertTrue(write.acquire());
+        assertThrows(TaskRejectedException.class, () -> controller.call(WorkType.WRITE, () -> 42));
+        assertEquals(7, controller.call(WorkType.READ, () -> 7));
+    }
+
+    /**
+     * Тестируем, что ожидание вне обращения к базе данных не снижает лимит отсека.
+     */
+    @Test
+    @DisplayName("Тестируем замер задержки только вокруг обращения к базе")
+    void testOnlyDatabaseCallIsMeasured() {
+        // Подготовка данных
+        Bulkhead write = new Bulkhead("WRITE", 4, 1, 4, 0, 0, 5.0, 0.5);
+        AdmissionController controller = new AdmissionController(
+                new Bulkhead("READ", 1, 1, 1, 0, 0, 2.0, 0.9), write,
+                new Bulkhead("BULK", 1, 1, 1, 0, 0, 2.0, 0.9));
+        controller.call(WorkType.WRITE, permit -> permit.measure(() -> sleep(1)));
+
+        // Вызов метода: долгое ожидание (как ожидание блокировки задачи) вне замеряемого обращения
+        for (int i = 0; i < 10; i++) {
+            controller.call(WorkType.WRITE, permit -> {
+                sleep(50);
+                return permit.measure(() -> sleep(1));
+            });
+        }
+
+        // Проверки
+        assertEquals(4, write.getLimit());
+
+        // Без замера обращения ожидание входит в задержку и лимит снижается
+        for (int i = 0; i < 10; i++) {
+            controller.call(WorkType.WRITE, () -> sleep(50));
+        }
+        assertTrue(write.getLimit() < 4, "limit should shrink when waits are measured, was " + write.getLimit());
+    }
+
+    /**
+     * Тестируем, что лимиты отсеков по умолчанию в сумме не превышают размер пула соединений.
+     */
+    @Test
+    @DisplayName("Тестируем лимиты по умолчанию в пределах пула соединений")
+    void testDefaultLimitsFitPool() {
+        // Вызов метода
+        AdmissionController controller = AdmissionController.fromEnvironment();
+
+        // Проверки: при размере пула 10 одно соединение остаётся фоновым задачам
+        int total = 0;
+        for (WorkType type : WorkType.values()) {
+            total += controller.getBulkhead(type).getMaxLimit();
+        }
+        assertTrue(total <= 10, "bulkheads admit more than the pool size: " + total);
+    }
+
+    private static void runBatch(Bulkhead bulkhead, int size, long rttNanos) {
+        for (int i = 0; i < size; i++) {
+            assertTrue(bulkhead.acquire());
+        }
+        for (int i = 0; i < size; i++) {
+            bulkhead.release(rttNanos);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import org.example.archive.ArchiveReader;
+import org.example.archive.ArchiveStore;
+import org.example.archive.ArchiveTotals;
+import org.example.archive.ArchiveWriter;
+import org.example.entity.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Класс для тестирования файлов архива задач (ArchiveWriter, ArchiveReader, ArchiveStore).
+ */
+public class ArchiveFileTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Тестируем, что задачи читаются из файла архива в том виде, в котором были записаны.
+     */
+    @Test
+    @DisplayName("Тестируем запись и чтение файла архива")
+    void testRoundTrip() throws Exception {
+        // Подготовка данных
+        List<Task> tasks = List.of(
+                task(1500, "Отчёт", FROM.plusHours(1), FROM.plusHours(3), "Завершена", 7L),
+                task(12, "Отчёт", FROM.plusHours(2).plusNanos(250_000_000), FROM.plusDays(40), "Остановлена", null),
+                task(1501, "Code review", FROM.plusHours(2).plusNanos(250_000_000), null, "Активна", 0L),
+                task(1502, "Созвон ☎", FROM.plusDays(30), FROM.plusDays(30).plusMinutes(15), "Завершена", 123456789L));
+        ArchiveWriter writer = new ArchiveWriter(FROM, TO);
+        tasks.forEach(writer::add);
+        Path file = directory.resolve("tasks.tta");
+
+        // Вызов метода
+        long written = writer.writeTo(file);
+        List<Task> read = new ArrayList<>();
+        try (ArchiveReader reader = ArchiveReader.open(file)) {
+            reader.forEachTask(read::add);
+
+            // Проверки
+            assertEquals(Files.size(file), written);
+            assertEquals(tasks.size(), reader.getRowCount());
+            assertEquals(FROM, reader.getFrom());
+            assertEquals(TO, reader.getTo());
+        }
+        assertEquals(tasks.size(), read.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task expected = tasks.get(i);
+            Task actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getStartTime(), actual.getStartTime());
+            assertEquals(expected.getStopTime(), actual.getStopTime());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            // ID проекта 0 не используется базой и в архиве означает, что проект не назначен
+            assertEquals(expected.getProjectId() != null && expected.getProjectId() != 0 ? expected.getProjectId() : null,
+                    actual.getProjectId());
+        }
+    }
+
+    /**
+     * Тестируем итоги по архиву: время обрезается периодом, неопубликованные
+     * и не пересекающиеся с периодом файлы не учитываются.
+     */
+    @Test
+    @DisplayName("Тестируем итоги по файлам архива")
+    void testTotals() throws Exception {
+        // Подготовка данных
+        ArchiveStore store = new ArchiveStore(directory.resolve("archive"));
+        ArchiveWriter january = new ArchiveWriter(FROM, TO);
+        january.add(task(1, "Отчёт", FROM.plusHours(9), FROM.plusHours(11), "Завершена", 5L));
+        january.add(task(2, "Почта", FROM.plusHours(10), FROM.plusHours(10).plusMinutes(30), "Завершена", null));
+        january.add(task(3, "Отчёт", FROM.plusDays(1).plusHours(9), FROM.plusDays(1).plusHours(10), "Остановлена", 5L));
+        january.add(task(4, "Забытая", FROM.plusDays(2), null, "Активна", null));
+        Path janFile = store.newFile(FROM, TO);
+        january.writeTo(janFile);
+        store.publish(janFile);
+
+        ArchiveWriter february = new ArchiveWriter(TO, TO.plusMonths(1));
+        february.add(task(5, "Отчёт", TO.plusHours(9), TO.plusHours(12), "Завершена", 5L));
+        Path febFile = store.newFile(TO, TO.plusMonths(1));
+        february.writeTo(febFile);
+        store.publish(febFile);
+
+        ArchiveWriter pending = new ArchiveWriter(FROM, TO);
+        pending.add(task(6, "Не опубликована", FROM.plusHours(9), FROM.plusHours(20), "Завершена", null));
+        pending.writeTo(store.newFile(FROM, TO));
+
+        // Вызов метода
+        ArchiveTotals totals = store.totals(FROM.plusHours(10), FROM.plusDays(1).plusHours(9).plusMinutes(30));
+
+        // Проверки
+        assertEquals(2, store.files().size());
+        assertEquals(1, totals.getFiles()); // февральский файл пропущен по заголовку
+        assertEquals(3, totals.getTasks());
+        assertEquals(Duration.ofMinutes(60 + 30 + 30), totals.getTracked());
+        assertEquals(Duration.ofMinutes(90), totals.getTrackedByProject().get(5L));
+        assertEquals(Duration.ofMinutes(30), totals.getTrackedByProject().get(0L));
+    }
+
+    private static Task task(long id, String name, LocalDateTime start, LocalDateTime stop, String status, Long projectId) {
+        Task task = new Task();
+        task.setId(id);
+        task.setName(name);
+        task.setStartTime(start);
+        task.setStopTime(stop);
+        task.setStatus(status);
+        task.setProjectId(projectId);
+        return task;
+    }
+}
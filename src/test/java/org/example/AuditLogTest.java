@@ -0,0 +1,108 @@
+package org.example;
+
+import org.example.dao.AuditDAO;
+import org.example.entity.AuditAction;
+import org.example.entity.AuditRecord;
+import org.example.service.AuditLog;
+import org.example.service.AuditLog.ShutdownMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс для тестирования асинхронного журнала изменений задач (AuditLog).
+ */
+public class AuditLogTest {
+
+    /**
+     * Тестируем запись накопленных до запуска записей пакетами не больше заданного размера.
+     */
+    @Test
+    @DisplayName("Тестируем пакетную запись журнала и ожидание записи")
+    void testBatchedFlush() {
+        // Подготовка данных
+        AuditDAO auditDAO = mock(AuditDAO.class);
+        List<List<AuditRecord>> batches = new ArrayList<>();
+        when(auditDAO.insertRecords(anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.getArgument(0)));
+            return true;
+        });
+        AuditLog auditLog = new AuditLog(auditDAO, "tester", 100, 4, Duration.ofMillis(10),
+                ShutdownMode.FLUSH, Duration.ofSeconds(5));
+        for (long taskId = 1; taskId <= 10; taskId++) {
+            auditLog.record(taskId, AuditAction.ADD, null, "Задача " + taskId);
+        }
+
+        // Вызов метода
+        assertFalse(auditLog.flush(Duration.ZERO));
+        auditLog.start();
+        assertTrue(auditLog.flush(Duration.ofSeconds(5)));
+        auditLog.close();
+
+        // Проверки
+        assertEquals(List.of(4, 4, 2), batches.stream().map(List::size).collect(Collectors.toList()));
+        AuditRecord first = batches.get(0).get(0);
+        assertEquals(1L, first.getTaskId());
+        assertEquals("Задача 1", first.getNewValue());
+        assertEquals("tester", first.getActor());
+        assertNotNull(first.getChangedAt());
+        assertEquals(0, auditLog.getDropped());
+    }
+
+    /**
+     * Тестируем повтор записи пакета после ошибки базы данных без потери записей.
+     */
+    @Test
+    @DisplayName("Тестируем повтор записи пакета после ошибки")
+    void testRetryAfterFailure() {
+        // Подготовка данных
+        AuditDAO auditDAO = mock(AuditDAO.class);
+        when(auditDAO.insertRecords(anyList())).thenReturn(false, true);
+        AuditLog auditLog = new AuditLog(auditDAO, "tester", 100, 10, Duration.ofMillis(10),
+                ShutdownMode.FLUSH, Duration.ofSeconds(5));
+        auditLog.start();
+
+        // Вызов метода
+        auditLog.record(1, AuditAction.RENAME, "Старое", "Новое");
+        boolean flushed = auditLog.flush(Duration.ofSeconds(5));
+        auditLog.close();
+
+        // Проверки
+        assertTrue(flushed);
+        verify(auditDAO, times(2)).insertRecords(anyList());
+        assertEquals(0, auditLog.getDropped());
+    }
+
+    /**
+     * Тестируем отбрасывание записей при заполненной очереди и при закрытии в режиме drop.
+     */
+    @Test
+    @DisplayName("Тестируем отбрасывание записей при заполненной очереди и закрытии")
+    void testDropWhenFullAndOnClose() {
+        // Подготовка данных: журнал не запущен, поэтому записи остаются в очереди
+        AuditDAO auditDAO = mock(AuditDAO.class);
+        AuditLog auditLog = new AuditLog(auditDAO, "tester", 2, 10, Duration.ofMillis(10),
+                ShutdownMode.DROP, Duration.ofSeconds(5));
+
+        // Вызов метода
+        auditLog.record(1, AuditAction.STOP, "Активна", "Остановлена");
+        auditLog.record(2, AuditAction.STOP, "Активна", "Остановлена");
+        auditLog.record(3, AuditAction.STOP, "Активна", "Остановлена");
+        assertEquals(2, auditLog.getPending());
+        auditLog.close();
+        auditLog.record(4, AuditAction.DELETE, null, null);
+
+        // Проверки
+        assertEquals(0, auditLog.getPending());
+        assertEquals(4, auditLog.getDropped());
+        verify(auditDAO, never()).insertRecords(anyList());
+    }
+}
@@ -0,0 +1,166 @@
+package org.example;
+
+import org.example.exception.TaskTransactionException;
+import org.example.service.AutoStopScheduler;
+import org.example.service.HashedTimingWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Класс для тестирования колеса таймеров (HashedTimingWheel) и сроков автоматической остановки.
+ */
+public class HashedTimingWheelTest {
+
+    /**
+     * Тестируем, что срок срабатывает не раньше себя, в том числе через несколько оборотов колеса.
+     */
+    @Test
+    @DisplayName("Тестируем срабатывание сроков по тикам и оборотам колеса")
+    void testAdvance() {
+        // Подготовка данных: тик 100 мс, 8 корзин - оборот колеса 800 мс
+        HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofMillis(100), 8, 0);
+        wheel.schedule(1, 250);
+        wheel.schedule(2, 1050); // та же корзина через оборот
+        wheel.schedule(3, 300);
+        wheel.schedule(4, -50); // срок в прошлом
+
+        // Вызов метода и проверки
+        assertEquals(List.of(4L), wheel.advance(100));
+        assertEquals(List.of(), wheel.advance(299));
+        assertEquals(List.of(3L, 1L), wheel.advance(300));
+        assertEquals(List.of(), wheel.advance(1000));
+        assertTrue(wheel.contains(2));
+        assertEquals(List.of(2L), wheel.advance(1100));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Тестируем отмену и перенос сроков и скачок времени больше оборота колеса.
+     */
+    @Test
+    @DisplayName("Тестируем отмену, перенос сроков и скачок времени")
+    void testCancelRescheduleAndJump() {
+        // Подготовка данных
+        HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofMillis(100), 8, 0);
+        wheel.schedule(1, 200);
+        wheel.schedule(2, 200);
+        wheel.schedule(3, 500);
+
+        // Вызов метода
+        assertTrue(wheel.cancel(1));
+        assertFalse(wheel.cancel(1));
+        wheel.schedule(2, 10_000);
+
+        // Проверки
+        assertEquals(List.of(), wheel.advance(400));
+        assertEquals(List.of(3L), wheel.advance(500));
+        assertEquals(List.of(2L), wheel.advance(60_000));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Сверяем колесо с простой моделью на случайной последовательности операций,
+     * чтобы проверить индекс ID с открытой адресацией при росте и удалениях.
+     */
+    @Test
+    @DisplayName("Тестируем колесо на случайных операциях")
+    void testRandomOperations() {
+        // Подготовка данных
+        HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofMillis(10), 64, 0);
+        Map<Long, Long> model = new HashMap<>();
+        Random random = new Random(42);
+        long now = 0;
+
+        // Вызов метода и проверки
+        for (int step = 0; step < 200_000; step++) {
+            long id = random.nextInt(20_000);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                long deadline = now + random.nextInt(5_000);
+                wheel.schedule(id, deadline);
+                model.put(id, Math.max(deadline, (now / 10 + 1) * 10));
+            } else if (op < 9) {
+                assertEquals(model.remove(id) != null, wheel.cancel(id));
+            } else {
+                now += random.nextInt(50);
+                long current = now;
+                List<Long> expected = new ArrayList<>();
+                model.forEach((key, deadline) -> {
+                    if (deadline <= current - current % 10) {
+                        expected.add(key);
+                    }
+                });
+                List<Long> expired = wheel.advance(now);
+                expected.forEach(model::remove);
+                assertEquals(expected.size(), expired.size());
+                assertTrue(expired.containsAll(expected));
+            }
+        }
+        assertEquals(model.size(), wheel.size());
+        model.keySet().forEach(id -> assertTrue(wheel.contains(id)));
+    }
+
+    /**
+     * Тестируем срок автоматической остановки по максимальной длительности и по времени отсечки.
+     */
+    @Test
+    @DisplayName("Тестируем вычисление срока автоостановки")
+    void testDeadlineFor() {
+        // Подготовка данных
+        LocalDateTime morning = LocalDateTime.of(2024, 3, 1, 9, 0);
+        LocalDateTime night = LocalDateTime.of(2024, 3, 1, 23, 30);
+        AutoStopScheduler both = new AutoStopScheduler(Duration.ofHours(12), LocalTime.of(20, 0), Duration.ofSeconds(1), 64, 10);
+        AutoStopScheduler none = new AutoStopScheduler(null, null, Duration.ofSeconds(1), 64, 10);
+
+        // Проверки
+        assertEquals(LocalDateTime.of(2024, 3, 1, 20, 0), both.deadlineFor(morning));
+        assertEquals(LocalDateTime.of(2024, 3, 2, 11, 30), both.deadlineFor(night));
+        assertNull(none.deadlineFor(morning));
+        both.close();
+        none.close();
+    }
+
+    /**
+     * Тестируем, что порция, остановка которой завершилась ошибкой базы данных, не теряется,
+     * а снова назначается в колесо таймеров.
+     */
+    @Test
+    @DisplayName("Тестируем повторное назначение сроков после ошибки остановки")
+    void testFire_RetriesFailedBatch() throws Exception {
+        // Подготовка данных
+        AutoStopScheduler scheduler = new AutoStopScheduler(null, null, Duration.ofMillis(10), 64, 10);
+        CountDownLatch attempted = new CountDownLatch(1);
+        scheduler.schedule(1, LocalDateTime.now().minusMinutes(1));
+        scheduler.schedule(2, LocalDateTime.now().minusMinutes(1));
+
+        // Вызов метода: база данных недоступна
+        scheduler.start(batch -> {
+            attempted.countDown();
+            throw new TaskTransactionException(new SQLException("connection refused"));
+        });
+        assertTrue(attempted.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.getWheel().size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        scheduler.close();
+
+        // Проверки: сроки назначены повторно и сработают после задержки
+        assertTrue(scheduler.getWheel().contains(1));
+        assertTrue(scheduler.getWheel().contains(2));
+    }
+}
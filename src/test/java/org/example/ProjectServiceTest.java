@@ -0,0 +1,98 @@
+package org.example;
+
+import org.example.dao.ProjectDAO;
+import org.example.entity.Project;
+import org.example.service.ProjectService;
+import org.example.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс для тестирования сервиса проектов (ProjectService).
+ */
+public class ProjectServiceTest {
+    @Mock
+    private ProjectDAO projectDAO; // Мок для ProjectDAO
+
+    @Mock
+    private TaskService taskService; // Мок для TaskService
+
+    @InjectMocks
+    private ProjectService projectService; // Сервис, который тестируем
+
+    /**
+     * Инициализация моков перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this); // Инициализация моков
+    }
+
+    /**
+     * Тестируем создание подпроекта у несуществующего родителя.
+     */
+    @Test
+    @DisplayName("Тестируем создание подпроекта у несуществующего родителя")
+    void testAddProject_ParentNotFound() {
+        // Мокируем поведение ProjectDAO
+        when(projectDAO.getProject(5L)).thenReturn(Optional.empty());
+
+        // Вызов метода
+        Optional<Long> result = projectService.addProject("Backend", 5L);
+
+        // Проверки
+        assertFalse(result.isPresent());
+        verify(projectDAO, never()).addProject(anyString(), any());
+    }
+
+    /**
+     * Тестируем чтение суммарного времени проекта вместе с подпроектами.
+     */
+    @Test
+    @DisplayName("Тестируем чтение суммарного времени проекта")
+    void testGetTotalDuration() {
+        // Подготовка данных
+        Project project = new Project();
+        project.setId(1);
+        project.setName("Клиент");
+        project.setOwnSeconds(600);
+        project.setTotalSeconds(5400);
+
+        // Мокируем поведение ProjectDAO
+        when(projectDAO.getProject(1L)).thenReturn(Optional.of(project));
+
+        // Вызов метода
+        Optional<Duration> result = projectService.getTotalDuration(1L);
+
+        // Проверки
+        assertEquals(Optional.of(Duration.ofMinutes(90)), result);
+    }
+
+    /**
+     * Тестируем, что назначение проекта и меток выполняется сервисом задач.
+     */
+    @Test
+    @DisplayName("Тестируем изменение проекта и меток задачи через сервис задач")
+    void testTaskChangesGoThroughTaskService() {
+        // Мокируем поведение TaskService
+        when(taskService.assignProject(2L, 1L)).thenReturn(false);
+        when(taskService.tagTask(2L, "срочно")).thenReturn(true);
+
+        // Вызов метода и проверки
+        assertFalse(projectService.assignTask(2L, 1L));
+        assertTrue(projectService.tagTask(2L, " срочно "));
+        verify(taskService, times(1)).assignProject(2L, 1L);
+        verify(taskService, times(1)).tagTask(2L, "срочно");
+        verifyNoInteractions(projectDAO);
+    }
+}
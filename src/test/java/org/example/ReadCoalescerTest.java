@@ -0,0 +1,151 @@
+package org.example;
+
+import org.example.service.ReadCoalescer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Класс для тестирования объединения одинаковых чтений (ReadCoalescer).
+ */
+public class ReadCoalescerTest {
+
+    /**
+     * Тестируем, что одновременные чтения с одним ключом выполняют один запрос.
+     */
+    @Test
+    @DisplayName("Тестируем объединение одновременных чтений")
+    void testConcurrentReadsShareQuery() throws Exception {
+        // Подготовка данных: запрос не завершается, пока все читатели не присоединятся
+        ReadCoalescer coalescer = new ReadCoalescer(0, true);
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+
+        // Вызов метода
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> coalescer.call("tasks", () -> {
+                    queries.incrementAndGet();
+                    await(release);
+                    return "result";
+                })));
+            }
+            while (coalescer.getExecutedCount() + coalescer.getCoalescedCount() < readers) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Проверки
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, queries.get());
+        assertEquals(1, coalescer.getExecutedCount());
+        assertEquals(readers - 1, coalescer.getCoalescedCount());
+    }
+
+    /**
+     * Тестируем, что каждый присоединившийся вызов получает собственную копию разделяемого результата.
+     */
+    @Test
+    @DisplayName("Тестируем выдачу собственной копии результата каждому вызову")
+    void testEachReaderGetsOwnCopy() throws Exception {
+        // Подготовка данных: запрос не завершается, пока второй читатель не присоединится
+        ReadCoalescer coalescer = new ReadCoalescer(0, true);
+        List<String> shared = new ArrayList<>(List.of("Задача 1"));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Вызов метода
+        List<Future<List<String>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> coalescer.call("tasks", () -> {
+                    await(release);
+                    return shared;
+                }, ArrayList::new)));
+            }
+            while (coalescer.getExecutedCount() + coalescer.getCoalescedCount() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+            List<String> second = results.get(1).get(5, TimeUnit.SECONDS);
+            first.add("Задача 2");
+
+            // Проверки
+            assertEquals(1, coalescer.getCoalescedCount());
+            assertNotSame(first, second);
+            assertEquals(List.of("Задача 1"), second);
+            assertEquals(List.of("Задача 1"), shared);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Тестируем, что после завершения запроса или сброса следующее чтение выполняет новый запрос.
+     */
+    @Test
+    @DisplayName("Тестируем окно объединения и сброс после записи")
+    void testWindowAndInvalidate() {
+        // Подготовка данных
+        ReadCoalescer inFlightOnly = new ReadCoalescer(0, true);
+        ReadCoalescer windowed = new ReadCoalescer(60_000, true);
+        AtomicInteger queries = new AtomicInteger();
+
+        // Вызов метода и проверки: без окна завершённый запрос не переиспользуется
+        inFlightOnly.call("tasks", queries::incrementAndGet);
+        inFlightOnly.call("tasks", queries::incrementAndGet);
+        assertEquals(2, queries.get());
+
+        // В пределах окна результат переиспользуется до сброса
+        assertEquals(3, (int) windowed.call("tasks", queries::incrementAndGet));
+        assertEquals(3, (int) windowed.call("tasks", queries::incrementAndGet));
+        assertEquals(4, (int) windowed.call("task:1", queries::incrementAndGet));
+        windowed.invalidate();
+        assertEquals(5, (int) windowed.call("tasks", queries::incrementAndGet));
+        assertEquals(1, windowed.getCoalescedCount());
+    }
+
+    /**
+     * Тестируем, что ошибка запроса не запоминается для следующих чтений.
+     */
+    @Test
+    @DisplayName("Тестируем повтор чтения после ошибки запроса")
+    void testFailureIsNotReused() {
+        // Подготовка данных
+        ReadCoalescer coalescer = new ReadCoalescer(60_000, true);
+
+        // Вызов метода и проверки
+        assertThrows(IllegalStateException.class, () -> coalescer.call("tasks", () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertEquals("ok", coalescer.call("tasks", () -> "ok"));
+        assertEquals(2, coalescer.getExecutedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import org.example.service.TaskIdFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Класс для тестирования фильтра существующих ID задач (TaskIdFilter).
+ */
+public class TaskIdFilterTest {
+
+    /**
+     * Тестируем ответы фильтра для добавленных, удалённых и неизвестных ID.
+     */
+    @Test
+    @DisplayName("Тестируем добавление и удаление ID")
+    void testAddAndRemove() {
+        // Подготовка данных
+        TaskIdFilter filter = new TaskIdFilter(1, true);
+        filter.add(1);
+        filter.add(64);
+        filter.add(70_000);
+        filter.markLoaded();
+
+        // Проверки
+        assertTrue(filter.mightContain(1));
+        assertTrue(filter.mightContain(64));
+        assertTrue(filter.mightContain(70_000));
+        assertFalse(filter.mightContain(2));
+        assertFalse(filter.mightContain(65));
+        assertFalse(filter.mightContain(500_000));
+
+        filter.remove(64);
+        assertFalse(filter.mightContain(64));
+        assertTrue(filter.mightContain(1));
+        assertEquals(2 * 8192, filter.allocatedBytes());
+    }
+
+    /**
+     * Тестируем, что незагруженный фильтр и ID за пределами бюджета памяти пропускаются в базу.
+     */
+    @Test
+    @DisplayName("Тестируем пропуск ID без точного ответа")
+    void testUnknownIdsPassThrough() {
+        // Подготовка данных: бюджет 1 МБ покрывает ID до 8 388 608
+        TaskIdFilter filter = new TaskIdFilter(1, true);
+
+        // Проверки
+        assertTrue(filter.mightContain(5));
+        filter.markLoaded();
+        assertFalse(filter.mightContain(5));
+        assertTrue(filter.mightContain(8_388_608));
+        assertFalse(new TaskIdFilter(1, false).isLoaded());
+    }
+
+    /**
+     * Тестируем, что ID, выданный незавершённому добавлению, не отклоняется.
+     */
+    @Test
+    @DisplayName("Тестируем незавершённое добавление задачи")
+    void testPendingAdd() {
+        // Подготовка данных
+        TaskIdFilter filter = new TaskIdFilter(1, true);
+        filter.add(10);
+        filter.markLoaded();
+
+        // Вызов метода: первое добавление записало задачу 11, но ещё не отметило её в фильтре
+        long first = filter.beginAdd();
+        long second = filter.beginAdd();
+        filter.add(12);
+        filter.endAdd(second);
+
+        // Проверки
+        assertTrue(filter.mightContain(11));
+        assertFalse(filter.mightContain(9));
+        filter.endAdd(first);
+        assertFalse(filter.mightContain(11));
+        assertTrue(filter.mightContain(12));
+    }
+}
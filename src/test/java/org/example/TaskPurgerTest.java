@@ -0,0 +1,68 @@
+package org.example;
+
+import org.example.dao.TaskDAO;
+import org.example.service.ReadCoalescer;
+import org.example.service.TaskPurger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс для тестирования фоновой очистки удалённых задач (TaskPurger).
+ */
+public class TaskPurgerTest {
+
+    /**
+     * Тестируем непиковое окно, переходящее через полночь.
+     */
+    @Test
+    @DisplayName("Тестируем окно очистки через полночь")
+    void testOffPeakWindow() {
+        // Подготовка данных
+        TaskPurger overnight = new TaskPurger(mock(TaskDAO.class), mock(ReadCoalescer.class), Duration.ofHours(72), Duration.ofDays(30), 100,
+                LocalTime.of(22, 0), LocalTime.of(5, 0), Duration.ZERO);
+        TaskPurger daytime = new TaskPurger(mock(TaskDAO.class), mock(ReadCoalescer.class), Duration.ofHours(72), Duration.ofDays(30), 100,
+                LocalTime.of(1, 0), LocalTime.of(5, 0), Duration.ZERO);
+
+        // Проверки
+        assertTrue(overnight.isOffPeak(LocalTime.of(23, 30)));
+        assertTrue(overnight.isOffPeak(LocalTime.of(2, 0)));
+        assertFalse(overnight.isOffPeak(LocalTime.of(5, 0)));
+        assertFalse(overnight.isOffPeak(LocalTime.of(12, 0)));
+        assertTrue(daytime.isOffPeak(LocalTime.of(1, 0)));
+        assertFalse(daytime.isOffPeak(LocalTime.of(0, 59)));
+        assertFalse(daytime.isOffPeak(LocalTime.of(23, 0)));
+    }
+
+    /**
+     * Тестируем очистку порциями до первой неполной порции и удаление устаревших надгробий.
+     */
+    @Test
+    @DisplayName("Тестируем очистку удалённых задач порциями")
+    void testPurgeInBatches() {
+        // Мокируем поведение TaskDAO: две полные порции и одна неполная
+        TaskDAO taskDAO = mock(TaskDAO.class);
+        when(taskDAO.purgeDeletedTasks(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 40);
+        when(taskDAO.pruneTombstones(any(LocalDateTime.class))).thenReturn(true);
+        ReadCoalescer readCoalescer = mock(ReadCoalescer.class);
+        TaskPurger purger = new TaskPurger(taskDAO, readCoalescer, Duration.ofHours(72), Duration.ofDays(30), 100,
+                LocalTime.of(1, 0), LocalTime.of(5, 0), Duration.ZERO);
+
+        // Вызов метода
+        int purged = purger.purgeNow();
+
+        // Проверки
+        assertEquals(240, purged);
+        verify(taskDAO, times(3)).purgeDeletedTasks(
+                argThat(threshold -> threshold.isBefore(LocalDateTime.now().minusHours(71))), eq(100));
+        verify(taskDAO).pruneTombstones(argThat(threshold -> threshold.isBefore(LocalDateTime.now().minusDays(29))));
+        verify(readCoalescer, times(4)).invalidate();
+        purger.close();
+    }
+}
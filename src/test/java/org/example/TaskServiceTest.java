@@ -1,20 +1,44 @@
 package org.example;
 
+import org.example.dao.AuditDAO;
+import org.example.dao.DaoSession;
 import org.example.dao.TaskDAO;
+import org.example.dao.TaskFilter;
+import org.example.entity.AuditAction;
 import org.example.entity.Task;
+import org.example.entity.TaskView;
 import org.example.exception.TaskNotFoundException;
+import org.example.exception.TaskTransactionException;
+import org.example.service.ActiveTaskHeap;
+import org.example.service.AdmissionController;
+import org.example.service.AuditLog;
+import org.example.service.AutoStopScheduler;
+import org.example.service.ReadCoalescer;
+import org.example.service.TaskIdFilter;
 import org.example.service.TaskService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,7 +50,12 @@ public class TaskServiceTest {
     @Mock
     private TaskDAO taskDAO; // Мок для TaskDAO
 
-    @InjectMocks
+    @Mock
+    private AuditDAO auditDAO; // Мок для AuditDAO
+
+    @Mock
+    private AuditLog auditLog; // Мок журнала изменений задач
+
     private TaskService taskService; // Сервис, который тестируем
 
     /**
@@ -35,6 +64,9 @@ public class TaskServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this); // Инициализация моков
+        taskService = new TaskService(taskDAO, AdmissionController.fromEnvironment(), TaskIdFilter.fromEnvironment(),
+                ReadCoalescer.fromEnvironment(), AutoStopScheduler.fromEnvironment(), new ActiveTaskHeap(),
+                auditDAO, auditLog);
     }
 
     /**
@@ -42,17 +74,15 @@ public class TaskServiceTest {
      */
     @Test
     @DisplayName("Тестируем добавление новой задачи")
-    void testAddTask() {
+    void testAddTask() throws Exception {
         // Подготовка данных
         String taskName = "Test Task";
         long taskId = 1;
-        Task task = new Task();
-        task.setName(taskName);
-        task.setStartTime(LocalDateTime.now());
-        task.setStatus("Активна");
+        DaoSession session = mock(DaoSession.class);
 
         // Мокируем поведение TaskDAO
-        when(taskDAO.addTask(any(Task.class))).thenReturn(Optional.of(taskId));
+        when(taskDAO.openSession(true)).thenReturn(session);
+        when(taskDAO.nextTaskId(session)).thenReturn(taskId);
 
         // Вызов метода
         Optional<Long> result = taskService.addTask(taskName);
@@ -60,7 +90,9 @@ public class TaskServiceTest {
         // Проверки
         assertTrue(result.isPresent());
         assertEquals(taskId, result.get());
-        verify(taskDAO, times(1)).addTask(any(Task.class));
+        verify(taskDAO, times(1)).addTask(eq(session), eq(taskId), any(Task.class));
+        verify(session, times(1)).commit();
+        verify(auditLog).record(taskId, AuditAction.ADD, null, taskName);
     }
 
     /**
@@ -82,8 +114,13 @@ public class TaskServiceTest {
         // Вызов метода
         List<Task> result = taskService.getAllTasks();
 
-        // Проверки
+        // Проверки: вызов получает неизменяемый список копий, а не разделяемые объекты
         assertEquals(2, result.size());
+        assertNotSame(task1, result.get(0));
+        assertEquals("Task 1", result.get(0).getName());
+        assertThrows(UnsupportedOperationException.class, () -> result.add(new Task()));
+        result.get(0).setName("Changed");
+        assertEquals("Task 1", task1.getName());
         verify(taskDAO, times(1)).getAllTasks();
     }
 
@@ -98,14 +135,15 @@ public class TaskServiceTest {
         String newName = "Updated Task Name";
 
         // Мокируем поведение TaskDAO
-        when(taskDAO.updateTaskName(taskId, newName)).thenReturn(true);
+        when(taskDAO.renameTask(taskId, newName)).thenReturn(Optional.of("Old Task Name"));
 
         // Вызов метода
         boolean result = taskService.updateTaskName(taskId, newName);
 
         // Проверки
         assertTrue(result);
-        verify(taskDAO, times(1)).updateTaskName(taskId, newName);
+        verify(taskDAO, times(1)).renameTask(taskId, newName);
+        verify(auditLog).record(taskId, AuditAction.RENAME, "Old Task Name", newName);
     }
 
     /**
@@ -119,11 +157,11 @@ public class TaskServiceTest {
         String newName = "Updated Task Name";
 
         // Мокируем поведение TaskDAO
-        when(taskDAO.updateTaskName(taskId, newName)).thenThrow(new TaskNotFoundException(taskId));
+        when(taskDAO.renameTask(taskId, newName)).thenThrow(new TaskNotFoundException(taskId));
 
         // Вызов метода и проверка исключения
         assertFalse(taskService.updateTaskName(taskId, newName));
-        verify(taskDAO, times(1)).updateTaskName(taskId, newName);
+        verify(taskDAO, times(1)).renameTask(taskId, newName);
     }
 
     /**
@@ -136,7 +174,7 @@ public class TaskServiceTest {
         long taskId = 1;
 
         // Мокируем поведение TaskDAO
-        when(taskDAO.deleteTask(taskId)).thenReturn(true);
+        when(taskDAO.deleteTask(taskId)).thenReturn(Optional.of("Test Task"));
 
         // Вызов метода
         boolean result = taskService.deleteTask(taskId);
@@ -144,6 +182,7 @@ public class TaskServiceTest {
         // Проверки
         assertTrue(result);
         verify(taskDAO, times(1)).deleteTask(taskId);
+        verify(auditLog).record(taskId, AuditAction.DELETE, "Test Task", null);
     }
 
     /**
@@ -173,7 +212,7 @@ public class TaskServiceTest {
         long taskId = 1;
 
         // Мокируем поведение TaskDAO
-        when(taskDAO.stopTask(taskId)).thenReturn(true);
+        when(taskDAO.stopTask(taskId)).thenReturn(Optional.of("Активна"));
 
         // Вызов метода
         boolean result = taskService.stopTask(taskId);
@@ -181,6 +220,7 @@ public class TaskServiceTest {
         // Проверки
         assertTrue(result);
         verify(taskDAO, times(1)).stopTask(taskId);
+        verify(auditLog).record(taskId, AuditAction.STOP, "Активна", "Остановлена");
     }
 
     /**
@@ -210,14 +250,15 @@ public class TaskServiceTest {
         long taskId = 1;
 
         // Мокируем поведение TaskDAO
-        when(taskDAO.finishTask(taskId)).thenReturn(true);
+        when(taskDAO.finishTask(taskId)).thenReturn(Optional.of("Остановлена"));
 
         // Вызов метода
         boolean result = taskService.finishTask(taskId);
 
-        // Проверки
+        // Проверки: в журнал записывается статус задачи до завершения
         assertTrue(result);
         verify(taskDAO, times(1)).finishTask(taskId);
+        verify(auditLog).record(taskId, AuditAction.FINISH, "Остановлена", "Завершена");
     }
 
     /**
@@ -236,4 +277,383 @@ public class TaskServiceTest {
         assertFalse(taskService.finishTask(taskId));
         verify(taskDAO, times(1)).finishTask(taskId);
     }
+
+    /**
+     * Тестируем массовую остановку задач по списку ID.
+     */
+    @Test
+    @DisplayName("Тестируем массовую остановку задач по списку ID")
+    void testStopTasks_ByIds() {
+        // Подготовка данных
+        TaskFilter filter = TaskFilter.byIds(Arrays.asList(1L, 2L, 17L));
+
+        // Мокируем поведение TaskDAO
+        Map<Long, String> stopped = new LinkedHashMap<>();
+        stopped.put(1L, "Активна");
+        stopped.put(17L, "Активна");
+        when(taskDAO.stopTasks(filter)).thenReturn(stopped);
+
+        // Вызов метода
+        List<Long> result = taskService.stopTasks(filter);
+
+        // Проверки
+        assertEquals(Arrays.asList(1L, 17L), result);
+        verify(taskDAO, times(1)).stopTasks(filter);
+        verify(auditLog).record(1L, AuditAction.STOP, "Активна", "Остановлена");
+        verify(auditLog).record(17L, AuditAction.STOP, "Активна", "Остановлена");
+    }
+
+    /**
+     * Тестируем запись в журнал прежних статусов задач при массовом завершении.
+     */
+    @Test
+    @DisplayName("Тестируем прежние статусы в журнале при массовом завершении")
+    void testFinishTasks_AuditsPreviousStatus() {
+        // Подготовка данных
+        TaskFilter filter = TaskFilter.byIds(Arrays.asList(1L, 2L));
+        Map<Long, String> finished = new LinkedHashMap<>();
+        finished.put(1L, "Активна");
+        finished.put(2L, "Остановлена");
+
+        // Мокируем поведение TaskDAO
+        when(taskDAO.finishTasks(filter)).thenReturn(finished);
+
+        // Вызов метода
+        List<Long> result = taskService.finishTasks(filter);
+
+        // Проверки
+        assertEquals(Arrays.asList(1L, 2L), result);
+        verify(auditLog).record(1L, AuditAction.FINISH, "Активна", "Завершена");
+        verify(auditLog).record(2L, AuditAction.FINISH, "Остановлена", "Завершена");
+    }
+
+    /**
+     * Тестируем назначение проекта: прежний проект читается запросом и записывается в журнал.
+     */
+    @Test
+    @DisplayName("Тестируем назначение проекта с записью в журнал")
+    void testAssignProject() {
+        // Мокируем поведение TaskDAO: задача 1 не была назначена проекту, задача 2 была в проекте 4
+        when(taskDAO.assignProject(1L, 5L)).thenReturn(Optional.of(0L));
+        when(taskDAO.assignProject(2L, null)).thenReturn(Optional.of(4L));
+        when(taskDAO.tagTask(1L, "срочно")).thenReturn(true);
+
+        // Вызов метода
+        assertTrue(taskService.assignProject(1L, 5L));
+        assertTrue(taskService.assignProject(2L, null));
+        assertTrue(taskService.tagTask(1L, "срочно"));
+        assertFalse(taskService.untagTask(1L, "срочно"));
+
+        // Проверки
+        verify(auditLog).record(1L, AuditAction.ASSIGN, null, "5");
+        verify(auditLog).record(2L, AuditAction.ASSIGN, "4", null);
+        verify(auditLog).record(1L, AuditAction.TAG, null, "срочно");
+        verify(auditLog, never()).record(eq(1L), eq(AuditAction.UNTAG), any(), any());
+    }
+
+    /**
+     * Тестируем запрет массовой операции без условий отбора.
+     */
+    @Test
+    @DisplayName("Тестируем запрет массовой операции без условий отбора")
+    void testDeleteTasks_EmptyFilter() {
+        // Вызов метода и проверка исключения
+        assertThrows(IllegalArgumentException.class, () -> taskService.deleteTasks(new TaskFilter()));
+        verify(taskDAO, never()).deleteTasks(any(TaskFilter.class));
+    }
+
+    /**
+     * Тестируем выполнение нескольких операций в одной транзакции.
+     */
+    @Test
+    @DisplayName("Тестируем выполнение нескольких операций в одной транзакции")
+    void testInTransaction_Commit() throws Exception {
+        // Подготовка данных
+        DaoSession session = mock(DaoSession.class);
+
+        // Мокируем поведение TaskDAO
+        when(taskDAO.openSession(true)).thenReturn(session);
+        when(taskDAO.stopTask(session, 1L)).thenReturn(Optional.of("Активна"));
+        when(taskDAO.nextTaskId(session)).thenReturn(3L);
+
+        // Вызов метода
+        Optional<Long> result = taskService.inTransaction(work -> {
+            work.stopTask(1L);
+            return work.addTask("Next Task");
+        });
+
+        // Проверки
+        assertEquals(Optional.of(3L), result);
+        verify(taskDAO, times(1)).openSession(true);
+        verify(session, times(1)).commit();
+        verify(session, times(1)).close();
+        verify(auditLog).record(1L, AuditAction.STOP, "Активна", "Остановлена");
+        verify(auditLog).record(3L, AuditAction.ADD, null, "Next Task");
+    }
+
+    /**
+     * Тестируем откат транзакции при ошибке базы данных.
+     */
+    @Test
+    @DisplayName("Тестируем откат транзакции при ошибке базы данных")
+    void testInTransaction_Rollback() throws Exception {
+        // Подготовка данных
+        DaoSession session = mock(DaoSession.class);
+
+        // Мокируем поведение TaskDAO
+        when(taskDAO.openSession(true)).thenReturn(session);
+        when(taskDAO.finishTask(session, 1L)).thenReturn(Optional.of("Остановлена"));
+        when(taskDAO.renameTask(session, 2L, "Duplicate")).thenThrow(new SQLException("duplicate key"));
+
+        // Вызов метода и проверка исключения
+        assertThrows(TaskTransactionException.class, () -> taskService.inTransaction(work -> {
+            work.finishTask(1L);
+            return work.updateTaskName(2L, "Duplicate");
+        }));
+        verify(session, never()).commit();
+        verify(session, times(1)).close();
+        verify(auditLog, never()).record(anyLong(), any(), any(), any());
+    }
+
+    /**
+     * Тестируем отклонение операции над отсутствующей задачей без обращения к базе данных.
+     */
+    @Test
+    @DisplayName("Тестируем отклонение отсутствующей задачи фильтром ID")
+    void testStopTask_RejectedByIdFilter() {
+        // Мокируем поведение TaskDAO: в базе есть только задача 1
+        when(taskDAO.forEachTaskId(any())).thenAnswer(invocation -> {
+            invocation.<LongConsumer>getArgument(0).accept(1L);
+            return true;
+        });
+        when(taskDAO.stopTask(1L)).thenReturn(Optional.of("Активна"));
+
+        // Вызов метода
+        assertTrue(taskService.loadIdFilter());
+
+        // Проверки
+        assertFalse(taskService.stopTask(2L));
+        assertTrue(taskService.stopTask(1L));
+        verify(taskDAO, never()).stopTask(2L);
+    }
+
+    /**
+     * Тестируем суммарное время за период, заканчивающийся в будущем.
+     */
+    @Test
+    @DisplayName("Тестируем суммарное время за период с концом в будущем")
+    void testGetTrackedDuration_FuturePeriod() {
+        // Подготовка данных
+        LocalDateTime from = LocalDateTime.now().minusHours(2);
+        LocalDateTime to = LocalDateTime.now().plusHours(2);
+
+        // Мокируем поведение TaskDAO
+        when(taskDAO.getTrackedMillis(eq(from), any(LocalDateTime.class))).thenReturn(90_000L);
+
+        // Вызов метода
+        Duration result = taskService.getTrackedDuration(from, to);
+
+        // Проверки: активные задачи учитываются только до текущего момента
+        assertEquals(Duration.ofSeconds(90), result);
+        verify(taskDAO).getTrackedMillis(eq(from), argThat(end -> !end.isAfter(LocalDateTime.now())));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTrackedDuration(to, from));
+    }
+
+    /**
+     * Тестируем запись события JFR при ожидании занятой блокировки задачи.
+     */
+    @Test
+    @DisplayName("Тестируем событие JFR ожидания блокировки задачи")
+    void testStopTask_LockWaitEvent() throws Exception {
+        // Подготовка данных
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Path file = Files.createTempFile("lock-wait", ".jfr");
+
+        // Мокируем поведение TaskDAO: первая остановка удерживает блокировку задачи
+        when(taskDAO.stopTask(1L)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of("Активна");
+        });
+
+        // Вызов метода
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.LockWait").withoutThreshold();
+            recording.start();
+            Thread holder = new Thread(() -> taskService.stopTask(1L));
+            holder.start();
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Thread waiter = new Thread(() -> taskService.stopTask(1L));
+            waiter.start();
+            while (waiter.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            holder.join();
+            waiter.join();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Проверки
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        assertEquals(1, events.size());
+        assertEquals(1L, events.get(0).getLong("taskId"));
+    }
+
+    /**
+     * Тестируем, что самые долгие активные задачи читаются из кучи, которая следует за остановкой и переименованием.
+     */
+    @Test
+    @DisplayName("Тестируем чтение самых долгих активных задач без обращения к базе")
+    void testGetLongestActiveTasks() throws TaskNotFoundException {
+        // Подготовка данных
+        LocalDateTime now = LocalDateTime.now();
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(0);
+            for (long id = 1; id <= 3; id++) {
+                Task task = new Task();
+                task.setId(id);
+                task.setName("Задача " + id);
+                task.setStartTime(now.minusHours(id));
+                task.setStatus("Активна");
+                consumer.accept(task);
+            }
+            return true;
+        }).when(taskDAO).forEachActiveTask(any());
+        when(taskDAO.stopTask(3L)).thenReturn(Optional.of("Активна"));
+        when(taskDAO.renameTask(2L, "Отчёт")).thenReturn(Optional.of("Задача 2"));
+
+        // Вызов метода
+        assertTrue(taskService.loadActiveTasks());
+        taskService.stopTask(3L);
+        taskService.updateTaskName(2L, "Отчёт");
+        List<Task> tasks = taskService.getLongestActiveTasks(5);
+
+        // Проверки
+        assertEquals(2, tasks.size());
+        assertEquals(2L, tasks.get(0).getId());
+        assertEquals("Отчёт", tasks.get(0).getName());
+        assertEquals(1L, tasks.get(1).getId());
+        verify(taskDAO, never()).getLongestActiveTasks(anyInt());
+    }
+
+    /**
+     * Тестируем остановку задачи, выполняемую одновременно с её добавлением: остановка ждёт,
+     * пока добавление не внесёт задачу в кучу активных задач, и удаляет её оттуда.
+     */
+    @Test
+    @DisplayName("Тестируем остановку задачи во время её добавления")
+    void testAddTask_ConcurrentStop() throws Exception {
+        // Подготовка данных
+        DaoSession session = mock(DaoSession.class);
+        Thread[] stopper = new Thread[1];
+        boolean[] stopped = new boolean[1];
+
+        // Мокируем поведение TaskDAO: остановка начинается, когда задача фиксируется в базе
+        when(taskDAO.forEachActiveTask(any())).thenReturn(true);
+        when(taskDAO.openSession(true)).thenReturn(session);
+        when(taskDAO.nextTaskId(session)).thenReturn(7L);
+        when(taskDAO.stopTask(7L)).thenReturn(Optional.of("Активна"));
+        doAnswer(invocation -> {
+            stopper[0] = new Thread(() -> stopped[0] = taskService.stopTask(7L));
+            stopper[0].start();
+            while (stopper[0].getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            return null;
+        }).when(session).commit();
+
+        // Вызов метода
+        assertTrue(taskService.loadActiveTasks());
+        Optional<Long> result = taskService.addTask("Отчёт");
+        stopper[0].join();
+
+        // Проверки: остановка выполнена после добавления и задача не осталась в куче активных
+        assertEquals(Optional.of(7L), result);
+        assertTrue(stopped[0]);
+        assertTrue(taskService.getLongestActiveTasks(5).isEmpty());
+        verify(taskDAO, never()).getLongestActiveTasks(anyInt());
+    }
+
+    /**
+     * Тестируем остановку задачи, выполняемую одновременно с фиксацией единицы работы, которая её добавила:
+     * остановка ждёт, пока единица работы не внесёт задачу в кучу активных задач, и удаляет её оттуда.
+     */
+    @Test
+    @DisplayName("Тестируем остановку задачи во время фиксации добавившей её транзакции")
+    void testInTransaction_AddConcurrentStop() throws Exception {
+        // Подготовка данных
+        DaoSession session = mock(DaoSession.class);
+        Thread[] stopper = new Thread[1];
+        boolean[] stopped = new boolean[1];
+
+        // Мокируем поведение TaskDAO: остановка начинается, когда транзакция фиксируется в базе
+        when(taskDAO.forEachActiveTask(any())).thenReturn(true);
+        when(taskDAO.openSession(true)).thenReturn(session);
+        when(taskDAO.nextTaskId(session)).thenReturn(9L);
+        when(taskDAO.stopTask(9L)).thenReturn(Optional.of("Активна"));
+        doAnswer(invocation -> {
+            stopper[0] = new Thread(() -> stopped[0] = taskService.stopTask(9L));
+            stopper[0].start();
+            while (stopper[0].getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            return null;
+        }).when(session).commit();
+
+        // Вызов метода
+        assertTrue(taskService.loadActiveTasks());
+        Optional<Long> result = taskService.inTransaction(work -> work.addTask("Отчёт"));
+        stopper[0].join();
+
+        // Проверки: остановка выполнена после фиксации и задача не осталась в куче активных
+        assertEquals(Optional.of(9L), result);
+        assertTrue(stopped[0]);
+        assertTrue(taskService.getLongestActiveTasks(5).isEmpty());
+    }
+
+    /**
+     * Тестируем, что ошибка базы данных при автоматической остановке передаётся колесу таймеров,
+     * а не превращается в пустой результат, при котором сроки порции были бы потеряны.
+     */
+    @Test
+    @DisplayName("Тестируем ошибку базы данных при автоматической остановке")
+    void testAutoStopTasks_DatabaseError() {
+        // Мокируем поведение TaskDAO
+        when(taskDAO.autoStopTasks(List.of(1L, 2L)))
+                .thenThrow(new TaskTransactionException(new SQLException("connection refused")));
+
+        // Вызов метода и проверка исключения
+        assertThrows(TaskTransactionException.class, () -> taskService.autoStopTasks(List.of(1L, 2L)));
+        verify(auditLog, never()).record(anyLong(), any(), any(), any());
+    }
+
+    /**
+     * Тестируем, что продолжительность по компактному представлению совпадает с продолжительностью задачи.
+     */
+    @Test
+    @DisplayName("Тестируем продолжительность задачи по компактному представлению")
+    void testGetDuration_TaskView() {
+        // Подготовка данных
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 9, 15);
+        LocalDateTime stop = start.plusMinutes(95);
+        Task task = new Task();
+        task.setStartTime(start);
+        task.setStopTime(stop);
+        task.setStatus("Остановлена");
+        TaskView stopped = new TaskView(1, "Отчёт", TaskView.toSeconds(start), TaskView.toSeconds(stop),
+                TaskView.statusCode("Остановлена"), 0);
+        TaskView active = new TaskView(2, "Почта", TaskView.toSeconds(LocalDateTime.now().minusHours(2)), TaskView.NO_STOP,
+                TaskView.ACTIVE, 0);
+
+        // Вызов метода и проверки
+        assertEquals(taskService.getDuration(task), taskService.getDuration(stopped));
+        assertEquals(start, stopped.getStartTime());
+        assertEquals("Остановлена", stopped.getStatusName());
+        assertEquals(120, taskService.getDuration(active).toMinutes());
+        assertNull(active.getStopTime());
+    }
 }
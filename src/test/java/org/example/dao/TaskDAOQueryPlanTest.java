@@ -0,0 +1,571 @@
+package org.example.dao;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Регрессионные тесты планов выполнения для запросов TaskDAO, ProjectDAO и AuditDAO.
+ * Тест разворачивает схему из init.sql в отдельной схеме базы данных, наполняет её синтетическими данными
+ * и проверяет {@code EXPLAIN (ANALYZE, BUFFERS)} каждого запроса: отсутствие последовательного сканирования,
+ * количество прочитанных страниц и просмотренных строк.
+ *
+ * <p>Запускается только при заданных переменных окружения DB_URL, DB_USERNAME и DB_PASSWORD, например
+ * с базой из docker-compose: {@code DB_URL=jdbc:postgresql://localhost:15432/time_tracker mvn test}.
+ * Объём данных задаётся свойством {@code -Dplan.rows} (по умолчанию 200000).
+ */
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TaskDAOQueryPlanTest {
+
+    private static final String SCHEMA = "plan_test";
+    private static final int ROWS = Integer.getInteger("plan.rows", 200_000);
+    private static final int MONTHS = 6;
+    private static final int ACTIVE_EVERY = 100; // Каждая сотая задача активна, каждая сто первая - остановлена
+    private static final int PROJECTS = 10; // Клиентов, проектов у клиента и подпроектов у проекта
+    private static final int DAYS = 60; // За сколько дней накоплены надгробия и архив
+
+    private static final Pattern ACTUAL_ROWS = Pattern.compile("actual time=[\\d.]+\\.\\.[\\d.]+ rows=(\\d+) loops=(\\d+)");
+    private static final Pattern REMOVED_ROWS = Pattern.compile("Rows Removed by (?:Filter|Index Recheck): (\\d+)");
+    private static final Pattern BUFFERS = Pattern.compile("Buffers: shared(?: hit=(\\d+))?(?: read=(\\d+))?");
+    private static final Pattern SCAN_NODE = Pattern.compile("(Seq Scan|(?<!Bitmap )Index Scan|Index Only Scan|Bitmap Heap Scan)");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\S+)");
+
+    private Connection conn;
+    private long sampleId;
+    private String sampleName;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        conn = DriverManager.getConnection(System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            stmt.execute("CREATE SCHEMA " + SCHEMA);
+            stmt.execute("SET search_path = " + SCHEMA);
+            stmt.execute(readInitScript());
+
+            stmt.execute("SELECT create_task_partition((now() - make_interval(months => m))::DATE) " +
+                    "FROM generate_series(1, " + MONTHS + ") AS m");
+            stmt.execute("ALTER TABLE tasks DISABLE TRIGGER USER");
+            stmt.execute("INSERT INTO tasks (name, start_time, stop_time, status) " +
+                    "SELECT 'task-' || g, " +
+                    "       now() - (g % " + (MONTHS * 30) + ") * INTERVAL '1 day' - INTERVAL '1 hour', " +
+                    "       CASE WHEN g % " + ACTIVE_EVERY + " = 0 THEN NULL " +
+                    "            ELSE now() - (g % " + (MONTHS * 30) + ") * INTERVAL '1 day' END, " +
+                    "       CASE WHEN g % " + ACTIVE_EVERY + " = 0 THEN 'Активна' " +
+                    "            WHEN g % " + ACTIVE_EVERY + " = 1 THEN 'Остановлена' " +
+                    "            ELSE 'Завершена' END " +
+                    "FROM generate_series(1, " + ROWS + ") AS g");
+            stmt.execute("ALTER TABLE tasks ENABLE TRIGGER USER");
+
+            // Дерево проектов: клиенты, их проекты и подпроекты
+            stmt.execute("INSERT INTO projects (name) SELECT 'client-' || c FROM generate_series(1, " + PROJECTS + ") AS c");
+            stmt.execute("INSERT INTO projects (name, parent_id) SELECT p.name || '-' || g, p.id " +
+                    "FROM projects p, generate_series(1, " + PROJECTS + ") AS g WHERE p.parent_id IS NULL");
+            stmt.execute("INSERT INTO projects (name, parent_id) SELECT p.name || '-' || g, p.id " +
+                    "FROM projects p, generate_series(1, " + PROJECTS + ") AS g " +
+                    "WHERE p.parent_id IN (SELECT id FROM projects WHERE parent_id IS NULL)");
+            // Надгробия, архив и журнал изменений, накопленные за DAYS дней
+            stmt.execute("INSERT INTO task_tombstones (task_id, changed_at) " +
+                    "SELECT " + ROWS + " + g, now() - (g % " + DAYS + ") * INTERVAL '1 day' " +
+                    "FROM generate_series(1, " + ROWS / 10 + ") AS g");
+            stmt.execute("INSERT INTO tasks_archive (id, name, start_time, stop_time, status) " +
+                    "SELECT " + 2 * ROWS + " + g, 'archived-' || g, now() - INTERVAL '1 year' - (g % " + DAYS + ") * INTERVAL '1 day', " +
+                    "       now() - INTERVAL '1 year' - (g % " + DAYS + ") * INTERVAL '1 day' + INTERVAL '1 hour', 'Завершена' " +
+                    "FROM generate_series(1, " + ROWS / 2 + ") AS g");
+            stmt.execute("INSERT INTO task_audit (task_id, action, new_value, actor, changed_at) " +
+                    "SELECT g % " + ROWS + " + 1, 'RENAME', 'task-' || g, 'plan', now() - g * INTERVAL '1 second' " +
+                    "FROM generate_series(1, " + ROWS + ") AS g");
+            stmt.execute("ANALYZE");
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM tasks WHERE status = 'Активна' ORDER BY id LIMIT 1 OFFSET 10")) {
+            assertTrue(rs.next());
+            sampleId = rs.getLong(1);
+            sampleName = rs.getString(2);
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (conn != null) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            }
+            conn.close();
+        }
+    }
+
+    /**
+     * Тестируем планы проверки существования и чтения задачи.
+     */
+    @Test
+    @DisplayName("Проверка существования и чтение задачи используют индекс")
+    void testExistsPlan() throws SQLException {
+        assertPlan(TaskDAO.SQL_EXISTS, Arrays.asList(sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_SELECT_ONE, Arrays.asList(sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_SELECT_AUTO_STOP, Arrays.asList(sampleId), PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем план добавления задачи.
+     */
+    @Test
+    @DisplayName("Добавление задачи не сканирует таблицу")
+    void testInsertPlan() throws SQLException {
+        assertPlan(TaskDAO.SQL_NEXT_ID, Arrays.asList(), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_INSERT,
+                Arrays.asList(Long.MAX_VALUE, "plan-new-task", Timestamp.valueOf(LocalDateTime.now()), null, "Активна",
+                        null),
+                PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем план запроса, которым триггер проверяет уникальность названия.
+     */
+    @Test
+    @DisplayName("Проверка уникальности названия использует индекс")
+    void testUniqueNamePlan() throws SQLException {
+        assertPlan("SELECT 1 FROM tasks WHERE name = ? AND id <> ?", Arrays.asList(sampleName, 0L),
+                PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем план полного списка задач: последовательное сканирование ожидаемо,
+     * но архивная таблица затрагиваться не должна.
+     */
+    @Test
+    @DisplayName("Полный список задач читает только оперативные секции")
+    void testSelectAllPlan() throws SQLException {
+        String plan = assertPlan(TaskDAO.SQL_SELECT_ALL, new ArrayList<>(), PlanLimits.fullScan(ROWS));
+        assertFalse(plan.contains("tasks_archive"), plan);
+        plan = assertPlan(TaskDAO.SQL_SELECT_ALL_VIEWS, new ArrayList<>(), PlanLimits.fullScan(ROWS));
+        assertFalse(plan.contains("tasks_archive"), plan);
+        assertPlan(TaskDAO.SQL_SELECT_IDS, new ArrayList<>(), PlanLimits.fullScan(ROWS));
+    }
+
+    /**
+     * Тестируем планы назначения проекта и меток задаче: задача и метка находятся по индексу.
+     */
+    @Test
+    @DisplayName("Назначение проекта и меток задаче использует индексы")
+    void testAssignAndTagPlans() throws SQLException {
+        assertPlan(TaskDAO.SQL_ASSIGN, Arrays.asList(null, sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_TAG, Arrays.asList("plan-tag", sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_UNTAG, Arrays.asList(sampleId, "plan-tag"), PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем планы запросов ProjectDAO: проект читается по ключу, а обход дерева просматривает
+     * не больше строк, чем число проектов, умноженное на глубину дерева.
+     */
+    @Test
+    @DisplayName("Проекты читаются по ключу, дерево - за один проход таблицы на уровень")
+    void testProjectPlans() throws SQLException {
+        int projects = PROJECTS + PROJECTS * PROJECTS + PROJECTS * PROJECTS * PROJECTS;
+        assertPlan(ProjectDAO.SQL_INSERT, Arrays.asList("plan-project", null), PlanLimits.pointLookup());
+        assertPlan(ProjectDAO.SQL_SELECT, Arrays.asList(1L), PlanLimits.pointLookup());
+        // Корни находятся по индексу родителя, а каждый следующий уровень соединяется с таблицей проектов хешем
+        assertPlan(ProjectDAO.SQL_SELECT_TREE, new ArrayList<>(), PlanLimits.fullScan(3 * projects));
+        assertPlan(ProjectDAO.SQL_SELECT_TAGS, new ArrayList<>(), PlanLimits.fullScan(0));
+    }
+
+    /**
+     * Тестируем планы журнала изменений: история задачи читается по индексу задачи.
+     */
+    @Test
+    @DisplayName("История задачи читается по индексу задачи")
+    void testAuditPlans() throws SQLException {
+        assertPlan(AuditDAO.SQL_INSERT, Arrays.asList(sampleId, "RENAME", "old", "new", "plan",
+                Timestamp.valueOf(LocalDateTime.now())), PlanLimits.pointLookup());
+        assertPlan(AuditDAO.SQL_SELECT_HISTORY, Arrays.asList(sampleId, 100), PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем планы изменения отдельной задачи по ID.
+     */
+    @Test
+    @DisplayName("Изменение задачи по ID использует индекс")
+    void testSingleTaskUpdatePlans() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        assertPlan(TaskDAO.SQL_UPDATE_NAME, Arrays.asList("plan-renamed", sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_STOP, Arrays.asList(now, sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_FINISH, Arrays.asList(sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_DELETE, Arrays.asList(now, sampleId), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_RESTORE, Arrays.asList(sampleId, now), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_SET_AUTO_STOP, Arrays.asList(now, sampleId), PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем планы массовых операций по списку ID.
+     */
+    @Test
+    @DisplayName("Массовые операции по списку ID используют индекс")
+    void testBulkByIdsPlans() throws SQLException {
+        TaskFilter filter = TaskFilter.byIds(Arrays.asList(sampleId, sampleId + 1, sampleId + 2));
+        assertBulkPlan(TaskDAO.SQL_BULK_STOP, filter, true, PlanLimits.pointLookup());
+        assertBulkPlan(TaskDAO.SQL_BULK_FINISH, filter, false, PlanLimits.pointLookup());
+        assertBulkPlan(TaskDAO.SQL_BULK_DELETE, filter, true, PlanLimits.pointLookup());
+        assertBulkPlan(TaskDAO.SQL_AUTO_STOP, filter, true, PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем планы массовых операций по статусу и времени начала.
+     */
+    @Test
+    @DisplayName("Массовые операции по статусу не сканируют всю таблицу")
+    void testBulkByStatusPlans() throws SQLException {
+        int active = ROWS / ACTIVE_EVERY;
+        assertBulkPlan(TaskDAO.SQL_BULK_STOP, TaskFilter.byStatus("Активна"), true, PlanLimits.rangeUpdate(active));
+        assertBulkPlan(TaskDAO.SQL_BULK_FINISH, TaskFilter.byStatus("Остановлена"), false, PlanLimits.rangeUpdate(active));
+
+        TaskFilter startedBefore = TaskFilter.byStatus("Активна");
+        startedBefore.setStartedBefore(LocalDateTime.now().minusDays(150));
+        assertBulkPlan(TaskDAO.SQL_BULK_STOP, startedBefore, true, PlanLimits.rangeUpdate(active));
+    }
+
+    /**
+     * Тестируем планы чтения активных задач: загрузка и самые долгие задачи читаются по индексу статуса.
+     */
+    @Test
+    @DisplayName("Активные задачи читаются по индексу статуса и времени начала")
+    void testActiveTasksPlans() throws SQLException {
+        int active = ROWS / ACTIVE_EVERY;
+        assertPlan(TaskDAO.SQL_SELECT_ACTIVE, new ArrayList<>(), PlanLimits.rangeScan(active));
+        // Merge Append читает до LIMIT + 1 строк из каждой секции: прошлые месяцы, текущий, два следующих и секция по умолчанию
+        int partitions = MONTHS + 4;
+        assertPlan(TaskDAO.SQL_SELECT_LONGEST_ACTIVE, Arrays.asList(20), PlanLimits.rangeScan(21 * partitions));
+        assertPlan(TaskDAO.SQL_SELECT_AUTO_STOPS, new ArrayList<>(), PlanLimits.rangeScan(active));
+    }
+
+    /**
+     * Тестируем планы выгрузки архива в файлы: задачи архива за период читаются и удаляются по индексу времени начала.
+     */
+    @Test
+    @DisplayName("Выгрузка архива за период использует индекс времени начала")
+    void testArchiveExportPlans() throws SQLException {
+        LocalDateTime from = LocalDateTime.now().minusYears(1).minusDays(DAYS / 2).minusHours(12);
+        List<Object> params = Arrays.asList(Timestamp.valueOf(from), Timestamp.valueOf(from.plusDays(1)));
+        int perDay = ROWS / 2 / DAYS;
+        assertPlan(TaskDAO.SQL_SELECT_ARCHIVED, params, PlanLimits.rangeScan(perDay));
+        assertPlan(TaskDAO.SQL_DELETE_ARCHIVED, params, PlanLimits.rangeUpdate(perDay));
+    }
+
+    /**
+     * Тестируем план массовой операции по шаблону названия.
+     */
+    @Test
+    @DisplayName("Массовые операции по префиксу названия используют индекс")
+    void testBulkByNamePatternPlan() throws SQLException {
+        TaskFilter filter = new TaskFilter();
+        filter.setNamePattern("task-1234%");
+        assertBulkPlan(TaskDAO.SQL_BULK_DELETE, filter, true, PlanLimits.rangeScan(1000));
+    }
+
+    /**
+     * Тестируем план архивации: старые секции допускается читать последовательно,
+     * но LIMIT должен ограничивать объём прочитанных данных.
+     */
+    @Test
+    @DisplayName("Архивация читает только старые секции и ограничена размером пачки")
+    void testArchivePlan() throws SQLException {
+        Timestamp threshold = Timestamp.valueOf(LocalDateTime.now().minusDays(90));
+        String plan = assertPlan(TaskDAO.SQL_ARCHIVE, Arrays.asList(threshold, threshold, 1000), PlanLimits.batch(1000));
+        String currentPartition = String.format("tasks_y%tYm%<tm", LocalDateTime.now());
+        assertFalse(plan.contains(currentPartition), "archive must prune the current partition:\n" + plan);
+    }
+
+    /**
+     * Тестируем планы синхронизации: изменения после токена читаются по индексу транзакции изменения,
+     * поэтому стоимость запроса зависит от количества изменений, а не от размера таблицы.
+     */
+    @Test
+    @DisplayName("Изменения после токена читаются по индексу транзакции изменения")
+    void testChangesPlans() throws SQLException {
+        // Задачи и надгробия добавлены при подготовке данных; сотня задач, изменённых отдельной транзакцией, идёт после токена
+        long token;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT greatest((SELECT max(change_xid) FROM tasks), " +
+                     "(SELECT max(change_xid) FROM task_tombstones))::text::bigint")) {
+            assertTrue(rs.next());
+            token = rs.getLong(1);
+        }
+        long changedXid;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("WITH changed AS (UPDATE tasks SET name = name || '-sync' " +
+                     "WHERE id IN (SELECT id FROM tasks ORDER BY id DESC LIMIT 100) RETURNING change_xid) " +
+                     "SELECT max(change_xid)::text::bigint FROM changed")) {
+            assertTrue(rs.next());
+            changedXid = rs.getLong(1);
+        }
+        // Горизонт надгробий хранится в таблице из одной строки
+        assertPlan(TaskDAO.SQL_SYNC_HORIZON, new ArrayList<>(), PlanLimits.fullScan(1));
+        assertPlan(TaskDAO.SQL_CHANGES, Arrays.asList(token, 1001), PlanLimits.rangeScan(100));
+        assertPlan(TaskDAO.SQL_CHANGES_OF_XID, Arrays.asList(changedXid), PlanLimits.rangeScan(100));
+        assertPlan(TaskDAO.SQL_TOMBSTONES, Arrays.asList(token, 1001), PlanLimits.pointLookup());
+        assertPlan(TaskDAO.SQL_TOMBSTONES_OF_XID, Arrays.asList(changedXid), PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем план очистки удалённых задач: удалённые задачи ищутся по частичному индексу,
+     * поэтому очистка не читает живые задачи.
+     */
+    @Test
+    @DisplayName("Очистка удалённых задач использует частичный индекс")
+    void testPurgePlan() throws SQLException {
+        Timestamp threshold = Timestamp.valueOf(LocalDateTime.now().minusDays(3));
+        assertPlan(TaskDAO.SQL_PURGE, Arrays.asList(threshold, threshold, 1000), PlanLimits.pointLookup());
+    }
+
+    /**
+     * Тестируем план удаления устаревших надгробий: надгробия ищутся по индексу момента удаления.
+     * Горизонт надгробий хранится в таблице из одной строки, поэтому последовательное чтение допустимо только для неё.
+     */
+    @Test
+    @DisplayName("Удаление устаревших надгробий использует индекс момента удаления")
+    void testPruneTombstonesPlan() throws SQLException {
+        Timestamp threshold = Timestamp.valueOf(LocalDateTime.now().minusDays(DAYS - 1).minusHours(12));
+        int pruned = ROWS / 10 / DAYS;
+        String plan = assertPlan(TaskDAO.SQL_PRUNE_TOMBSTONES, Arrays.asList(threshold), PlanLimits.batch(pruned));
+        assertFalse(plan.contains("Seq Scan on task_tombstones"), plan);
+    }
+
+    /**
+     * Тестируем планы запросов по периоду: интервалы ищутся по GiST-индексу,
+     * а секции, начинающиеся после конца периода, не читаются.
+     */
+    @Test
+    @DisplayName("Запросы по периоду используют индекс интервалов")
+    void testRangePlans() throws SQLException {
+        Timestamp from = Timestamp.valueOf(LocalDateTime.now().minusDays(10).minusHours(2));
+        Timestamp to = Timestamp.valueOf(LocalDateTime.now().minusDays(10).plusHours(1));
+        // Задачи одного дня и активные задачи, начатые раньше периода
+        long expected = ROWS / (MONTHS * 30) + ROWS / ACTIVE_EVERY;
+
+        String plan = assertPlan(TaskDAO.SQL_SELECT_RANGE, Arrays.asList(from, to, to), PlanLimits.rangeScan(expected));
+        String currentPartition = String.format("tasks_y%tYm%<tm", LocalDateTime.now().plusMonths(1));
+        assertFalse(plan.contains(currentPartition), "range query must prune later partitions:\n" + plan);
+        assertPlan(TaskDAO.SQL_TRACKED_SECONDS, Arrays.asList(from, to, from, to, to), PlanLimits.rangeScan(expected));
+    }
+
+    /**
+     * Тестируем план поиска пересечений: вторая задача пары ищется по индексу, а не попарным сравнением.
+     */
+    @Test
+    @DisplayName("Поиск пересечений использует индекс интервалов")
+    void testOverlapsPlan() throws SQLException {
+        Timestamp from = Timestamp.valueOf(LocalDateTime.now().minusDays(10).minusHours(2));
+        Timestamp to = Timestamp.valueOf(LocalDateTime.now().minusDays(10).plusHours(1));
+        long expected = ROWS / (MONTHS * 30) + ROWS / ACTIVE_EVERY;
+        // Пары с одинаковым началом пересечения упорядочиваются по ID, поэтому первая такая группа читается целиком:
+        // в данных теста это пары активных задач, начатых одновременно раньше всех
+        long tied = firstActiveStartCount();
+
+        String plan = assertPlan(TaskDAO.SQL_OVERLAPS, Arrays.asList(from, to, to, from, to, to, from, to, 50),
+                PlanLimits.rangeScan(expected + tied * tied / 2));
+        assertTrue(plan.contains("Index Cond: ((period && tasks.period)"), "overlap partner must be found by index:\n" + plan);
+        assertTrue(plan.contains("Presorted Key: tasks.start_time"), "overlaps must be produced in start order:\n" + plan);
+    }
+
+    private long firstActiveStartCount() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM tasks WHERE status = 'Активна' AND start_time = " +
+                     "(SELECT min(start_time) FROM tasks WHERE status = 'Активна')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private String assertBulkPlan(String sql, TaskFilter filter, boolean withTimestamp, PlanLimits limits) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        if (withTimestamp) {
+            params.add(Timestamp.valueOf(LocalDateTime.now()));
+        }
+        String query = TaskDAO.bulkQuery(sql, filter, params);
+        return assertPlan(query, params, limits);
+    }
+
+    /**
+     * Выполняет EXPLAIN (ANALYZE, BUFFERS) запроса в транзакции, которая затем откатывается,
+     * и проверяет план на соответствие ограничениям.
+     *
+     * @return текст плана
+     */
+    private String assertPlan(String sql, List<Object> params, PlanLimits limits) throws SQLException {
+        String plan = explain(sql, params);
+
+        if (!limits.allowSeqScan) {
+            for (String relation : seqScannedRelations(plan)) {
+                assertEquals(0, relationPages(relation),
+                        "sequential scan on " + relation + " in plan of\n" + sql + "\n" + plan);
+            }
+        }
+
+        long buffers = rootBuffers(plan);
+        assertTrue(buffers <= limits.maxBuffers,
+                "buffers " + buffers + " > " + limits.maxBuffers + " for\n" + sql + "\n" + plan);
+
+        long examined = examinedRows(plan);
+        assertTrue(examined <= limits.maxRows,
+                "rows examined " + examined + " > " + limits.maxRows + " for\n" + sql + "\n" + plan);
+        return plan;
+    }
+
+    private String explain(String sql, List<Object> params) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+            TaskDAO.bindParams(conn, pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        } finally {
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Возвращает таблицы, которые план читает последовательно.
+     */
+    private static List<String> seqScannedRelations(String plan) {
+        List<String> relations = new ArrayList<>();
+        Matcher matcher = SEQ_SCAN.matcher(plan);
+        while (matcher.find()) {
+            relations.add(matcher.group(1));
+        }
+        return relations;
+    }
+
+    /**
+     * Возвращает размер таблицы в страницах по статистике: последовательное чтение пустой секции
+     * (например, секции будущего месяца) не считается регрессией.
+     */
+    private long relationPages(String relation) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT relpages FROM pg_class WHERE oid = to_regclass(?)")) {
+            pstmt.setString(1, SCHEMA + "." + relation);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество страниц, затронутых корневым узлом плана (накопительно по всему запросу).
+     */
+    private static long rootBuffers(String plan) {
+        String execution = plan.contains("Planning:") ? plan.substring(0, plan.indexOf("Planning:")) : plan;
+        Matcher matcher = BUFFERS.matcher(execution);
+        if (!matcher.find()) {
+            return 0;
+        }
+        long hit = matcher.group(1) != null ? Long.parseLong(matcher.group(1)) : 0;
+        long read = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : 0;
+        return hit + read;
+    }
+
+    /**
+     * Возвращает количество строк, просмотренных узлами сканирования, включая отброшенные фильтром.
+     */
+    private static long examinedRows(String plan) {
+        long examined = 0;
+        for (String line : plan.split("\n")) {
+            if (SCAN_NODE.matcher(line).find()) {
+                Matcher rows = ACTUAL_ROWS.matcher(line);
+                if (rows.find()) {
+                    examined += Long.parseLong(rows.group(1)) * Long.parseLong(rows.group(2));
+                }
+            }
+            Matcher removed = REMOVED_ROWS.matcher(line);
+            if (removed.find()) {
+                examined += Long.parseLong(removed.group(1));
+            }
+        }
+        return examined;
+    }
+
+    private static String readInitScript() throws IOException {
+        try (InputStream in = TaskDAOQueryPlanTest.class.getResourceAsStream("/init.sql")) {
+            assertNotNull(in, "init.sql not found on classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Допустимые характеристики плана запроса.
+     */
+    private static final class PlanLimits {
+        private final boolean allowSeqScan;
+        private final long maxBuffers;
+        private final long maxRows;
+
+        private PlanLimits(boolean allowSeqScan, long maxBuffers, long maxRows) {
+            this.allowSeqScan = allowSeqScan;
+            this.maxBuffers = maxBuffers;
+            this.maxRows = maxRows;
+        }
+
+        /**
+         * Поиск нескольких строк по ключу: по индексу каждой секции.
+         */
+        static PlanLimits pointLookup() {
+            return new PlanLimits(false, 200, 10);
+        }
+
+        /**
+         * Выборка по диапазону индекса, возвращающая до expectedRows строк.
+         */
+        static PlanLimits rangeScan(long expectedRows) {
+            return new PlanLimits(false, 20 * expectedRows + 200, expectedRows + expectedRows / 10 + 10);
+        }
+
+        /**
+         * Изменение до expectedRows строк, найденных по диапазону индекса.
+         * Каждая изменённая строка дополнительно обновляет индексы таблицы, включая индекс номера изменения,
+         * и читается дважды: подзапросом, блокирующим строку и возвращающим прежние значения, и изменяемой таблицей.
+         */
+        static PlanLimits rangeUpdate(long expectedRows) {
+            return new PlanLimits(false, 25 * expectedRows + 200, 2 * (expectedRows + expectedRows / 10) + 10);
+        }
+
+        /**
+         * Обработка пачки из batchSize строк, допускающая последовательное чтение до заполнения пачки.
+         */
+        static PlanLimits batch(long batchSize) {
+            return new PlanLimits(true, 30 * batchSize + 200, 2 * batchSize + 100);
+        }
+
+        /**
+         * Полное чтение таблицы из totalRows строк.
+         */
+        static PlanLimits fullScan(long totalRows) {
+            return new PlanLimits(true, Long.MAX_VALUE, totalRows + totalRows / 10 + 10);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.dao;
+
+import org.example.entity.Task;
+import org.example.entity.TaskChanges;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты синхронизации изменений задач по токену на нескольких соединениях с базой данных.
+ * Тест разворачивает схему из init.sql в отдельной схеме базы данных и проверяет, что клиент
+ * не пропускает изменения транзакций, зафиксированных позже более новых транзакций.
+ *
+ * <p>Запускается только при заданных переменных окружения DB_URL, DB_USERNAME и DB_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TaskSyncTest {
+
+    private static final String SCHEMA = "sync_test";
+
+    private final TaskDAO taskDAO = new TaskDAO();
+
+    @BeforeAll
+    void setUp() throws Exception {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            stmt.execute("CREATE SCHEMA " + SCHEMA);
+            stmt.execute("SET search_path = " + SCHEMA);
+            stmt.execute(readInitScript());
+        }
+    }
+
+    @BeforeEach
+    void clearTasks() throws SQLException {
+        execute("TRUNCATE tasks, task_tombstones");
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    /**
+     * Тестируем транзакцию, начавшую изменение раньше другой, но зафиксированную после того,
+     * как клиент получил изменения другой транзакции.
+     */
+    @Test
+    @DisplayName("Изменение поздно зафиксированной транзакции не пропускается")
+    void testLateCommitIsNotSkipped() throws SQLException {
+        // Подготовка данных
+        TaskChanges initial = readChanges(0, 100);
+        assertTrue(initial.isFullResync());
+
+        try (Connection late = connect()) {
+            // Вызов метода: транзакция late получает номер раньше, но фиксируется позже транзакции early
+            late.setAutoCommit(false);
+            try (Statement stmt = late.createStatement()) {
+                stmt.execute("INSERT INTO tasks (name, start_time) VALUES ('late', now())");
+            }
+            execute("INSERT INTO tasks (name, start_time) VALUES ('early', now())");
+            TaskChanges beforeCommit = readChanges(initial.getToken(), 100);
+            late.commit();
+            TaskChanges afterCommit = readChanges(beforeCommit.getToken(), 100);
+            TaskChanges settled = readChanges(afterCommit.getToken(), 100);
+
+            // Проверки
+            assertEquals(List.of("early"), names(beforeCommit));
+            assertTrue(names(afterCommit).contains("late"), afterCommit.toString());
+            assertFalse(afterCommit.isFullResync());
+            assertTrue(settled.getChanged().isEmpty(), settled.toString());
+            assertTrue(settled.getToken() >= afterCommit.getToken());
+        }
+    }
+
+    /**
+     * Тестируем порции изменений: транзакция не разрезается между порциями,
+     * а удаление приходит надгробием.
+     */
+    @Test
+    @DisplayName("Порция изменений не разрезает транзакцию")
+    void testPagesKeepTransactionsWhole() throws SQLException {
+        // Подготовка данных: четыре задачи одной транзакцией, две - другой, затем физическое удаление одной из первых
+        TaskChanges initial = readChanges(0, 100);
+        execute("INSERT INTO tasks (name, start_time) VALUES ('a1', now()), ('a2', now()), ('a3', now()), ('a4', now())");
+        execute("INSERT INTO tasks (name, start_time) VALUES ('b1', now()), ('b2', now())");
+        execute("DELETE FROM tasks WHERE name = 'a1'");
+
+        // Вызов метода
+        TaskChanges first = readChanges(initial.getToken(), 2);
+        TaskChanges second = readChanges(first.getToken(), 2);
+        TaskChanges third = readChanges(second.getToken(), 2);
+
+        // Проверки: первая транзакция больше порции и приходит целиком
+        assertEquals(List.of("a2", "a3", "a4"), names(first));
+        assertTrue(first.isHasMore());
+        assertEquals(List.of("b1", "b2"), names(second));
+        assertTrue(second.isHasMore());
+        assertEquals(1, third.getDeletedIds().size());
+        assertFalse(third.isHasMore());
+    }
+
+    private TaskChanges readChanges(long token, int limit) throws SQLException {
+        try (DaoSession session = new DaoSession(connect(), false)) {
+            return taskDAO.readChanges(session, token, limit);
+        }
+    }
+
+    private static List<String> names(TaskChanges changes) {
+        return changes.getChanged().stream().map(Task::getName).sorted().collect(Collectors.toList());
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Connection conn = DriverManager.getConnection(System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET search_path = " + SCHEMA + ", public");
+        }
+        return conn;
+    }
+
+    private static String readInitScript() throws IOException {
+        try (InputStream in = TaskSyncTest.class.getResourceAsStream("/init.sql")) {
+            assertNotNull(in, "init.sql not found on classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
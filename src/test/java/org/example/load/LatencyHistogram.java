@@ -0,0 +1,90 @@
+package org.example.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма задержек с логарифмическими корзинами.
+ * Каждая степень двойки делится на 32 равные части, поэтому погрешность перцентилей не превышает ~3%.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private volatile long max;
+
+    /**
+     * Записывает одно измерение.
+     *
+     * @param nanos задержка в наносекундах
+     */
+    void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(nanos, 0)));
+        total.increment();
+        sum.add(nanos);
+        if (nanos > max) {
+            synchronized (this) {
+                if (nanos > max) {
+                    max = nanos;
+                }
+            }
+        }
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    long maxNanos() {
+        return max;
+    }
+
+    double meanNanos() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Возвращает верхнюю границу корзины, в которую попадает заданный перцентиль.
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return задержка в наносекундах
+     */
+    long percentileNanos(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> magnitude) - SUB_BUCKETS;
+        return (magnitude + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+}
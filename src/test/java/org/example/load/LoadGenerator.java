@@ -0,0 +1,255 @@
+package org.example.load;
+
+import org.example.config.DatabaseConnection;
+import org.example.dao.TaskDAO;
+import org.example.dao.TaskFilter;
+import org.example.service.TaskService;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Генератор нагрузки на TaskService и TaskDAO с настоящей базой данных PostgreSQL.
+ * Запуск: {@code mvn -Pload-test test-compile exec:java -Dload.scenario=stop-storm -Dload.threads=64}.
+ * Подключение к базе задаётся теми же переменными окружения, что и для приложения (DB_URL, DB_USERNAME, DB_PASSWORD).
+ *
+ * <p>Параметры (системные свойства):
+ * <ul>
+ *     <li>{@code load.scenario} - mixed, stop-storm или dashboard (по умолчанию mixed);</li>
+ *     <li>{@code load.mix} - собственная смесь операций, например "add:10,list:20,stop:70";</li>
+ *     <li>{@code load.threads} - количество потоков (по умолчанию 32);</li>
+ *     <li>{@code load.virtual} - использовать виртуальные потоки, если их поддерживает JVM (Java 21+);</li>
+ *     <li>{@code load.duration} - длительность замера в секундах (по умолчанию 30);</li>
+ *     <li>{@code load.warmup} - длительность прогрева в секундах (по умолчанию 5);</li>
+ *     <li>{@code load.seed} - количество задач, создаваемых перед запуском (по умолчанию 1000);</li>
+ *     <li>{@code load.cleanup} - удалить созданные задачи после замера (по умолчанию true).</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private final TaskService taskService;
+    private final Map<Scenario.Operation, Integer> mix;
+    private final int totalWeight;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Scenario.Operation, LatencyHistogram> latencies = new EnumMap<>(Scenario.Operation.class);
+    private final Map<Scenario.Operation, LongAdder> misses = new EnumMap<>(Scenario.Operation.class);
+    private final Map<Scenario.Operation, LongAdder> errors = new EnumMap<>(Scenario.Operation.class);
+
+    private final AtomicLong nameSequence = new AtomicLong();
+    private final AtomicLong minId = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxId = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile boolean measuring;
+
+    LoadGenerator(TaskService taskService, Map<Scenario.Operation, Integer> mix) {
+        this.taskService = taskService;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Operation mix must have a positive total weight");
+        }
+        for (Scenario.Operation operation : Scenario.Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            misses.put(operation, new LongAdder());
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String scenarioName = System.getProperty("load.scenario", "mixed");
+        String mixSpec = System.getProperty("load.mix");
+        Map<Scenario.Operation, Integer> mix = mixSpec != null ? Scenario.parseMix(mixSpec) : Scenario.byName(scenarioName).mix();
+        int threads = Integer.getInteger("load.threads", 32);
+        boolean virtual = Boolean.parseBoolean(System.getProperty("load.virtual", "false"));
+        int durationSeconds = Integer.getInteger("load.duration", 30);
+        int warmupSeconds = Integer.getInteger("load.warmup", 5);
+        int seed = Integer.getInteger("load.seed", 1000);
+        boolean cleanup = Boolean.parseBoolean(System.getProperty("load.cleanup", "true"));
+
+        TaskService taskService = new TaskService(new TaskDAO());
+        taskService.loadIdFilter();
+        LoadGenerator generator = new LoadGenerator(taskService, mix);
+        System.out.printf("Scenario: %s, mix: %s, threads: %d (%s), warmup: %ds, duration: %ds%n",
+                mixSpec != null ? "custom" : scenarioName, mix, threads, virtual ? "virtual" : "platform",
+                warmupSeconds, durationSeconds);
+
+        generator.seed(seed);
+        try {
+            generator.run(threads, virtual, warmupSeconds, durationSeconds);
+            generator.report(durationSeconds);
+        } finally {
+            if (cleanup) {
+                generator.cleanup();
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Создаёт начальный набор активных задач, над которыми выполняются остановки, переименования и удаления.
+     */
+    void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            taskService.addTask(nextName()).ifPresent(this::trackId);
+        }
+        System.out.printf("Seeded %d tasks%n", count);
+    }
+
+    void run(int threads, boolean virtual, int warmupSeconds, int durationSeconds) throws Exception {
+        ExecutorService executor = createExecutor(threads, virtual);
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long deadline = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    execute(pickOperation());
+                }
+            }));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        DatabaseConnection.resetPoolStats();
+        measuring = true;
+
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        measuring = false;
+        executor.shutdown();
+    }
+
+    void report(int durationSeconds) {
+        System.out.println();
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+                "op", "count", "ops/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms", "misses", "errors");
+        long totalCount = 0;
+        for (Scenario.Operation operation : Scenario.Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long count = histogram.count();
+            totalCount += count;
+            if (count == 0) {
+                continue;
+            }
+            System.out.printf("%-8s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f %8d %8d%n",
+                    operation.name().toLowerCase(), count, (double) count / durationSeconds,
+                    histogram.meanNanos() / 1e6, millis(histogram.percentileNanos(50)),
+                    millis(histogram.percentileNanos(90)), millis(histogram.percentileNanos(99)),
+                    millis(histogram.maxNanos()), misses.get(operation).sum(), errors.get(operation).sum());
+        }
+        System.out.printf("%ntotal: %d ops, %.1f ops/s%n", totalCount, (double) totalCount / durationSeconds);
+
+        long checkouts = DatabaseConnection.getCheckoutCount();
+        System.out.printf("pool: size %d, checkouts %d, mean wait %.3f ms, max wait %.3f ms%n",
+                DatabaseConnection.getMaximumPoolSize(), checkouts,
+                checkouts == 0 ? 0 : DatabaseConnection.getCheckoutWaitNanos() / 1e6 / checkouts,
+                DatabaseConnection.getMaxCheckoutWaitNanos() / 1e6);
+        System.out.println("admission: " + taskService.getAdmissionController());
+        System.out.println("reads: " + taskService.getReadCoalescer());
+    }
+
+    void cleanup() {
+        TaskFilter filter = new TaskFilter();
+        filter.setNamePattern("load-" + runId + "-%");
+        List<Long> deleted = taskService.deleteTasks(filter);
+        System.out.printf("Cleaned up %d tasks%n", deleted.size());
+    }
+
+    private void execute(Scenario.Operation operation) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = perform(operation);
+        } catch (RuntimeException e) {
+            if (measuring) {
+                errors.get(operation).increment();
+            }
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (measuring) {
+            latencies.get(operation).record(elapsed);
+            if (!success) {
+                misses.get(operation).increment();
+            }
+        }
+    }
+
+    private boolean perform(Scenario.Operation operation) {
+        switch (operation) {
+            case ADD:
+                Optional<Long> id = taskService.addTask(nextName());
+                id.ifPresent(this::trackId);
+                return id.isPresent();
+            case LIST:
+                taskService.getAllTasks();
+                return true;
+            case RENAME:
+                return taskService.updateTaskName(randomId(), nextName());
+            case STOP:
+                return taskService.stopTask(randomId());
+            case FINISH:
+                return taskService.finishTask(randomId());
+            case DELETE:
+                return taskService.deleteTask(randomId());
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    private Scenario.Operation pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Scenario.Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Operation mix is empty");
+    }
+
+    private String nextName() {
+        return "load-" + runId + "-" + nameSequence.incrementAndGet();
+    }
+
+    private void trackId(long id) {
+        minId.accumulateAndGet(id, Math::min);
+        maxId.accumulateAndGet(id, Math::max);
+    }
+
+    private long randomId() {
+        long min = minId.get();
+        long max = maxId.get();
+        return min > max ? 1 : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Создаёт пул потоков: виртуальные потоки используются только если их поддерживает текущая JVM.
+     */
+    private static ExecutorService createExecutor(int threads, boolean virtual) {
+        if (virtual) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads are not supported by this JVM, using platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Предустановленные сценарии нагрузки: доли операций в общем потоке запросов.
+ */
+enum Scenario {
+    /**
+     * Обычный рабочий день: все операции вперемешку.
+     */
+    MIXED(10, 20, 10, 25, 20, 15),
+    /**
+     * Конец рабочего дня: почти все запросы останавливают или завершают задачи.
+     */
+    STOP_STORM(2, 3, 0, 80, 15, 0),
+    /**
+     * Опрос задач дашбордами: преобладает чтение полного списка.
+     */
+    DASHBOARD(4, 90, 1, 3, 2, 0);
+
+    /**
+     * Операции, которые генератор выполняет через TaskService.
+     */
+    enum Operation {
+        ADD, LIST, RENAME, STOP, FINISH, DELETE
+    }
+
+    private final int[] weights;
+
+    Scenario(int add, int list, int rename, int stop, int finish, int delete) {
+        this.weights = new int[]{add, list, rename, stop, finish, delete};
+    }
+
+    /**
+     * Возвращает веса операций сценария.
+     *
+     * @return веса в порядке объявления {@link Operation}
+     */
+    Map<Operation, Integer> mix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, weights[operation.ordinal()]);
+        }
+        return mix;
+    }
+
+    /**
+     * Разбирает смесь операций вида "add:10,list:20,stop:70".
+     *
+     * @param spec описание смеси
+     * @return веса операций
+     */
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, 0);
+        }
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * Находит сценарий по имени вида "stop-storm" или "STOP_STORM".
+     *
+     * @param name имя сценария
+     * @return сценарий
+     */
+    static Scenario byName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.load;
+
+import org.example.dao.TaskDAO;
+import org.example.dao.TaskFilter;
+import org.example.entity.Task;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Замер памяти, выделяемой на одну строку при чтении списка задач: {@link TaskDAO#getAllTasks()}
+ * против компактного {@link TaskDAO#getAllTaskViews()}. Выделенные байты считаются по текущему потоку
+ * через com.sun.management.ThreadMXBean, поэтому в результат входят и объекты драйвера JDBC.
+ * Запуск: {@code mvn -Pload-test test-compile exec:java -Dload.main=org.example.load.TaskMappingBenchmark}.
+ *
+ * <p>Параметры (системные свойства):
+ * <ul>
+ *     <li>{@code bench.seed} - количество задач, создаваемых перед замером (по умолчанию 10000);</li>
+ *     <li>{@code bench.iterations} - количество замеряемых чтений списка (по умолчанию 20);</li>
+ *     <li>{@code bench.warmup} - количество чтений для прогрева (по умолчанию 10);</li>
+ *     <li>{@code bench.cleanup} - удалить созданные задачи после замера (по умолчанию true).</li>
+ * </ul>
+ */
+public class TaskMappingBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int seed = Integer.getInteger("bench.seed", 10_000);
+        int iterations = Integer.getInteger("bench.iterations", 20);
+        int warmup = Integer.getInteger("bench.warmup", 10);
+        boolean cleanup = Boolean.parseBoolean(System.getProperty("bench.cleanup", "true"));
+        String prefix = "bench-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+
+        TaskDAO taskDAO = new TaskDAO();
+        for (int i = 0; i < seed; i++) {
+            Task task = new Task();
+            task.setName(prefix + i);
+            task.setStartTime(LocalDateTime.now().minusMinutes(i));
+            task.setStatus(i % 3 == 0 ? "Активна" : "Завершена");
+            task.setStopTime(i % 3 == 0 ? null : task.getStartTime().plusMinutes(30));
+            taskDAO.addTask(task);
+        }
+        System.out.printf("Seeded %d tasks%n", seed);
+
+        try {
+            measure("Task (getAllTasks)", taskDAO::getAllTasks, warmup, iterations);
+            measure("TaskView (getAllTaskViews)", taskDAO::getAllTaskViews, warmup, iterations);
+        } finally {
+            if (cleanup) {
+                TaskFilter filter = new TaskFilter();
+                filter.setNamePattern(prefix + "%");
+                System.out.printf("Cleaned up %d tasks%n", taskDAO.deleteTasks(filter).size());
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Читает список задач несколько раз и выводит выделенные байты и время на одну строку.
+     */
+    private static void measure(String label, Supplier<List<?>> read, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            read.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long rows = 0;
+        long startBytes = THREADS.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            rows += read.get().size();
+        }
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - startBytes;
+        System.out.printf("%-28s rows/read: %7d  bytes/row: %7.1f  ns/row: %7.1f%n",
+                label, rows / Math.max(iterations, 1), (double) bytes / Math.max(rows, 1), (double) nanos / Math.max(rows, 1));
+    }
+}